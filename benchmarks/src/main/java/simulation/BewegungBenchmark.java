@@ -0,0 +1,93 @@
+package simulation;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Misst die Bewegung eines Tieres durch ein teilweise belegtes Feld.
+ * Mit -prof gc sollte gc.alloc.rate.norm fuer die Varianten mit
+ * gepackten Koordinaten bei 0 B/op liegen; die Varianten mit
+ * Position-Objekten dienen zum Vergleich.
+ *
+ * @author marc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BewegungBenchmark
+{
+    private static final int GROESSE = 100;
+
+    private Feld feld;
+    private Hase hase;
+    private Random rand;
+
+    @Setup
+    public void vorbereiten()
+    {
+        feld = new Feld(GROESSE, GROESSE);
+        rand = new Zufall(42);
+        // jede dritte Zelle belegen, damit freie Nachbarn gesucht werden muessen
+        for(int zeile = 0; zeile < GROESSE; zeile++) {
+            for(int spalte = 0; spalte < GROESSE; spalte++) {
+                if((zeile * GROESSE + spalte) % 3 == 0) {
+                    Hase nachbar = new Hase(false, rand);
+                    nachbar.setzePosition(zeile, spalte);
+                    feld.platziere(nachbar);
+                }
+            }
+        }
+        hase = new Hase(false, rand);
+        hase.setzePosition(GROESSE / 2, GROESSE / 2);
+    }
+
+    @Benchmark
+    public long freierNachbar()
+    {
+        long ziel = feld.freierNachbar(hase.gibZeile(), hase.gibSpalte(), rand);
+        if(ziel != Position.KEINE) {
+            hase.setzeKoordinate(ziel);
+        }
+        return ziel;
+    }
+
+    @Benchmark
+    public long zufaelligerNachbar()
+    {
+        long ziel = feld.zufaelligerNachbar(hase.gibZeile(), hase.gibSpalte(), rand);
+        hase.setzeKoordinate(ziel);
+        return ziel;
+    }
+
+    @Benchmark
+    public Position freieNachbarposition()
+    {
+        Position ziel = feld.freieNachbarposition(hase.gibPosition());
+        if(ziel != null) {
+            hase.setzePosition(ziel);
+        }
+        return ziel;
+    }
+
+    @Benchmark
+    public Position zufaelligeNachbarposition()
+    {
+        Position ziel = feld.zufaelligeNachbarposition(hase.gibPosition());
+        hase.setzePosition(ziel);
+        return ziel;
+    }
+}
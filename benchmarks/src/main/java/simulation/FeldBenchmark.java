@@ -0,0 +1,94 @@
+package simulation;
+
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Misst die Grundoperationen des Feldes: das Durchlaufen der Nachbarn
+ * einer Position und das Raeumen nach einem Schritt. nachbar zeigt
+ * zum Vergleich den Weg ohne Position-Objekte. (freieNachbarposition
+ * wird im BewegungBenchmark gemessen.)
+ *
+ * raeumen wird zusammen mit dem Platzieren der Tiere gemessen, weil
+ * ein leeres Feld nichts zu raeumen haette. Die Belegung bestimmt,
+ * ob raeumen die vermerkten Zellen einzeln leert oder das ganze
+ * Array fuellt.
+ *
+ * @author marc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeldBenchmark
+{
+    private static final int GROESSE = 200;
+
+    // Anteil der Zellen, die vor dem Raeumen belegt werden
+    @Param({"0.05", "0.5"})
+    private double belegung;
+
+    private Feld feld;
+    private Tier[] tiere;
+    private Random rand;
+    private Position mitte;
+
+    @Setup
+    public void vorbereiten()
+    {
+        feld = new Feld(GROESSE, GROESSE);
+        rand = new Zufall(42);
+        mitte = new Position(GROESSE / 2, GROESSE / 2);
+        int anzahl = (int) (GROESSE * GROESSE * belegung);
+        tiere = new Tier[anzahl];
+        for(int i = 0; i < anzahl; i++) {
+            // Zellen gleichmaessig ueber das Feld verteilen
+            int zelle = (int) ((long) i * GROESSE * GROESSE / anzahl);
+            tiere[i] = new Hase(false, rand);
+            tiere[i].setzePosition(zelle / GROESSE, zelle % GROESSE);
+        }
+    }
+
+    @Benchmark
+    public void nachbarpositionen(Blackhole loch)
+    {
+        for(Iterator<Position> iter = feld.nachbarpositionen(mitte); iter.hasNext(); ) {
+            loch.consume(iter.next());
+        }
+    }
+
+    @Benchmark
+    public void nachbar(Blackhole loch)
+    {
+        int reihenfolge = feld.mischeNachbarn(rand);
+        for(int k = 0; k < Feld.NACHBARN; k++) {
+            loch.consume(feld.nachbar(mitte.gibZeile(), mitte.gibSpalte(), reihenfolge, k));
+        }
+    }
+
+    @Benchmark
+    public Feld platzierenUndRaeumen()
+    {
+        for(Tier tier : tiere) {
+            feld.platziere(tier);
+        }
+        feld.raeumen();
+        return feld;
+    }
+}
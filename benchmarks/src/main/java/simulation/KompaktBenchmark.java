@@ -0,0 +1,67 @@
+package simulation;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Misst einen Schritt des KompaktSimulators. Vor jeder Iteration wird
+ * die Simulation neu bevoelkert, damit die Anzahl der Tiere
+ * vergleichbar bleibt. massenphasen waehlt, ob Alter und Hunger Tier
+ * fuer Tier oder in einem Durchlauf berechnet werden (siehe
+ * KompaktSimulator.setzeMassenphasen).
+ *
+ * @author marc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class KompaktBenchmark
+{
+    @Param({"200", "1000"})
+    private int groesse;
+
+    @Param({"aus", "skalar", "vektor"})
+    private String massenphasen;
+
+    private KompaktSimulator simulator;
+
+    @Setup
+    public void vorbereiten()
+    {
+        simulator = new KompaktSimulator(groesse, groesse, 42);
+        if(massenphasen.equals("skalar")) {
+            simulator.setzeMassenphasen(Massenphasen.skalar());
+        }
+        else if(massenphasen.equals("vektor")) {
+            simulator.setzeMassenphasen(Massenphasen.vektor());
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void neuBevoelkern()
+    {
+        simulator.zuruecksetzen();
+    }
+
+    @Benchmark
+    public KompaktSimulator simuliereEinenSchritt()
+    {
+        simulator.simuliereEinenSchritt();
+        return simulator;
+    }
+}
@@ -0,0 +1,89 @@
+package simulation;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Misst Massenphasen.altere fuer einen Bestand aus Hasen und Fuechsen
+ * im Verhaeltnis der Startdichten, skalar und mit der Vector API. Vor
+ * jeder Iteration werden Alter und Futter-Level neu gesetzt, damit
+ * keine Zahl ueberlaeuft.
+ *
+ * @author marc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class MassenphasenBenchmark
+{
+    @Param({"skalar", "vektor"})
+    private String variante;
+
+    @Param({"100000", "1000000"})
+    private int anzahl;
+
+    private Massenphasen phasen;
+    private byte[] art;
+    private int[] alter;
+    private int[] futterLevel;
+    private boolean[] faellig;
+    // Hoechstalter und Hunger je Art wie im KompaktSimulator
+    private int[] maxAlter;
+    private int[] hunger;
+
+    @Setup
+    public void vorbereiten()
+    {
+        phasen = variante.equals("vektor") ? Massenphasen.vektor() : Massenphasen.skalar();
+        if(!phasen.gibName().equals(variante)) {
+            throw new IllegalStateException("Variante " + variante + " nicht vorhanden");
+        }
+        maxAlter = new int[Tierart.ANZAHL];
+        hunger = new int[Tierart.ANZAHL];
+        for(int a = 0; a < Tierart.ANZAHL; a++) {
+            maxAlter[a] = Parameter.STANDARD.gib(a).gibMaxAlter();
+            hunger[a] = Tierart.istJaeger(a) ? 1 : 0;
+        }
+        Random zufall = new Random(42);
+        art = new byte[anzahl];
+        alter = new int[anzahl];
+        futterLevel = new int[anzahl];
+        faellig = new boolean[anzahl];
+        for(int tier = 0; tier < anzahl; tier++) {
+            art[tier] = (byte) (zufall.nextInt(4) == 0 ? Tierart.FUCHS : Tierart.HASE);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void neuSetzen()
+    {
+        Random zufall = new Random(7);
+        for(int tier = 0; tier < anzahl; tier++) {
+            alter[tier] = zufall.nextInt(100);
+            futterLevel[tier] = zufall.nextInt(20);
+        }
+    }
+
+    @Benchmark
+    public boolean[] altere()
+    {
+        phasen.altere(art, alter, futterLevel, faellig, anzahl, maxAlter, hunger);
+        return faellig;
+    }
+}
@@ -0,0 +1,90 @@
+package simulation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Misst einen Simulationsschritt mit und ohne Schrittprotokoll. Vor
+ * jeder Messiteration wird die Simulation neu bevoelkert und ein neues
+ * Protokoll in einem temporaeren Verzeichnis begonnen.
+ *
+ * @author marc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProtokollBenchmark
+{
+    @Param({"200", "500"})
+    private int groesse;
+
+    @Param({"false", "true"})
+    private boolean protokollieren;
+
+    private Simulator simulator;
+    private File verzeichnis;
+    private Schrittprotokoll protokoll;
+
+    @Setup(Level.Trial)
+    public void erzeugen() throws IOException
+    {
+        simulator = new Simulator(groesse, groesse, new LeereAnsicht(), 42);
+        simulator.setzeAnzeigeIntervall(0);
+        verzeichnis = Files.createTempDirectory("protokoll").toFile();
+    }
+
+    @Setup(Level.Iteration)
+    public void bevoelkern() throws IOException
+    {
+        simulator.zuruecksetzen();
+        if(protokollieren) {
+            protokoll = new Schrittprotokoll(verzeichnis);
+            simulator.setzeProtokoll(protokoll);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void beendeProtokoll() throws IOException
+    {
+        if(protokoll != null) {
+            simulator.setzeProtokoll(null);
+            protokoll.schliesse();
+            protokoll = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void aufraeumen()
+    {
+        for(File datei : verzeichnis.listFiles()) {
+            datei.delete();
+        }
+        verzeichnis.delete();
+    }
+
+    @Benchmark
+    public int simuliereEinenSchritt()
+    {
+        simulator.simuliereEinenSchritt();
+        return simulator.gibSchritt();
+    }
+}
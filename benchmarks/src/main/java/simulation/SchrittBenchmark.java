@@ -0,0 +1,81 @@
+package simulation;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Misst einen ganzen Simulationsschritt fuer verschiedene Feldgroessen
+ * und Anfangsdichten. Die Dichte ist der Anteil der belegten Zellen
+ * beim Bevoelkern, davon ein Fuenftel Fuechse (wie bei den
+ * Standardwerten des Simulators, die etwa 0.1 ergeben).
+ *
+ * Vor jeder Messiteration wird die Simulation mit derselben Saat neu
+ * bevoelkert; innerhalb einer Iteration entwickelt sich die
+ * Population wie in einem normalen Lauf weiter.
+ *
+ * @author marc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchrittBenchmark
+{
+    @Param({"50", "200", "500"})
+    private int groesse;
+
+    @Param({"0.1", "0.3", "0.6"})
+    private double dichte;
+
+    // 0 fuer den sequentiellen Schritt, sonst die Anzahl der Threads
+    @Param({"0"})
+    private int threads;
+
+    private Simulator simulator;
+
+    @Setup(Level.Trial)
+    public void erzeugen()
+    {
+        simulator = new Simulator(groesse, groesse, new LeereAnsicht(), 42);
+        simulator.setzeAnzeigeIntervall(0);
+        simulator.setzeParallelitaet(threads);
+    }
+
+    @Setup(Level.Iteration)
+    public void bevoelkern()
+    {
+        double[] geburt = new double[Tierart.ANZAHL];
+        geburt[Tierart.FUCHS] = dichte / 5;
+        // Hasen nur in Zellen, in die kein Fuchs gesetzt wurde
+        geburt[Tierart.HASE] = (dichte - geburt[Tierart.FUCHS]) / (1 - geburt[Tierart.FUCHS]);
+        simulator.zuruecksetzen(geburt);
+    }
+
+    @TearDown(Level.Trial)
+    public void beenden()
+    {
+        simulator.setzeParallelitaet(0);
+    }
+
+    @Benchmark
+    public int simuliereEinenSchritt()
+    {
+        simulator.simuliereEinenSchritt();
+        return simulator.gibSchritt();
+    }
+}
@@ -0,0 +1,68 @@
+package simulation;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Misst die FeldStatistik: das Zaehlen aller Tiere durch einen
+ * Durchlauf des Feldes und die Abfragen, die der Simulator nach jedem
+ * Schritt fuer istAktiv und die Statuszeile der Ansicht braucht.
+ *
+ * @author marc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatistikBenchmark
+{
+    @Param({"50", "200", "500"})
+    private int groesse;
+
+    private Feld feld;
+    private FeldStatistik stats;
+
+    @Setup
+    public void vorbereiten()
+    {
+        // ein Feld, wie es nach einigen Schritten aussieht
+        Simulator simulator = new Simulator(groesse, groesse, new LeereAnsicht(), 42);
+        simulator.setzeAnzeigeIntervall(0);
+        simulator.simuliere(20);
+        feld = simulator.gibFeld();
+        stats = new FeldStatistik();
+        stats.zaehle(feld);
+    }
+
+    @Benchmark
+    public FeldStatistik zaehle()
+    {
+        stats.zaehle(feld);
+        return stats;
+    }
+
+    @Benchmark
+    public boolean istAktiv()
+    {
+        return stats.istAktiv();
+    }
+
+    @Benchmark
+    public String gibBewohnerInfo()
+    {
+        return stats.gibBewohnerInfo();
+    }
+}
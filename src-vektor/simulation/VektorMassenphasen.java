@@ -0,0 +1,68 @@
+package simulation;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Die Massenphasen mit der Vector API. Jede Lane eines IntVector ist
+ * ein Tier; die Art kommt aus einem ByteVector mit ebenso vielen Lanes.
+ * Verzweigungen werden zu Masken: Hoechstalter und Hunger werden je
+ * Lane aus den Werten der Arten gemischt, eine Maske je Art.
+ *
+ * Wird nur ueber Massenphasen.vektor() geladen, damit der Rest der
+ * Simulation ohne die Vector API auskommt.
+ *
+ * @author marc
+ */
+class VektorMassenphasen extends Massenphasen
+{
+    // Mindestens acht Lanes, damit es eine Byte-Form mit ebenso vielen gibt
+    private static final VectorSpecies<Integer> INT =
+        IntVector.SPECIES_PREFERRED.length() >= 8 ? IntVector.SPECIES_PREFERRED
+                                                  : IntVector.SPECIES_256;
+    private static final VectorSpecies<Byte> BYTE =
+        VectorSpecies.of(byte.class, VectorShape.forBitSize(INT.length() * 8));
+
+    public void altere(byte[] art, int[] alter, int[] futterLevel, boolean[] faellig,
+                       int anzahl, int[] maxAlter, int[] hunger)
+    {
+        int arten = maxAlter.length;
+        IntVector[] maxAlterVektor = new IntVector[arten];
+        IntVector[] hungerVektor = new IntVector[arten];
+        for(int a = 0; a < arten; a++) {
+            maxAlterVektor[a] = IntVector.broadcast(INT, maxAlter[a]);
+            hungerVektor[a] = IntVector.broadcast(INT, hunger[a]);
+        }
+        int grenze = INT.loopBound(anzahl);
+        int tier = 0;
+        for(; tier < grenze; tier += INT.length()) {
+            IntVector tierart = (IntVector) ByteVector.fromArray(BYTE, art, tier)
+                                                      .convertShape(VectorOperators.B2I, INT, 0);
+            IntVector maxAlterJeTier = maxAlterVektor[0];
+            IntVector hungerJeTier = hungerVektor[0];
+            for(int a = 1; a < arten; a++) {
+                VectorMask<Integer> maske = tierart.eq(a);
+                maxAlterJeTier = maxAlterJeTier.blend(maxAlterVektor[a], maske);
+                hungerJeTier = hungerJeTier.blend(hungerVektor[a], maske);
+            }
+            IntVector neuesAlter = IntVector.fromArray(INT, alter, tier).add(1);
+            IntVector neuerFutterLevel = IntVector.fromArray(INT, futterLevel, tier).sub(hungerJeTier);
+            neuesAlter.intoArray(alter, tier);
+            neuerFutterLevel.intoArray(futterLevel, tier);
+            neuesAlter.compare(VectorOperators.GT, maxAlterJeTier)
+                      .or(neuerFutterLevel.compare(VectorOperators.LE, 0)
+                                          .and(hungerJeTier.compare(VectorOperators.NE, 0)))
+                      .intoArray(faellig, tier);
+        }
+        altere(art, alter, futterLevel, faellig, tier, anzahl, maxAlter, hunger);
+    }
+
+    public String gibName()
+    {
+        return "vektor";
+    }
+}
@@ -0,0 +1,208 @@
+package simulation;
+
+/**
+ * Die Eigenschaften aller Tiere einer Art: wann und wie oft sie
+ * Nachwuchs bekommen, wie alt sie werden, wie lange eine Mahlzeit
+ * vorhaelt und wie dicht sie das Feld zu Beginn bevoelkern.
+ *
+ * Artparameter sind unveraenderlich. Jedes Tier haelt eine Referenz
+ * auf die Parameter seiner Art und liest sie ueber finale Felder,
+ * ohne Nachschlagen in einer Map; eine Simulation mit anderen
+ * Parametern ist also genauso schnell wie mit den Standardwerten.
+ *
+ * @author marc
+ */
+public final class Artparameter
+{
+    /** Die Eigenschaften von Hasen, wie sie schon immer waren. */
+    public static final Artparameter STANDARD_HASE =
+        new Artparameter(5, 50, 0.15, 5, 0, 0.08, 1);
+    /** Die Eigenschaften von Fuechsen, wie sie schon immer waren. */
+    public static final Artparameter STANDARD_FUCHS =
+        new Artparameter(10, 150, 0.09, 3, 4, 0.02, 1);
+
+    // Das Alter, in dem ein Tier gebaerfaehig wird.
+    private final int gebaerAlter;
+    // Das Hoechstalter eines Tieres.
+    private final int maxAlter;
+    // Die Wahrscheinlichkeit, mit der ein Tier Nachwuchs gebaert.
+    private final double gebaerWahrscheinlichkeit;
+    // Die maximale Groesse eines Wurfes (Anzahl der Jungen).
+    private final int maxWurfgroesse;
+    // Die Anzahl der Schritte, die ein Jaeger nach einer Mahlzeit bis
+    // zur naechsten laufen kann; 0 fuer Tiere, die nicht jagen.
+    private final int saettigung;
+    // Die Wahrscheinlichkeit fuer ein Tier dieser Art je Zelle beim
+    // Bevoelkern des Feldes.
+    private final double startWahrscheinlichkeit;
+    // Wie viele Zeilen und Spalten weit ein Jaeger Beute bemerkt; bei 1
+    // nur in den Nachbarzellen.
+    private final int sichtweite;
+
+    /**
+     * Erzeuge Artparameter.
+     * @param gebaerAlter das Alter, ab dem Nachwuchs moeglich ist.
+     * @param maxAlter das Hoechstalter (mindestens 1).
+     * @param gebaerWahrscheinlichkeit die Wahrscheinlichkeit fuer
+     *        Nachwuchs je Schritt.
+     * @param maxWurfgroesse die groesste Anzahl Junge (mindestens 1).
+     * @param saettigung die Schritte, die eine Mahlzeit vorhaelt.
+     * @param startWahrscheinlichkeit die Wahrscheinlichkeit je Zelle
+     *        beim Bevoelkern.
+     * @param sichtweite die Entfernung, auf die ein Jaeger Beute
+     *        bemerkt (mindestens 1).
+     * @throws IllegalArgumentException bei unsinnigen Werten.
+     */
+    public Artparameter(int gebaerAlter, int maxAlter, double gebaerWahrscheinlichkeit,
+                        int maxWurfgroesse, int saettigung, double startWahrscheinlichkeit,
+                        int sichtweite)
+    {
+        pruefe(gebaerAlter >= 0, "gebaeralter", gebaerAlter);
+        pruefe(maxAlter >= 1, "maxalter", maxAlter);
+        pruefe(gebaerWahrscheinlichkeit >= 0 && gebaerWahrscheinlichkeit <= 1,
+               "gebaerwahrscheinlichkeit", gebaerWahrscheinlichkeit);
+        pruefe(maxWurfgroesse >= 1, "maxwurfgroesse", maxWurfgroesse);
+        pruefe(saettigung >= 0, "saettigung", saettigung);
+        pruefe(startWahrscheinlichkeit >= 0 && startWahrscheinlichkeit <= 1,
+               "startwahrscheinlichkeit", startWahrscheinlichkeit);
+        pruefe(sichtweite >= 1, "sichtweite", sichtweite);
+        this.gebaerAlter = gebaerAlter;
+        this.maxAlter = maxAlter;
+        this.gebaerWahrscheinlichkeit = gebaerWahrscheinlichkeit;
+        this.maxWurfgroesse = maxWurfgroesse;
+        this.saettigung = saettigung;
+        this.startWahrscheinlichkeit = startWahrscheinlichkeit;
+        this.sichtweite = sichtweite;
+    }
+
+    /**
+     * Liefere eine Kopie mit einer geaenderten Eigenschaft.
+     * @param eigenschaft der Name der Eigenschaft in Kleinbuchstaben,
+     *        etwa "maxalter" (siehe gibNamen).
+     * @param wert der neue Wert als Text.
+     * @return die geaenderten Artparameter.
+     * @throws IllegalArgumentException wenn es die Eigenschaft nicht
+     *         gibt oder der Wert unsinnig ist.
+     */
+    public Artparameter mit(String eigenschaft, String wert)
+    {
+        int ga = gebaerAlter, ma = maxAlter, mw = maxWurfgroesse, s = saettigung, sv = sichtweite;
+        double gw = gebaerWahrscheinlichkeit, sw = startWahrscheinlichkeit;
+        try {
+            if(eigenschaft.equals("gebaeralter")) {
+                ga = Integer.parseInt(wert.trim());
+            }
+            else if(eigenschaft.equals("maxalter")) {
+                ma = Integer.parseInt(wert.trim());
+            }
+            else if(eigenschaft.equals("gebaerwahrscheinlichkeit")) {
+                gw = Double.parseDouble(wert.trim());
+            }
+            else if(eigenschaft.equals("maxwurfgroesse")) {
+                mw = Integer.parseInt(wert.trim());
+            }
+            else if(eigenschaft.equals("saettigung")) {
+                s = Integer.parseInt(wert.trim());
+            }
+            else if(eigenschaft.equals("startwahrscheinlichkeit")) {
+                sw = Double.parseDouble(wert.trim());
+            }
+            else if(eigenschaft.equals("sichtweite")) {
+                sv = Integer.parseInt(wert.trim());
+            }
+            else {
+                throw new IllegalArgumentException("Unbekannte Eigenschaft: " + eigenschaft);
+            }
+        }
+        catch(NumberFormatException e) {
+            throw new IllegalArgumentException("Keine Zahl fuer " + eigenschaft + ": " + wert);
+        }
+        return new Artparameter(ga, ma, gw, mw, s, sw, sv);
+    }
+
+    /**
+     * @return die Namen der Eigenschaften, wie sie mit angegeben werden.
+     */
+    public static String[] gibNamen()
+    {
+        return new String[] { "gebaeralter", "maxalter", "gebaerwahrscheinlichkeit",
+                              "maxwurfgroesse", "saettigung", "startwahrscheinlichkeit",
+                              "sichtweite" };
+    }
+
+    /**
+     * @return die Werte der Eigenschaften als Text, in der Reihenfolge
+     *         von gibNamen; mit liest sie unveraendert wieder ein.
+     */
+    public String[] gibWerte()
+    {
+        return new String[] { String.valueOf(gebaerAlter), String.valueOf(maxAlter),
+                              String.valueOf(gebaerWahrscheinlichkeit),
+                              String.valueOf(maxWurfgroesse), String.valueOf(saettigung),
+                              String.valueOf(startWahrscheinlichkeit),
+                              String.valueOf(sichtweite) };
+    }
+
+    public int gibGebaerAlter()
+    {
+        return gebaerAlter;
+    }
+
+    public int gibMaxAlter()
+    {
+        return maxAlter;
+    }
+
+    public double gibGebaerWahrscheinlichkeit()
+    {
+        return gebaerWahrscheinlichkeit;
+    }
+
+    public int gibMaxWurfgroesse()
+    {
+        return maxWurfgroesse;
+    }
+
+    /**
+     * @return die Anzahl der Schritte, die ein Jaeger nach einer
+     *         Mahlzeit laufen kann.
+     */
+    public int gibSaettigung()
+    {
+        return saettigung;
+    }
+
+    /**
+     * @return die Wahrscheinlichkeit fuer ein Tier dieser Art je Zelle
+     *         beim Bevoelkern.
+     */
+    public double gibStartWahrscheinlichkeit()
+    {
+        return startWahrscheinlichkeit;
+    }
+
+    /**
+     * @return wie viele Zeilen und Spalten weit ein Jaeger Beute
+     *         bemerkt; 1 heisst nur in den Nachbarzellen.
+     */
+    public int gibSichtweite()
+    {
+        return sichtweite;
+    }
+
+    public String toString()
+    {
+        return "gebaeralter=" + gebaerAlter + " maxalter=" + maxAlter
+            + " gebaerwahrscheinlichkeit=" + gebaerWahrscheinlichkeit
+            + " maxwurfgroesse=" + maxWurfgroesse + " saettigung=" + saettigung
+            + " startwahrscheinlichkeit=" + startWahrscheinlichkeit
+            + " sichtweite=" + sichtweite;
+    }
+
+    private static void pruefe(boolean gueltig, String eigenschaft, Object wert)
+    {
+        if(!gueltig) {
+            throw new IllegalArgumentException("Ungueltiger Wert fuer " + eigenschaft + ": " + wert);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package simulation;
+
+import java.util.Arrays;
+
+/**
+ * Ein grober Index ueber die Belegung eines Feldes: fuer jeden Block
+ * von BLOCK x BLOCK Zellen die Anzahl der lebenden Tiere jeder Art.
+ * Eine Suche in einem grossen Umkreis muss damit nur die Zellen der
+ * Bloecke ansehen, in denen ueberhaupt passende Tiere stehen, und
+ * Bloecke, die weiter entfernt sind als der beste Fund, gar nicht.
+ *
+ * Der Index wird zu Beginn eines Schrittes aus den belegten Zellen
+ * des Feldes erneuert, solange noch keine Tiere agieren. Waehrend des
+ * Schrittes wird er nur gelesen, auch von mehreren Threads zugleich;
+ * Tiere, die in diesem Schritt sterben, zaehlt er weiter mit.
+ *
+ * Auf einem Torus reichen die Ringe von Bloecken ueber die Raender.
+ * Jede Blockzeile und -spalte liegt dort in dem Ring, in dem sie dem
+ * Jaeger auf dem kuerzeren Weg um den Torus am naechsten ist; die
+ * umgebrochenen Bloecke stehen in Tabellen wie bei
+ * Nachbarschaft.ringtabelle.
+ *
+ * @author marc
+ */
+class Belegungsindex
+{
+    // Die Kantenlaenge eines Blocks als Zweierpotenz
+    private static final int BLOCK_BITS = 3;
+    // Die Kantenlaenge eines Blocks in Zellen
+    private static final int BLOCK = 1 << BLOCK_BITS;
+
+    private final int tiefe, breite;
+    private final int blockZeilen, blockSpalten;
+    // Die Anzahl der Tiere, Index art * bloecke + block
+    private final int[] anzahl;
+    // Nur auf einem Torus: die Blockzeilen oberhalb und unterhalb des
+    // Jaegers und die Blockspalten links und rechts, die auf diesem
+    // Weg am naechsten sind
+    private final int oben, unten, links, rechts;
+    // Nur auf einem Torus: die umgebrochenen Blockzeilen und -spalten,
+    // Eintrag i + unten bzw. i + rechts fuer die Blockzeile bzw. -spalte i
+    private final int[] zeilenRing, spaltenRing;
+    // Nur auf einem Torus: um so viele Zellen kann ein Ring naeher
+    // liegen, weil die letzte Blockzeile oder -spalte nur zum Teil im
+    // Feld liegt
+    private final int luecke;
+
+    /**
+     * Erzeuge einen leeren Index fuer ein Feld.
+     * @param tiefe die Tiefe des Feldes.
+     * @param breite die Breite des Feldes.
+     * @param torus ist das Feld ein Torus (siehe Topologie)?
+     */
+    Belegungsindex(int tiefe, int breite, boolean torus)
+    {
+        this.tiefe = tiefe;
+        this.breite = breite;
+        blockZeilen = (tiefe + BLOCK - 1) >> BLOCK_BITS;
+        blockSpalten = (breite + BLOCK - 1) >> BLOCK_BITS;
+        anzahl = new int[Tierart.ANZAHL * blockZeilen * blockSpalten];
+        if(torus) {
+            oben = (blockZeilen - 1) / 2;
+            unten = blockZeilen - 1 - oben;
+            links = (blockSpalten - 1) / 2;
+            rechts = blockSpalten - 1 - links;
+            zeilenRing = Nachbarschaft.ringtabelle(blockZeilen, unten);
+            spaltenRing = Nachbarschaft.ringtabelle(blockSpalten, rechts);
+            luecke = Math.max((BLOCK - tiefe % BLOCK) % BLOCK, (BLOCK - breite % BLOCK) % BLOCK);
+        }
+        else {
+            oben = unten = links = rechts = 0;
+            zeilenRing = null;
+            spaltenRing = null;
+            luecke = 0;
+        }
+    }
+
+    /**
+     * Vergiss alle gezaehlten Tiere.
+     */
+    void leeren()
+    {
+        Arrays.fill(anzahl, 0);
+    }
+
+    /**
+     * Zaehle ein lebendes Tier in einer Zelle.
+     * @param zelle der Index der Zelle, zeile * breite + spalte.
+     * @param art die Nummer der Art.
+     */
+    void zaehle(int zelle, int art)
+    {
+        int block = ((zelle / breite) >> BLOCK_BITS) * blockSpalten
+                    + ((zelle % breite) >> BLOCK_BITS);
+        anzahl[art * blockZeilen * blockSpalten + block]++;
+    }
+
+    /**
+     * Suche das naechste lebende Tier, das die Art jaeger frisst,
+     * hoechstens radius Zellen entfernt (in Zeilen und in Spalten,
+     * wie die Schritte der Tiere). Bei gleicher Entfernung gewinnt die
+     * Zelle, die im Feld zuerst kommt; das Ergebnis haengt also nicht
+     * von der Reihenfolge ab, in der die Bloecke durchsucht werden.
+     * Die Bloecke werden ringweise von innen nach aussen durchsucht,
+     * bis der naechste Ring weiter entfernt ist als der beste Fund; auf
+     * einem Torus auch ueber die Raender hinweg.
+     * @param tiere die Zellen des Feldes, Index zeile * breite + spalte.
+     * @param zeile die Zeile des Jaegers.
+     * @param spalte die Spalte des Jaegers.
+     * @param radius die groesste Entfernung.
+     * @param jaeger die Nummer der Art des Jaegers.
+     * @return den Index der Zelle mit dem Beutetier, oder -1.
+     */
+    int sucheBeute(Tier[] tiere, int zeile, int spalte, int radius, int jaeger)
+    {
+        if(zeilenRing != null) {
+            return sucheBeuteImTorus(tiere, zeile, spalte, radius, jaeger);
+        }
+        int ersteBlockZeile = Math.max(zeile - radius, 0) >> BLOCK_BITS;
+        int letzteBlockZeile = Math.min(zeile + radius, tiefe - 1) >> BLOCK_BITS;
+        int ersteBlockSpalte = Math.max(spalte - radius, 0) >> BLOCK_BITS;
+        int letzteBlockSpalte = Math.min(spalte + radius, breite - 1) >> BLOCK_BITS;
+        int eigeneZeile = zeile >> BLOCK_BITS;
+        int eigeneSpalte = spalte >> BLOCK_BITS;
+        int ringe = Math.max(Math.max(eigeneZeile - ersteBlockZeile, letzteBlockZeile - eigeneZeile),
+                             Math.max(eigeneSpalte - ersteBlockSpalte,
+                                      letzteBlockSpalte - eigeneSpalte));
+
+        // Der beste Fund als Entfernung << 32 | Zelle; kleiner ist besser
+        long bester = ((long) (radius + 1) << 32) | Integer.MAX_VALUE;
+        for(int ring = 0; ring <= ringe; ring++) {
+            // jede Zelle im Ring ist mindestens so weit entfernt
+            if((ring - 1) * BLOCK + 1 > (int) (bester >>> 32)) {
+                break;
+            }
+            for(int blockZeile = Math.max(eigeneZeile - ring, ersteBlockZeile);
+                    blockZeile <= Math.min(eigeneZeile + ring, letzteBlockZeile); blockZeile++) {
+                boolean randzeile = blockZeile == eigeneZeile - ring
+                                    || blockZeile == eigeneZeile + ring;
+                // innerhalb des Rings nur die linke und die rechte Spalte
+                int schrittweite = randzeile ? 1 : Math.max(2 * ring, 1);
+                for(int blockSpalte = eigeneSpalte - ring;
+                        blockSpalte <= eigeneSpalte + ring; blockSpalte += schrittweite) {
+                    if(blockSpalte >= ersteBlockSpalte && blockSpalte <= letzteBlockSpalte) {
+                        bester = durchsucheBlock(tiere, blockZeile, blockSpalte, zeile, spalte,
+                                                 radius, jaeger, bester);
+                    }
+                }
+            }
+        }
+        return (int) (bester >>> 32) > radius ? -1 : (int) bester;
+    }
+
+    /**
+     * Suche wie sucheBeute auf einem Torus. Eine Zelle im Ring k liegt
+     * in beiden Richtungen hinter mindestens k - 1 ganzen Bloecken; nur
+     * einer davon kann der unvollstaendige am Rand sein.
+     */
+    private int sucheBeuteImTorus(Tier[] tiere, int zeile, int spalte, int radius, int jaeger)
+    {
+        int eigeneZeile = zeile >> BLOCK_BITS;
+        int eigeneSpalte = spalte >> BLOCK_BITS;
+        // weiter als radius / BLOCK + 1 Bloecke liegt keine Zelle im Umkreis
+        int ringe = Math.min(((radius + BLOCK - 1) >> BLOCK_BITS) + 1, Math.max(unten, rechts));
+
+        long bester = ((long) (radius + 1) << 32) | Integer.MAX_VALUE;
+        for(int ring = 0; ring <= ringe; ring++) {
+            if((ring - 1) * BLOCK + 1 - luecke > (int) (bester >>> 32)) {
+                break;
+            }
+            for(int dz = -Math.min(ring, oben); dz <= Math.min(ring, unten); dz++) {
+                int blockZeile = zeilenRing[eigeneZeile + dz + unten];
+                boolean randzeile = dz == -ring || dz == ring;
+                int schrittweite = randzeile ? 1 : Math.max(2 * ring, 1);
+                for(int ds = -ring; ds <= ring; ds += schrittweite) {
+                    if(ds >= -links && ds <= rechts) {
+                        bester = durchsucheBlockImTorus(tiere, blockZeile,
+                                                        spaltenRing[eigeneSpalte + ds + rechts],
+                                                        zeile, spalte, jaeger, bester);
+                    }
+                }
+            }
+        }
+        return (int) (bester >>> 32) > radius ? -1 : (int) bester;
+    }
+
+    /**
+     * Durchsuche einen Block nach Beute, die besser ist als bester.
+     * @return den neuen besten Fund, Entfernung << 32 | Zelle.
+     */
+    private long durchsucheBlock(Tier[] tiere, int blockZeile, int blockSpalte,
+                                 int zeile, int spalte, int radius, int jaeger, long bester)
+    {
+        int bloecke = blockZeilen * blockSpalten;
+        int block = blockZeile * blockSpalten + blockSpalte;
+        boolean beute = false;
+        for(int art = 0; art < Tierart.ANZAHL && !beute; art++) {
+            beute = Tierart.frisst(jaeger, art) && anzahl[art * bloecke + block] > 0;
+        }
+        if(!beute) {
+            return bester;
+        }
+        int vonZeile = Math.max(blockZeile << BLOCK_BITS, zeile - radius);
+        int bisZeile = Math.min(Math.min((blockZeile << BLOCK_BITS) + BLOCK, tiefe) - 1,
+                                zeile + radius);
+        int vonSpalte = Math.max(blockSpalte << BLOCK_BITS, spalte - radius);
+        int bisSpalte = Math.min(Math.min((blockSpalte << BLOCK_BITS) + BLOCK, breite) - 1,
+                                 spalte + radius);
+        // die kleinste Entfernung einer Zelle des Blocks
+        int zeilenAbstand = Math.max(Math.max(vonZeile - zeile, zeile - bisZeile), 0);
+        int spaltenAbstand = Math.max(Math.max(vonSpalte - spalte, spalte - bisSpalte), 0);
+        if(Math.max(zeilenAbstand, spaltenAbstand) > (int) (bester >>> 32)) {
+            return bester;
+        }
+        for(int z = vonZeile; z <= bisZeile; z++) {
+            int dz = Math.abs(z - zeile);
+            for(int s = vonSpalte; s <= bisSpalte; s++) {
+                int zelle = z * breite + s;
+                long kandidat = ((long) Math.max(dz, Math.abs(s - spalte)) << 32) | zelle;
+                if(kandidat < bester) {
+                    Tier tier = tiere[zelle];
+                    if(tier != null && Tierart.frisst(jaeger, tier.gibArt())
+                       && tier.istLebendig()) {
+                        bester = kandidat;
+                    }
+                }
+            }
+        }
+        return bester;
+    }
+
+    /**
+     * Durchsuche einen Block eines Torus nach Beute, die besser ist als
+     * bester. Die Entfernung zaehlt auf dem kuerzeren Weg um den Torus.
+     * @return den neuen besten Fund, Entfernung << 32 | Zelle.
+     */
+    private long durchsucheBlockImTorus(Tier[] tiere, int blockZeile, int blockSpalte,
+                                        int zeile, int spalte, int jaeger, long bester)
+    {
+        int bloecke = blockZeilen * blockSpalten;
+        int block = blockZeile * blockSpalten + blockSpalte;
+        boolean beute = false;
+        for(int art = 0; art < Tierart.ANZAHL && !beute; art++) {
+            beute = Tierart.frisst(jaeger, art) && anzahl[art * bloecke + block] > 0;
+        }
+        if(!beute) {
+            return bester;
+        }
+        int vonZeile = blockZeile << BLOCK_BITS;
+        int bisZeile = Math.min(vonZeile + BLOCK, tiefe) - 1;
+        int vonSpalte = blockSpalte << BLOCK_BITS;
+        int bisSpalte = Math.min(vonSpalte + BLOCK, breite) - 1;
+        // die kleinste Entfernung einer Zelle des Blocks
+        int zeilenAbstand = zeile >= vonZeile && zeile <= bisZeile ? 0
+            : Math.min(abstand(vonZeile, zeile, tiefe), abstand(bisZeile, zeile, tiefe));
+        int spaltenAbstand = spalte >= vonSpalte && spalte <= bisSpalte ? 0
+            : Math.min(abstand(vonSpalte, spalte, breite), abstand(bisSpalte, spalte, breite));
+        if(Math.max(zeilenAbstand, spaltenAbstand) > (int) (bester >>> 32)) {
+            return bester;
+        }
+        for(int z = vonZeile; z <= bisZeile; z++) {
+            int dz = abstand(z, zeile, tiefe);
+            for(int s = vonSpalte; s <= bisSpalte; s++) {
+                int zelle = z * breite + s;
+                long kandidat = ((long) Math.max(dz, abstand(s, spalte, breite)) << 32) | zelle;
+                if(kandidat < bester) {
+                    Tier tier = tiere[zelle];
+                    if(tier != null && Tierart.frisst(jaeger, tier.gibArt())
+                       && tier.istLebendig()) {
+                        bester = kandidat;
+                    }
+                }
+            }
+        }
+        return bester;
+    }
+
+    /**
+     * @return die Entfernung zweier Koordinaten auf einem Ring der
+     *         gegebenen Laenge, auf dem kuerzeren Weg.
+     */
+    private static int abstand(int a, int b, int laenge)
+    {
+        int d = Math.abs(a - b);
+        return Math.min(d, laenge - d);
+    }
+}
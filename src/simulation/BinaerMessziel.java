@@ -0,0 +1,56 @@
+package simulation;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Schreibt Messpunkte in ein kompaktes Binaerformat (big-endian):
+ * <pre>
+ *   int KENNUNG, int VERSION, int SPALTEN
+ *   je Schritt: int schritt, long dauer, int werte[SPALTEN - 2]
+ * </pre>
+ * Die Reihenfolge der Spalten ist die von Messpunkte.
+ *
+ * @author marc
+ */
+public class BinaerMessziel implements Messziel
+{
+    // Die Kennung am Anfang jeder Datei ("FUHM").
+    private static final int KENNUNG = 0x4655484D;
+    // Die aktuelle Version des Formats.
+    private static final int VERSION = 1;
+
+    private final DataOutputStream aus;
+
+    /**
+     * Oeffne eine Datei und schreibe den Kopf.
+     * @param datei die Datei, die geschrieben oder ersetzt wird.
+     * @throws IOException wenn die Datei nicht geoeffnet werden kann.
+     */
+    public BinaerMessziel(File datei) throws IOException
+    {
+        aus = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(datei), 1 << 16));
+        aus.writeInt(KENNUNG);
+        aus.writeInt(VERSION);
+        aus.writeInt(Messpunkte.SPALTEN);
+    }
+
+    public void schreibe(Messpunkte block) throws IOException
+    {
+        for(int zeile = 0; zeile < block.gibZeilen(); zeile++) {
+            aus.writeInt((int) block.gibWert(zeile, Messpunkte.SCHRITT));
+            aus.writeLong(block.gibWert(zeile, Messpunkte.DAUER));
+            for(int spalte = 2; spalte < Messpunkte.SPALTEN; spalte++) {
+                aus.writeInt((int) block.gibWert(zeile, spalte));
+            }
+        }
+    }
+
+    public void schliesse() throws IOException
+    {
+        aus.close();
+    }
+}
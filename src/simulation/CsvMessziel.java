@@ -0,0 +1,56 @@
+package simulation;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Schreibt Messpunkte als CSV-Datei mit einer Kopfzeile und einer
+ * Zeile je Schritt.
+ *
+ * @author marc
+ */
+public class CsvMessziel implements Messziel
+{
+    private final Writer aus;
+
+    /**
+     * Oeffne eine CSV-Datei und schreibe die Kopfzeile.
+     * @param datei die Datei, die geschrieben oder ersetzt wird.
+     * @throws IOException wenn die Datei nicht geoeffnet werden kann.
+     */
+    public CsvMessziel(File datei) throws IOException
+    {
+        aus = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(datei),
+                                                        StandardCharsets.US_ASCII), 1 << 16);
+        for(int spalte = 0; spalte < Messpunkte.SPALTEN; spalte++) {
+            if(spalte > 0) {
+                aus.write(',');
+            }
+            aus.write(Messpunkte.gibSpaltenname(spalte));
+        }
+        aus.write('\n');
+    }
+
+    public void schreibe(Messpunkte block) throws IOException
+    {
+        for(int zeile = 0; zeile < block.gibZeilen(); zeile++) {
+            for(int spalte = 0; spalte < Messpunkte.SPALTEN; spalte++) {
+                if(spalte > 0) {
+                    aus.write(',');
+                }
+                aus.write(Long.toString(block.gibWert(zeile, spalte)));
+            }
+            aus.write('\n');
+        }
+    }
+
+    public void schliesse() throws IOException
+    {
+        aus.close();
+    }
+}
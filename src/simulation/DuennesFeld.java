@@ -0,0 +1,411 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Ein Feld fuer sehr grosse, duenn besiedelte Welten. Statt eines
+ * Arrays fuer alle Zellen haelt es nur Parzellen von PARZELLE x
+ * PARZELLE Zellen, in denen seit dem letzten Raeumen ein Tier
+ * platziert wurde. Die Parzellen liegen in einer Hashtabelle mit
+ * long-Schluesseln (Zeile und Spalte der Parzelle wie bei
+ * Position.packe); eine Zelle ohne Parzelle ist leer. Der Speicher
+ * waechst so mit der Anzahl der Tiere statt mit der Flaeche.
+ *
+ * Nach aussen verhaelt sich das Feld wie ein Feld. Es kann aber nur
+ * von einem Thread zugleich benutzt werden und hat deshalb nur einen
+ * Abschnitt (siehe setzeAbschnitte).
+ *
+ * @author marc
+ */
+public class DuennesFeld extends Feld
+{
+    // Die Kantenlaenge einer Parzelle als Zweierpotenz. Kleine Parzellen
+    // verschwenden bei vereinzelten Tieren weniger Speicher.
+    private static final int PARZELLE_BITS = 3;
+    // Die Kantenlaenge einer Parzelle in Zellen
+    private static final int PARZELLE = 1 << PARZELLE_BITS;
+    private static final int MASKE = PARZELLE - 1;
+    // Anfangsgroesse der Hashtabelle, eine Zweierpotenz
+    private static final int START_KAPAZITAET = 64;
+    // Markierung fuer einen freien Platz in der Hashtabelle
+    private static final long FREI = -1L;
+
+    // Die Hashtabelle: Schluessel und Parzellen, lineares Sondieren
+    private long[] schluessel;
+    private Parzelle[] parzellen;
+    // Alle Parzellen in der Hashtabelle
+    private final ArrayList<Parzelle> belegt;
+    // Geraeumte Parzellen zur Wiederverwendung
+    private final ArrayList<Parzelle> vorrat;
+    // Die zuletzt gesuchte Parzelle; Nachbarn liegen meist in derselben
+    private long letzterSchluessel;
+    private Parzelle letzteParzelle;
+
+    /**
+     * Erzeuge ein leeres duennes Feld mit den angegebenen Dimensionen.
+     * @param tiefe die Tiefe des Feldes.
+     * @param breite die Breite des Feldes.
+     */
+    public DuennesFeld(int tiefe, int breite)
+    {
+        super(tiefe, breite, true);
+        schluessel = new long[START_KAPAZITAET];
+        Arrays.fill(schluessel, FREI);
+        parzellen = new Parzelle[START_KAPAZITAET];
+        belegt = new ArrayList<Parzelle>();
+        vorrat = new ArrayList<Parzelle>();
+        letzterSchluessel = FREI;
+    }
+
+    public boolean istDuenn()
+    {
+        return true;
+    }
+
+    /**
+     * Ein duennes Feld hat nur einen Abschnitt und kann deshalb nicht
+     * von mehreren Threads zugleich belegt werden.
+     * @param abschnitte die Anzahl der Abschnitte, hier nur 1.
+     * @throws UnsupportedOperationException bei mehr als einem Abschnitt.
+     */
+    public void setzeAbschnitte(int abschnitte)
+    {
+        if(abschnitte != 1) {
+            throw new UnsupportedOperationException(
+                "Ein duennes Feld kann nicht parallel belegt werden");
+        }
+    }
+
+    /**
+     * Raeume das Feld. Die Parzellen kommen in den Vorrat fuer das
+     * naechste Belegen; Parzellen, die seit dem letzten Raeumen nicht
+     * wieder gebraucht wurden, werden freigegeben.
+     */
+    public void raeumen()
+    {
+        vorrat.clear();
+        for(Parzelle parzelle : belegt) {
+            parzelle.leeren();
+            vorrat.add(parzelle);
+        }
+        int kapazitaet = kapazitaetFuer(belegt.size());
+        belegt.clear();
+        if(4 * kapazitaet <= schluessel.length) {
+            // die Tabelle schrumpft, wenn viel weniger Parzellen gebraucht wurden
+            schluessel = new long[kapazitaet];
+            parzellen = new Parzelle[kapazitaet];
+        }
+        else {
+            Arrays.fill(parzellen, null);
+        }
+        Arrays.fill(schluessel, FREI);
+        letzterSchluessel = FREI;
+        letzteParzelle = null;
+    }
+
+    /**
+     * Trage fuer jede Zelle die Art des Tieres darin ein, wie bei Feld.
+     * Das geht nur, wenn das Feld weniger als 2^31 Zellen hat.
+     * @param arten ein Array mit einem Eintrag je Zelle, Index
+     *        zeile * breite + spalte.
+     */
+    public void kopiereArten(byte[] arten)
+    {
+        Arrays.fill(arten, (byte) 0);
+        int breite = gibBreite();
+        for(Parzelle parzelle : belegt) {
+            for(int i = 0; i < parzelle.zellen.length; i++) {
+                Tier tier = parzelle.zellen[i];
+                if(tier != null) {
+                    int zeile = (parzelle.zeile << PARZELLE_BITS) + (i >> PARZELLE_BITS);
+                    int spalte = (parzelle.spalte << PARZELLE_BITS) + (i & MASKE);
+                    arten[zeile * breite + spalte] = (byte) (tier.gibArt() + 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Die Parzellen zaehlen ihre Tiere schon beim Platzieren; ein
+     * eigener Index ist nicht noetig.
+     */
+    public void erneuereIndex()
+    {
+    }
+
+    /**
+     * Suche das naechste lebende Tier, das die Art jaeger frisst, wie
+     * bei Feld. Durchsucht werden nur die Parzellen im Umkreis, in denen
+     * Tiere einer Beuteart platziert wurden; einen Torus durchsucht
+     * Feld.sucheBeuteImTorus ringweise.
+     * @param zeile die Zeile des Jaegers.
+     * @param spalte die Spalte des Jaegers.
+     * @param radius die groesste Entfernung.
+     * @param jaeger die Nummer der Art des Jaegers.
+     * @return die gepackte Koordinate des naechsten Beutetieres, oder
+     *         Position.KEINE, wenn im Umkreis keines ist.
+     */
+    public long sucheBeute(int zeile, int spalte, int radius, int jaeger)
+    {
+        if(gibTopologie() == Topologie.TORUS) {
+            return sucheBeuteImTorus(zeile, spalte, radius, jaeger);
+        }
+        int vonZeile = Math.max(zeile - radius, 0);
+        int bisZeile = Math.min(zeile + radius, gibTiefe() - 1);
+        int vonSpalte = Math.max(spalte - radius, 0);
+        int bisSpalte = Math.min(spalte + radius, gibBreite() - 1);
+        int besteEntfernung = radius + 1;
+        long beste = Position.KEINE;
+        for(int pz = vonZeile >> PARZELLE_BITS; pz <= bisZeile >> PARZELLE_BITS; pz++) {
+            for(int ps = vonSpalte >> PARZELLE_BITS; ps <= bisSpalte >> PARZELLE_BITS; ps++) {
+                Parzelle parzelle = finde(Position.packe(pz, ps));
+                if(parzelle == null || !parzelle.hatBeute(jaeger)) {
+                    continue;
+                }
+                int z0 = Math.max(pz << PARZELLE_BITS, vonZeile);
+                int z1 = Math.min((pz << PARZELLE_BITS) + MASKE, bisZeile);
+                int s0 = Math.max(ps << PARZELLE_BITS, vonSpalte);
+                int s1 = Math.min((ps << PARZELLE_BITS) + MASKE, bisSpalte);
+                for(int z = z0; z <= z1; z++) {
+                    int dz = Math.abs(z - zeile);
+                    for(int s = s0; s <= s1; s++) {
+                        Tier tier = parzelle.zellen[((z & MASKE) << PARZELLE_BITS) | (s & MASKE)];
+                        if(tier == null || !Tierart.frisst(jaeger, tier.gibArt())
+                           || !tier.istLebendig()) {
+                            continue;
+                        }
+                        int entfernung = Math.max(dz, Math.abs(s - spalte));
+                        long koordinate = Position.packe(z, s);
+                        // bei gleicher Entfernung gewinnt die Zelle, die
+                        // im Feld zuerst kommt, wie bei Feld
+                        if(entfernung < besteEntfernung
+                           || (entfernung == besteEntfernung && koordinate < beste)) {
+                            besteEntfernung = entfernung;
+                            beste = koordinate;
+                        }
+                    }
+                }
+            }
+        }
+        return beste;
+    }
+
+    /**
+     * Platziere das gegebene Tier im Feld. Die Parzelle wird bei
+     * Bedarf angelegt. Wenn an der Position bereits ein Tier
+     * eingetragen ist, geht es verloren.
+     * @param tier das Tier das platziert werden soll.
+     * @param abschnitt der Abschnitt, hier immer 0.
+     */
+    public void platziere(Tier tier, int abschnitt)
+    {
+        int zeile = tier.gibZeile();
+        int spalte = tier.gibSpalte();
+        long schluessel = Position.packe(zeile >> PARZELLE_BITS, spalte >> PARZELLE_BITS);
+        Parzelle parzelle = finde(schluessel);
+        if(parzelle == null) {
+            parzelle = lege(schluessel);
+        }
+        parzelle.setze(((zeile & MASKE) << PARZELLE_BITS) | (spalte & MASKE), tier);
+    }
+
+    /**
+     * Platziere das gegebene Tier im Feld, aber nur, wenn seine
+     * Position frei ist. Die Parzelle wird bei Bedarf angelegt.
+     * @param tier das Tier das platziert werden soll.
+     * @param abschnitt der Abschnitt, hier immer 0.
+     * @return true, wenn das Tier platziert wurde.
+     */
+    public boolean besetze(Tier tier, int abschnitt)
+    {
+        if(gibTierAn(tier.gibZeile(), tier.gibSpalte()) != null) {
+            return false;
+        }
+        platziere(tier, abschnitt);
+        return true;
+    }
+
+    /**
+     * Entferne ein Tier aus dem Feld, falls es an seiner Position
+     * steht. Die Parzelle bleibt bis zum naechsten Raeumen bestehen.
+     * @param tier das zu entfernende Tier.
+     * @return true, wenn das Tier dort stand und entfernt wurde.
+     */
+    public boolean entferne(Tier tier)
+    {
+        int zeile = tier.gibZeile();
+        int spalte = tier.gibSpalte();
+        Parzelle parzelle = finde(Position.packe(zeile >> PARZELLE_BITS, spalte >> PARZELLE_BITS));
+        int zelle = ((zeile & MASKE) << PARZELLE_BITS) | (spalte & MASKE);
+        if(parzelle == null || parzelle.zellen[zelle] != tier) {
+            return false;
+        }
+        parzelle.loesche(zelle);
+        return true;
+    }
+
+    public Tier gibTierAn(int zeile, int spalte)
+    {
+        Parzelle parzelle = finde(Position.packe(zeile >> PARZELLE_BITS,
+                                                 spalte >> PARZELLE_BITS));
+        if(parzelle == null) {
+            return null;
+        }
+        return parzelle.zellen[((zeile & MASKE) << PARZELLE_BITS) | (spalte & MASKE)];
+    }
+
+    public Tier gibTierAn(long koordinate)
+    {
+        return gibTierAn(Position.zeileVon(koordinate), Position.spalteVon(koordinate));
+    }
+
+    /**
+     * @return die Anzahl der angelegten Parzellen.
+     */
+    public int gibAnzahlParzellen()
+    {
+        return belegt.size();
+    }
+
+    /**
+     * Suche die Parzelle mit dem gegebenen Schluessel.
+     * @return die Parzelle, oder null, wenn sie nicht angelegt ist.
+     */
+    private Parzelle finde(long gesucht)
+    {
+        if(gesucht == letzterSchluessel) {
+            return letzteParzelle;
+        }
+        int maske = schluessel.length - 1;
+        int platz = streue(gesucht) & maske;
+        while(schluessel[platz] != FREI && schluessel[platz] != gesucht) {
+            platz = (platz + 1) & maske;
+        }
+        letzterSchluessel = gesucht;
+        letzteParzelle = parzellen[platz];
+        return letzteParzelle;
+    }
+
+    /**
+     * Lege eine Parzelle an, die noch nicht in der Tabelle steht.
+     * @return die neue Parzelle.
+     */
+    private Parzelle lege(long neuerSchluessel)
+    {
+        if(2 * (belegt.size() + 1) > schluessel.length) {
+            vergroessere();
+        }
+        Parzelle parzelle;
+        if(vorrat.isEmpty()) {
+            parzelle = new Parzelle();
+        }
+        else {
+            parzelle = vorrat.remove(vorrat.size() - 1);
+        }
+        parzelle.zeile = Position.zeileVon(neuerSchluessel);
+        parzelle.spalte = Position.spalteVon(neuerSchluessel);
+        trageEin(neuerSchluessel, parzelle);
+        belegt.add(parzelle);
+        letzterSchluessel = neuerSchluessel;
+        letzteParzelle = parzelle;
+        return parzelle;
+    }
+
+    /**
+     * Verdopple die Hashtabelle und trage alle Parzellen neu ein.
+     */
+    private void vergroessere()
+    {
+        schluessel = new long[schluessel.length * 2];
+        Arrays.fill(schluessel, FREI);
+        parzellen = new Parzelle[schluessel.length];
+        for(Parzelle parzelle : belegt) {
+            trageEin(Position.packe(parzelle.zeile, parzelle.spalte), parzelle);
+        }
+    }
+
+    private void trageEin(long neuerSchluessel, Parzelle parzelle)
+    {
+        int maske = schluessel.length - 1;
+        int platz = streue(neuerSchluessel) & maske;
+        while(schluessel[platz] != FREI) {
+            platz = (platz + 1) & maske;
+        }
+        schluessel[platz] = neuerSchluessel;
+        parzellen[platz] = parzelle;
+    }
+
+    /**
+     * @return die kleinste Kapazitaet der Hashtabelle fuer so viele
+     *         Parzellen, eine Zweierpotenz.
+     */
+    private static int kapazitaetFuer(int anzahl)
+    {
+        int kapazitaet = START_KAPAZITAET;
+        while(kapazitaet < 2 * anzahl) {
+            kapazitaet *= 2;
+        }
+        return kapazitaet;
+    }
+
+    /**
+     * Verteile die Schluessel benachbarter Parzellen ueber die Tabelle.
+     */
+    private static int streue(long wert)
+    {
+        long h = (wert ^ (wert >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return (int) (h ^ (h >>> 33));
+    }
+
+    /**
+     * Ein Ausschnitt von PARZELLE x PARZELLE Zellen mit der Anzahl der
+     * platzierten Tiere je Art.
+     */
+    private static class Parzelle
+    {
+        // Die Zellen, Index zeile * PARZELLE + spalte innerhalb der Parzelle
+        final Tier[] zellen = new Tier[PARZELLE * PARZELLE];
+        // Die Anzahl der platzierten Tiere je Art, lebend oder nicht
+        final int[] anzahl = new int[Tierart.ANZAHL];
+        // Zeile und Spalte der Parzelle in Parzellen
+        int zeile, spalte;
+
+        void setze(int zelle, Tier tier)
+        {
+            Tier alt = zellen[zelle];
+            if(alt != null) {
+                anzahl[alt.gibArt()]--;
+            }
+            zellen[zelle] = tier;
+            anzahl[tier.gibArt()]++;
+        }
+
+        void loesche(int zelle)
+        {
+            anzahl[zellen[zelle].gibArt()]--;
+            zellen[zelle] = null;
+        }
+
+        /**
+         * @return true, wenn ein Tier einer Art platziert wurde, die
+         *         die Art jaeger frisst.
+         */
+        boolean hatBeute(int jaeger)
+        {
+            for(int art = 0; art < anzahl.length; art++) {
+                if(anzahl[art] > 0 && Tierart.frisst(jaeger, art)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void leeren()
+        {
+            Arrays.fill(zellen, null);
+            Arrays.fill(anzahl, 0);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package simulation;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Fuehrt viele unabhaengige Simulationen ohne Ansicht gleichzeitig
+ * aus, etwa fuer Parameterstudien oder Wiederholungen mit anderen
+ * Saaten.
+ *
+ * Jeder Lauf hat seinen eigenen Simulator mit eigener Saat. Die
+ * Simulatoren teilen keinen veraenderlichen Zustand, auch keine
+ * statischen Zufallsgeneratoren, und laufen daher ohne jede
+ * Synchronisation nebeneinander. Die Laeufe sind Aufgaben in einem
+ * Pool mit fester Threadanzahl; gibt es mehr Laeufe als Threads,
+ * warten sie, bis ein Thread frei wird. Ein Lauf liefert dasselbe
+ * Ergebnis wie ein einzelner Simulator mit derselben Saat.
+ *
+ * @author marc
+ */
+public class Ensemble
+{
+    private final int tiefe, breite;
+    private final int schritte;
+    private final int threads;
+    private final Parameter parameter;
+    private Topologie topologie;
+
+    /**
+     * Erzeuge ein Ensemble mit einem Thread je Prozessor.
+     * @param tiefe die Tiefe jedes Feldes.
+     * @param breite die Breite jedes Feldes.
+     * @param schritte die Anzahl der Schritte je Lauf.
+     */
+    public Ensemble(int tiefe, int breite, int schritte)
+    {
+        this(tiefe, breite, schritte, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Erzeuge ein Ensemble.
+     * @param tiefe die Tiefe jedes Feldes.
+     * @param breite die Breite jedes Feldes.
+     * @param schritte die Anzahl der Schritte je Lauf.
+     * @param threads die Anzahl der gleichzeitigen Laeufe.
+     */
+    public Ensemble(int tiefe, int breite, int schritte, int threads)
+    {
+        this(tiefe, breite, schritte, threads, Parameter.STANDARD);
+    }
+
+    /**
+     * Erzeuge ein Ensemble mit eigenen Eigenschaften der Tierarten,
+     * die fuer alle Laeufe gelten.
+     * @param tiefe die Tiefe jedes Feldes.
+     * @param breite die Breite jedes Feldes.
+     * @param schritte die Anzahl der Schritte je Lauf.
+     * @param threads die Anzahl der gleichzeitigen Laeufe.
+     * @param parameter die Eigenschaften der Tierarten.
+     */
+    public Ensemble(int tiefe, int breite, int schritte, int threads, Parameter parameter)
+    {
+        if(threads < 1) {
+            throw new IllegalArgumentException("Mindestens ein Thread noetig: " + threads);
+        }
+        this.tiefe = tiefe;
+        this.breite = breite;
+        this.schritte = schritte;
+        this.threads = threads;
+        this.parameter = parameter;
+        topologie = Topologie.BEGRENZT;
+    }
+
+    /**
+     * Lege die Topologie der Felder aller folgenden Laeufe fest (siehe
+     * Simulator.setzeTopologie).
+     * @param topologie die Topologie.
+     */
+    public void setzeTopologie(Topologie topologie)
+    {
+        this.topologie = topologie;
+    }
+
+    /**
+     * Fuehre Laeufe mit den Saaten ersteSaat, ersteSaat+1, ... aus und
+     * gib jedes Ergebnis an das Ziel, sobald sein Lauf fertig ist.
+     * Kehrt zurueck, wenn alle Laeufe fertig sind.
+     * @param ersteSaat die Saat des ersten Laufes.
+     * @param laeufe die Anzahl der Laeufe.
+     * @param ziel das Ziel fuer die Ergebnisse.
+     * @throws InterruptedException wenn der Thread beim Warten
+     *         unterbrochen wird; die Laeufe werden dann abgebrochen.
+     */
+    public void simuliere(long ersteSaat, int laeufe, Ergebnisziel ziel)
+        throws InterruptedException
+    {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, Math.max(laeufe, 1)));
+        try {
+            CompletionService<Laufergebnis> fertige =
+                new ExecutorCompletionService<Laufergebnis>(pool);
+            for(int lauf = 0; lauf < laeufe; lauf++) {
+                fertige.submit(new Lauf(lauf, ersteSaat + lauf));
+            }
+            for(int i = 0; i < laeufe; i++) {
+                try {
+                    ziel.uebernimm(fertige.take().get());
+                }
+                catch(ExecutionException e) {
+                    throw new IllegalStateException("Lauf fehlgeschlagen", e.getCause());
+                }
+            }
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Ein einzelner Lauf mit eigenem Simulator.
+     */
+    private class Lauf implements Callable<Laufergebnis>
+    {
+        private final int lauf;
+        private final long saat;
+
+        Lauf(int lauf, long saat)
+        {
+            this.lauf = lauf;
+            this.saat = saat;
+        }
+
+        public Laufergebnis call()
+        {
+            long beginn = System.nanoTime();
+            Simulator simulator = new Simulator(tiefe, breite, new LeereAnsicht(), saat, parameter);
+            simulator.setzeTopologie(topologie);
+            simulator.setzeAnzeigeIntervall(0);
+            simulator.simuliere(schritte);
+            return new Laufergebnis(lauf, simulator, System.nanoTime() - beginn);
+        }
+    }
+}
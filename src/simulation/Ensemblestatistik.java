@@ -0,0 +1,98 @@
+package simulation;
+
+/**
+ * Fasst die Ergebnisse der Laeufe eines Ensembles zusammen: wie viele
+ * Laeufe es gab, in wie vielen alle Arten ueberlebt haben und wie
+ * viele Tiere jeder Art im Mittel am Ende lebten. Auf Wunsch wird
+ * jedes Ergebnis zusaetzlich an ein weiteres Ziel weitergegeben.
+ *
+ * @author marc
+ */
+public class Ensemblestatistik implements Ergebnisziel
+{
+    // Das Ziel, an das jedes Ergebnis weitergeht, oder null
+    private final Ergebnisziel weiter;
+    private int laeufe;
+    private int ueberlebt;
+    private long schritte;
+    private long dauer;
+    private final long[] summen;
+
+    /**
+     * Erzeuge eine leere Statistik.
+     */
+    public Ensemblestatistik()
+    {
+        this(null);
+    }
+
+    /**
+     * Erzeuge eine leere Statistik, die jedes Ergebnis weitergibt.
+     * @param weiter das weitere Ziel, oder null.
+     */
+    public Ensemblestatistik(Ergebnisziel weiter)
+    {
+        this.weiter = weiter;
+        summen = new long[Tierart.ANZAHL];
+    }
+
+    public void uebernimm(Laufergebnis ergebnis)
+    {
+        laeufe++;
+        schritte += ergebnis.gibSchritte();
+        dauer += ergebnis.gibDauer();
+        boolean alleLeben = true;
+        for(int art = 0; art < Tierart.ANZAHL; art++) {
+            summen[art] += ergebnis.gibAnzahl(art);
+            if(ergebnis.gibAnzahl(art) == 0) {
+                alleLeben = false;
+            }
+        }
+        if(alleLeben) {
+            ueberlebt++;
+        }
+        if(weiter != null) {
+            weiter.uebernimm(ergebnis);
+        }
+    }
+
+    public int gibLaeufe()
+    {
+        return laeufe;
+    }
+
+    /**
+     * @return die Anzahl der Laeufe, an deren Ende alle Arten lebten.
+     */
+    public int gibUeberlebt()
+    {
+        return ueberlebt;
+    }
+
+    /**
+     * @return die Summe der Schritte aller Laeufe.
+     */
+    public long gibSchritte()
+    {
+        return schritte;
+    }
+
+    /**
+     * @return die Summe der Dauer aller Laeufe in Nanosekunden. Da die
+     *         Laeufe gleichzeitig stattfinden, ist sie laenger als die
+     *         Zeit, die das Ensemble brauchte.
+     */
+    public long gibDauer()
+    {
+        return dauer;
+    }
+
+    /**
+     * @param art die Nummer der Art (siehe Tierart).
+     * @return die mittlere Anzahl lebender Tiere dieser Art am Ende.
+     */
+    public double gibMittel(int art)
+    {
+        return laeufe == 0 ? 0 : (double) summen[art] / laeufe;
+    }
+}
@@ -0,0 +1,18 @@
+package simulation;
+
+/**
+ * Ein Ziel fuer die Ergebnisse der Laeufe eines Ensembles, etwa eine
+ * Ausgabe auf der Konsole oder eine Auswertung ueber alle Laeufe.
+ *
+ * @author marc
+ */
+public interface Ergebnisziel
+{
+    /**
+     * Uebernimm das Ergebnis eines beendeten Laufes. Die Ergebnisse
+     * kommen in der Reihenfolge, in der die Laeufe fertig werden, und
+     * immer im Thread, der das Ensemble gestartet hat.
+     * @param ergebnis das Ergebnis.
+     */
+    void uebernimm(Laufergebnis ergebnis);
+}
@@ -1,26 +1,55 @@
 package simulation;
 
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Random;
 
 /**
  * Ein rechteckiges Gitter von Feldpositionen.
  * Jede Position kann ein einzelnes Tier aufnehmen.
+ * Die Positionen liegen zeilenweise in einem einzigen Array; belegte
+ * Positionen werden vermerkt, damit raeumen nur sie leeren muss.
+ * Fuer sehr grosse, duenn besiedelte Felder gibt es DuennesFeld, das
+ * nur Speicher fuer die Umgebung der Tiere belegt; es muss ausdruecklich
+ * gewaehlt werden (siehe erzeuge).
+ * Ob das Feld an seinen Raendern endet oder ein Torus ist, legt
+ * setzeTopologie fest.
+ *
+ * Tiere, die in einem Schritt agieren, nehmen ihre Zelle im naechsten
+ * Feld mit besetze ein. Das gelingt nur, wenn die Zelle frei ist; so
+ * steht jedes Tier, das weiterlebt, auch im Feld, und kein Tier wird
+ * unbemerkt ueberschrieben.
  * 
  * @author David J. Barnes und Michael K�lling
  * @version 2006.03.30
  */
 public class Feld
 {
-    private static final Random rand = new Random();
+    // Die Anzahl der Nachbarn einer Position.
+    public static final int NACHBARN = Nachbarschaft.ANZAHL;
+    // Anfangsgroesse der Liste der belegten Zellen
+    private static final int START_BELEGT = 64;
     
     // Die Tiefe und die Breite des Feldes
     private int tiefe, breite;
-    // Speicher f�r die Tiere
-    private Tier[][] feld;
+    // Speicher fuer die Tiere, Index zeile * breite + spalte
+    private Tier[] feld;
+    // Die Indizes aller Zellen, die seit dem letzten Raeumen belegt
+    // wurden, getrennt nach Abschnitten (siehe setzeAbschnitte)
+    private int[][] belegt;
+    private int[] anzahlBelegt;
+    // Der Index fuer die Suche nach Beute im Umkreis, oder null,
+    // solange keine Suche gebraucht wurde
+    private Belegungsindex belegungsindex;
+    // Die Verbindung der Raender
+    private Topologie topologie;
+    // Die umgebrochenen Zeilen und Spalten eines Torus (siehe
+    // Nachbarschaft.ringtabelle), oder null fuer ein begrenztes Feld
+    private int[] zeilenRing, spaltenRing;
+    // Der Zufallsgenerator fuer die Methoden mit Position-Objekten;
+    // reproduzierbare Ablaeufe uebergeben ihren eigenen Generator.
+    private final Random rand;
 
     /**
      * Erzeuge ein Feld mit den angegebenen Dimensionen.
@@ -29,33 +58,377 @@ public class Feld
      */
     public Feld(int tiefe, int breite)
     {
+        if((long) tiefe * breite > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Feld zu gross: " + tiefe + "x" + breite
+                                               + " (siehe DuennesFeld)");
+        }
         this.tiefe = tiefe;
         this.breite = breite;
-        feld = new Tier[tiefe][breite];
+        feld = new Tier[tiefe * breite];
+        rand = new Random();
+        topologie = Topologie.BEGRENZT;
+        setzeAbschnitte(1);
     }
     
     /**
-     * R�ume das Feld.
+     * Erzeuge ein Feld ohne Speicher fuer die Zellen; fuer
+     * Unterklassen, die die Zellen selbst verwalten.
+     * @param tiefe die Tiefe des Feldes.
+     * @param breite die Breite des Feldes.
+     * @param ohneZellen nur zur Unterscheidung vom oeffentlichen
+     *        Konstruktor.
+     */
+    Feld(int tiefe, int breite, boolean ohneZellen)
+    {
+        this.tiefe = tiefe;
+        this.breite = breite;
+        rand = new Random();
+        topologie = Topologie.BEGRENZT;
+    }
+    
+    /**
+     * Erzeuge ein Feld mit einem Array fuer alle Zellen oder ein
+     * DuennesFeld, dessen Speicher mit der Anzahl der Tiere waechst
+     * statt mit der Flaeche. Die Groesse allein entscheidet das nicht:
+     * ein dicht besiedeltes grosses Feld ist als Array kleiner und
+     * schneller, und nur das Array kann parallel bearbeitet werden.
+     * @param tiefe die Tiefe des Feldes.
+     * @param breite die Breite des Feldes.
+     * @param duenn soll ein DuennesFeld erzeugt werden?
+     * @return das neue Feld.
+     * @throws IllegalArgumentException wenn ein Feld mit Array mehr als
+     *         Integer.MAX_VALUE Zellen haette.
+     */
+    public static Feld erzeuge(int tiefe, int breite, boolean duenn)
+    {
+        if(duenn) {
+            return new DuennesFeld(tiefe, breite);
+        }
+        return new Feld(tiefe, breite);
+    }
+    
+    /**
+     * Lege fest, wie die Raender des Feldes verbunden sind. Fuer einen
+     * Torus werden die umgebrochenen Zeilen und Spalten einmal
+     * berechnet; die Suche nach Nachbarn braucht dann keine Vergleiche
+     * mit den Raendern mehr.
+     * @param topologie die neue Topologie.
+     * @throws IllegalArgumentException wenn ein Torus weniger als drei
+     *         Zeilen oder Spalten haette; dann waeren Nachbarn doppelt.
+     */
+    public void setzeTopologie(Topologie topologie)
+    {
+        if(topologie == Topologie.TORUS) {
+            if(tiefe < 3 || breite < 3) {
+                throw new IllegalArgumentException("Ein Torus braucht mindestens 3x3 Zellen: "
+                                                   + tiefe + "x" + breite);
+            }
+            zeilenRing = Nachbarschaft.ringtabelle(tiefe);
+            spaltenRing = Nachbarschaft.ringtabelle(breite);
+        }
+        else {
+            zeilenRing = null;
+            spaltenRing = null;
+        }
+        // der Index durchsucht einen Torus anders
+        belegungsindex = null;
+        this.topologie = topologie;
+    }
+    
+    /**
+     * @return wie die Raender des Feldes verbunden sind.
+     */
+    public Topologie gibTopologie()
+    {
+        return topologie;
+    }
+    
+    /**
+     * @return true, wenn das Feld nur Speicher fuer die Umgebung der
+     *         Tiere belegt (siehe DuennesFeld).
+     */
+    public boolean istDuenn()
+    {
+        return false;
+    }
+    
+    /**
+     * Lege fest, in wie vielen getrennten Abschnitten belegte Zellen
+     * vermerkt werden. Tiere, die mit verschiedenen Abschnitten
+     * platziert werden, duerfen gleichzeitig von verschiedenen
+     * Threads platziert werden, solange sie nicht dieselbe oder eine
+     * benachbarte Zelle belegen. Bereits vermerkte Zellen kommen in
+     * den ersten Abschnitt.
+     * @param abschnitte die Anzahl der Abschnitte (mindestens 1).
+     */
+    public void setzeAbschnitte(int abschnitte)
+    {
+        int[][] alteZellen = belegt;
+        int[] alteAnzahl = anzahlBelegt;
+        belegt = new int[abschnitte][];
+        anzahlBelegt = new int[abschnitte];
+        for(int i = 0; i < abschnitte; i++) {
+            belegt[i] = new int[Math.min(START_BELEGT, feld.length)];
+        }
+        if(alteZellen != null) {
+            for(int i = 0; i < alteZellen.length; i++) {
+                for(int j = 0; j < alteAnzahl[i]; j++) {
+                    vermerke(alteZellen[i][j], 0);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Raeume das Feld. Der Aufwand haengt nur von der Anzahl der
+     * belegten Positionen ab, nicht von der Groesse des Feldes.
      */
     public void raeumen()
     {
-        for(int zeile = 0; zeile < tiefe; zeile++) {
-            for(int spalte = 0; spalte < breite; spalte++) {
-                feld[zeile][spalte] = null;
+        long summe = 0;
+        for(int anzahl : anzahlBelegt) {
+            summe += anzahl;
+        }
+        if(summe > feld.length / 4) {
+            // bei dicht belegten Feldern ist das Ueberschreiben am Stueck schneller
+            Arrays.fill(feld, null);
+        }
+        else {
+            for(int abschnitt = 0; abschnitt < belegt.length; abschnitt++) {
+                int[] zellen = belegt[abschnitt];
+                for(int i = 0; i < anzahlBelegt[abschnitt]; i++) {
+                    feld[zellen[i]] = null;
+                }
+            }
+        }
+        Arrays.fill(anzahlBelegt, 0);
+    }
+    
+    /**
+     * Trage fuer jede Zelle die Art des Tieres darin ein: 0 fuer eine
+     * leere Zelle, sonst die Nummer der Art plus 1 (siehe Tierart).
+     * Wie raeumen durchlaeuft diese Methode nur die belegten Zellen.
+     * @param arten ein Array mit einem Eintrag je Zelle, Index
+     *        zeile * breite + spalte.
+     */
+    public void kopiereArten(byte[] arten)
+    {
+        Arrays.fill(arten, (byte) 0);
+        for(int abschnitt = 0; abschnitt < belegt.length; abschnitt++) {
+            int[] zellen = belegt[abschnitt];
+            for(int i = 0; i < anzahlBelegt[abschnitt]; i++) {
+                int zelle = zellen[i];
+                Tier tier = feld[zelle];
+                // die Zelle kann wieder geleert worden sein (siehe entferne)
+                if(tier != null) {
+                    arten[zelle] = (byte) (tier.gibArt() + 1);
+                }
             }
         }
     }
     
+    /**
+     * Erneuere den Index fuer sucheBeute aus den belegten Zellen. Das
+     * muss geschehen, nachdem das Feld fertig belegt ist und bevor
+     * gesucht wird; waehrend gesucht wird, darf das Feld nicht
+     * veraendert werden. Der Aufwand haengt wie bei raeumen nur von
+     * der Anzahl der belegten Positionen ab.
+     */
+    public void erneuereIndex()
+    {
+        if(belegungsindex == null) {
+            belegungsindex = new Belegungsindex(tiefe, breite, zeilenRing != null);
+        }
+        else {
+            belegungsindex.leeren();
+        }
+        for(int abschnitt = 0; abschnitt < belegt.length; abschnitt++) {
+            int[] zellen = belegt[abschnitt];
+            for(int i = 0; i < anzahlBelegt[abschnitt]; i++) {
+                Tier tier = feld[zellen[i]];
+                if(tier != null && tier.istLebendig()) {
+                    belegungsindex.zaehle(zellen[i], tier.gibArt());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Suche das naechste lebende Tier, das die Art jaeger frisst (siehe
+     * Tierart.frisst), hoechstens radius Zeilen und Spalten entfernt.
+     * Bei gleicher Entfernung gewinnt die Zelle, die im Feld zuerst
+     * kommt. Setzt einen mit erneuereIndex erneuerten Index voraus; auf
+     * einem Torus zaehlt die Entfernung ueber die Raender hinweg.
+     * @param zeile die Zeile des Jaegers.
+     * @param spalte die Spalte des Jaegers.
+     * @param radius die groesste Entfernung.
+     * @param jaeger die Nummer der Art des Jaegers.
+     * @return die gepackte Koordinate des naechsten Beutetieres, oder
+     *         Position.KEINE, wenn im Umkreis keines ist.
+     */
+    public long sucheBeute(int zeile, int spalte, int radius, int jaeger)
+    {
+        int zelle = belegungsindex.sucheBeute(feld, zeile, spalte, radius, jaeger);
+        if(zelle < 0) {
+            return Position.KEINE;
+        }
+        return Position.packe(zelle / breite, zelle % breite);
+    }
+    
+    /**
+     * Durchsuche einen Torus ohne Index Ring um Ring nach Beute, mit
+     * demselben Ergebnis wie sucheBeute; fuer Unterklassen ohne Array
+     * der Zellen. Ein Ring, der ueber den Rand reicht, kann Zellen
+     * eines inneren Rings noch einmal treffen; die waeren aber schon im
+     * inneren Ring gefunden worden.
+     */
+    long sucheBeuteImTorus(int zeile, int spalte, int radius, int jaeger)
+    {
+        int ringe = Math.min(radius, Math.max(tiefe, breite) / 2);
+        for(int ring = 0; ring <= ringe; ring++) {
+            long beste = Long.MAX_VALUE;
+            for(int dz = -ring; dz <= ring; dz++) {
+                int z = ((zeile + dz) % tiefe + tiefe) % tiefe;
+                // innerhalb des Rings nur die linke und die rechte Spalte
+                int schrittweite = dz == -ring || dz == ring ? 1 : 2 * ring;
+                for(int ds = -ring; ds <= ring; ds += schrittweite) {
+                    int s = ((spalte + ds) % breite + breite) % breite;
+                    Tier tier = gibTierAn(z, s);
+                    if(tier != null && Tierart.frisst(jaeger, tier.gibArt())
+                       && tier.istLebendig()) {
+                        beste = Math.min(beste, Position.packe(z, s));
+                    }
+                }
+            }
+            if(beste != Long.MAX_VALUE) {
+                return beste;
+            }
+        }
+        return Position.KEINE;
+    }
+    
+    /**
+     * Liefere die Nachbarposition, die von einer Position aus einen
+     * Schritt naeher an ein Ziel fuehrt, auf einem Torus auch ueber
+     * den Rand, wenn das kuerzer ist.
+     * @param zeile die Zeile der Position.
+     * @param spalte die Spalte der Position.
+     * @param ziel die gepackte Koordinate des Ziels.
+     * @return die gepackte Koordinate des naechsten Schrittes, oder
+     *         die Position selbst, wenn sie das Ziel ist.
+     */
+    public long schrittZu(int zeile, int spalte, long ziel)
+    {
+        int dz = Position.zeileVon(ziel) - zeile;
+        int ds = Position.spalteVon(ziel) - spalte;
+        if(zeilenRing == null) {
+            return Position.packe(zeile + Integer.signum(dz), spalte + Integer.signum(ds));
+        }
+        if(2 * Math.abs(dz) > tiefe) {
+            dz = -dz;
+        }
+        if(2 * Math.abs(ds) > breite) {
+            ds = -ds;
+        }
+        return Position.packe(zeilenRing[zeile + 1 + Integer.signum(dz)],
+                              spaltenRing[spalte + 1 + Integer.signum(ds)]);
+    }
+    
     /**
      * Platziere das gegebene Tier im Feld.
      * Wenn an der Position bereits ein Tier eingetragen ist,
-     * geht es verloren.
+     * geht es verloren; Tiere, die agieren, benutzen deshalb besetze.
      * @param tier das Tier das platziert werden soll.
      */
     public void platziere(Tier tier)
     {
-        Position position = tier.gibPosition();
-        feld[position.gibZeile()][position.gibSpalte()] = tier;
+        platziere(tier, 0);
+    }
+    
+    /**
+     * Platziere das gegebene Tier im Feld und vermerke die Zelle im
+     * gegebenen Abschnitt.
+     * Wenn an der Position bereits ein Tier eingetragen ist,
+     * geht es verloren.
+     * @param tier das Tier das platziert werden soll.
+     * @param abschnitt der Abschnitt (siehe setzeAbschnitte).
+     */
+    public void platziere(Tier tier, int abschnitt)
+    {
+        int index = tier.gibZeile() * breite + tier.gibSpalte();
+        if(feld[index] == null) {
+            // jede Zelle wird bis zum naechsten Raeumen nur einmal vermerkt
+            vermerke(index, abschnitt);
+        }
+        feld[index] = tier;
+    }
+    
+    /**
+     * Platziere das gegebene Tier im Feld, aber nur, wenn seine
+     * Position frei ist.
+     * @param tier das Tier das platziert werden soll.
+     * @return true, wenn das Tier platziert wurde; false, wenn an
+     *         der Position schon ein anderes Tier steht.
+     */
+    public boolean besetze(Tier tier)
+    {
+        return besetze(tier, 0);
+    }
+    
+    /**
+     * Platziere das gegebene Tier im Feld, aber nur, wenn seine
+     * Position frei ist, und vermerke die Zelle im gegebenen
+     * Abschnitt. Wie bei platziere duerfen verschiedene Threads mit
+     * verschiedenen Abschnitten gleichzeitig besetzen, solange sie
+     * nicht dieselbe oder eine benachbarte Zelle wollen; das stellt
+     * der ParallelerSchritt mit seinen Kacheln sicher.
+     * @param tier das Tier das platziert werden soll.
+     * @param abschnitt der Abschnitt (siehe setzeAbschnitte).
+     * @return true, wenn das Tier platziert wurde; false, wenn an
+     *         der Position schon ein anderes Tier steht.
+     */
+    public boolean besetze(Tier tier, int abschnitt)
+    {
+        int index = tier.gibZeile() * breite + tier.gibSpalte();
+        if(feld[index] != null) {
+            return false;
+        }
+        vermerke(index, abschnitt);
+        feld[index] = tier;
+        return true;
+    }
+    
+    /**
+     * Entferne ein Tier aus dem Feld, falls es an seiner Position
+     * steht, etwa weil es gefressen wurde, nachdem es schon gezogen
+     * war.
+     * @param tier das zu entfernende Tier.
+     * @return true, wenn das Tier dort stand und entfernt wurde.
+     */
+    public boolean entferne(Tier tier)
+    {
+        int index = tier.gibZeile() * breite + tier.gibSpalte();
+        if(feld[index] != tier) {
+            return false;
+        }
+        // die Zelle bleibt vermerkt und wird beim Raeumen nochmals geleert
+        feld[index] = null;
+        return true;
+    }
+    
+    /**
+     * Vermerke eine belegte Zelle im gegebenen Abschnitt.
+     */
+    private void vermerke(int index, int abschnitt)
+    {
+        int[] zellen = belegt[abschnitt];
+        if(anzahlBelegt[abschnitt] == zellen.length) {
+            // nach entferne kann eine Zelle mehrmals vermerkt sein
+            zellen = Arrays.copyOf(zellen, Math.max(Math.min(zellen.length * 2, feld.length),
+                                                    zellen.length + 1));
+            belegt[abschnitt] = zellen;
+        }
+        zellen[anzahlBelegt[abschnitt]++] = index;
     }
     
     /**
@@ -78,12 +451,25 @@ public class Feld
      */
     public Tier gibTierAn(int zeile, int spalte)
     {
-        return feld[zeile][spalte];
+        return feld[zeile * breite + spalte];
+    }
+    
+    /**
+     * Liefere das Tier an der angegebenen Position, falls vorhanden.
+     * @param koordinate die gepackte Koordinate der Position.
+     * @return das Tier an der angegebenen Position oder null, wenn
+     *         dort kein Tier eingetragen ist.
+     */
+    public Tier gibTierAn(long koordinate)
+    {
+        return feld[Position.zeileVon(koordinate) * breite + Position.spalteVon(koordinate)];
     }
     
     /**
      * W�hle zuf�llig eine der Positionen, die an die gegebene Position
-     * angrenzen, oder die gegebene Position selbst.
+     * angrenzen, oder die gegebene Position selbst. In einem begrenzten
+     * Feld bleibt es bei der gegebenen Position, wenn der gewaehlte
+     * Nachbar ausserhalb laege.
      * Die gelieferte Position liegt innerhalb der g�ltigen Grenzen
      * dieses Feldes.
      * @param position die Position, von der ein Nachbar zu w�hlen ist.
@@ -92,21 +478,38 @@ public class Feld
      */
     public Position zufaelligeNachbarposition(Position position)
     {
-        int zeile = position.gibZeile();
-        int spalte = position.gibSpalte();
+        long koordinate = zufaelligerNachbar(position.gibZeile(), position.gibSpalte(), rand);
+        if(koordinate == position.gibKoordinate()) {
+            return position;
+        }
+        return new Position(koordinate);
+    }
+    
+    /**
+     * Wie zufaelligeNachbarposition, aber ohne ein Position-Objekt
+     * zu erzeugen.
+     * @param zeile die Zeile der Position.
+     * @param spalte die Spalte der Position.
+     * @param rand der zu benutzende Zufallsgenerator.
+     * @return die gepackte Koordinate eines Nachbarn oder der
+     *         Position selbst.
+     */
+    public long zufaelligerNachbar(int zeile, int spalte, Random rand)
+    {
+        if(zeilenRing != null) {
+            return Position.packe(zeilenRing[zeile + rand.nextInt(3)],
+                                  spaltenRing[spalte + rand.nextInt(3)]);
+        }
         // Zuf�llig eine Abweichung von -1, 0 oder +1 f�r Zeile und Spalte w�hlen.
         int naechsteZeile = zeile + rand.nextInt(3) - 1;
         int naechsteSpalte = spalte + rand.nextInt(3) - 1;
         // Pr�fen, ob die neue Position au�erhalb der Feldgrenzen liegt.
         if(naechsteZeile < 0 || naechsteZeile >= tiefe
            || naechsteSpalte < 0 || naechsteSpalte >= breite) {
-            return position;
-        }
-        else if(naechsteZeile != zeile || naechsteSpalte != spalte) {
-            return new Position(naechsteZeile, naechsteSpalte);
+            return Position.packe(zeile, spalte);
         }
         else {
-            return position;
+            return Position.packe(naechsteZeile, naechsteSpalte);
         }
     }
     
@@ -123,48 +526,100 @@ public class Feld
      */
     public Position freieNachbarposition(Position position)
     {
-        Iterator<Position> nachbarn = nachbarpositionen(position);
-        while(nachbarn.hasNext()) {
-            Position naechste = nachbarn.next();
-            if(feld[naechste.gibZeile()][naechste.gibSpalte()] == null) {
-                return naechste;
+        long koordinate = freierNachbar(position.gibZeile(), position.gibSpalte(), rand);
+        if(koordinate == Position.KEINE) {
+            return null;
+        }
+        else if(koordinate == position.gibKoordinate()) {
+            return position;
+        }
+        return new Position(koordinate);
+    }
+
+    /**
+     * Wie freieNachbarposition, aber ohne ein Position-Objekt zu
+     * erzeugen.
+     * @param zeile die Zeile der Position.
+     * @param spalte die Spalte der Position.
+     * @param rand der zu benutzende Zufallsgenerator.
+     * @return die gepackte Koordinate eines freien Nachbarn oder der
+     *         Position selbst, oder Position.KEINE, wenn alle
+     *         Nachbarpositionen und die Position selbst belegt sind.
+     */
+    public long freierNachbar(int zeile, int spalte, Random rand)
+    {
+        int reihenfolge = mischeNachbarn(rand);
+        for(int k = 0; k < NACHBARN; k++) {
+            long nachbar = nachbar(zeile, spalte, reihenfolge, k);
+            if(nachbar != Position.KEINE && gibTierAn(nachbar) == null) {
+                return nachbar;
             }
         }
         // Pr�fen, ob die gegebene Position selbst frei ist.
-        if(feld[position.gibZeile()][position.gibSpalte()] == null) {
-            return position;
+        if(gibTierAn(zeile, spalte) == null) {
+            return Position.packe(zeile, spalte);
         } 
         else {
-            return null;
+            return Position.KEINE;
+        }
+    }
+
+    /**
+     * Waehle eine zufaellige Reihenfolge, in der die Nachbarn einer
+     * Position mit nachbar durchlaufen werden. Im Gegensatz zu
+     * nachbarpositionen werden dabei keine Objekte erzeugt.
+     * @param rand der zu benutzende Zufallsgenerator.
+     * @return eine Kennung der Reihenfolge fuer nachbar.
+     */
+    public int mischeNachbarn(Random rand)
+    {
+        return Nachbarschaft.zufaelligeReihenfolge(rand);
+    }
+
+    /**
+     * Liefere den k-ten Nachbarn der gegebenen Position in der
+     * gewaehlten Reihenfolge. Ein Durchlauf ueber k = 0 bis NACHBARN-1
+     * liefert jeden Nachbarn innerhalb des Feldes genau einmal. Auf
+     * einem Torus liegt kein Nachbar ausserhalb; er kommt ohne
+     * Vergleiche aus den vorberechneten Tabellen.
+     * @param zeile die Zeile der Position.
+     * @param spalte die Spalte der Position.
+     * @param reihenfolge eine Kennung aus mischeNachbarn.
+     * @param k die Nummer des Nachbarn (0 bis NACHBARN-1).
+     * @return die gepackte Koordinate des Nachbarn oder
+     *         Position.KEINE, wenn der Nachbar ausserhalb liegt.
+     */
+    public long nachbar(int zeile, int spalte, int reihenfolge, int k)
+    {
+        int richtung = Nachbarschaft.richtung(reihenfolge, k);
+        if(zeilenRing != null) {
+            return Position.packe(zeilenRing[zeile + 1 + Nachbarschaft.ZEILEN_ABWEICHUNG[richtung]],
+                                  spaltenRing[spalte + 1 + Nachbarschaft.SPALTEN_ABWEICHUNG[richtung]]);
+        }
+        int naechsteZeile = zeile + Nachbarschaft.ZEILEN_ABWEICHUNG[richtung];
+        int naechsteSpalte = spalte + Nachbarschaft.SPALTEN_ABWEICHUNG[richtung];
+        if(naechsteZeile < 0 || naechsteZeile >= tiefe
+           || naechsteSpalte < 0 || naechsteSpalte >= breite) {
+            return Position.KEINE;
         }
+        return Position.packe(naechsteZeile, naechsteSpalte);
     }
 
     /**
-     * Erzeuge einen Iterator �ber eine gemischte Liste von Nachbarpositionen
-     * zu der gegebenen Position. Diese Liste enth�lt nicht die gegebene 
-     * Position selbst. Alle Positionen liegen innerhalb des Feldes.
+     * Erzeuge einen Iterator ueber die Nachbarpositionen zu der
+     * gegebenen Position in zufaelliger Reihenfolge. Diese enthalten
+     * nicht die gegebene Position selbst. Alle Positionen liegen
+     * innerhalb des Feldes.
+     * Der Iterator erzeugt fuer jeden Nachbarn eine Position; in
+     * haeufig durchlaufenem Code besser mischeNachbarn und
+     * nachbar benutzen.
      * @param position die Position, f�r die Nachbarpositionen zu liefern sind.
      * @return ein Iterator �ber Nachbarpositionen zur gegebenen Position.
      */
     public Iterator<Position> nachbarpositionen(Position position)
     {
-        int zeile = position.gibZeile();
-        int spalte = position.gibSpalte();
-        List<Position> positionen = new LinkedList<Position>();
-        for(int zDiff = -1; zDiff <= 1; zDiff++) {
-            int naechsteZeile = zeile + zDiff;
-            if(naechsteZeile >= 0 && naechsteZeile < tiefe) {
-                for(int sDiff = -1; sDiff <= 1; sDiff++) {
-                    int naechsteSpalte = spalte + sDiff;
-                    // Exclude invalid locations and the original location.
-                    if(naechsteSpalte >= 0 && naechsteSpalte < breite && (zDiff != 0 || sDiff != 0)) {
-                        positionen.add(new Position(naechsteZeile, naechsteSpalte));
-                    }
-                }
-            }
-        }
-         Collections.shuffle(positionen,rand);
-        return positionen.iterator();
+        return new NachbarIterator(position.gibZeile(), position.gibSpalte(),
+                                   mischeNachbarn(rand));
     }
 
     /**
@@ -184,4 +639,60 @@ public class Feld
     {
         return breite;
     }
+    
+    /**
+     * Ein Iterator ueber die Nachbarn einer Position, der auf
+     * nachbar aufsetzt.
+     */
+    private class NachbarIterator implements Iterator<Position>
+    {
+        private final int zeile, spalte, reihenfolge;
+        // Die Nummer des naechsten zu pruefenden Nachbarn
+        private int k;
+        // Der naechste zu liefernde Nachbar oder Position.KEINE
+        private long naechste;
+
+        public NachbarIterator(int zeile, int spalte, int reihenfolge)
+        {
+            this.zeile = zeile;
+            this.spalte = spalte;
+            this.reihenfolge = reihenfolge;
+            naechste = suche();
+        }
+
+        public boolean hasNext()
+        {
+            return naechste != Position.KEINE;
+        }
+
+        public Position next()
+        {
+            if(naechste == Position.KEINE) {
+                throw new NoSuchElementException();
+            }
+            Position position = new Position(naechste);
+            naechste = suche();
+            return position;
+        }
+
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * @return der naechste Nachbar innerhalb des Feldes oder
+         *         Position.KEINE, wenn es keinen mehr gibt.
+         */
+        private long suche()
+        {
+            while(k < NACHBARN) {
+                long koordinate = nachbar(zeile, spalte, reihenfolge, k++);
+                if(koordinate != Position.KEINE) {
+                    return koordinate;
+                }
+            }
+            return Position.KEINE;
+        }
+    }
 }
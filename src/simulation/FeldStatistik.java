@@ -1,33 +1,42 @@
 package simulation;
 
-import java.util.HashMap;
-
 /**
  * Diese Klasse sammelt und liefert statistische Daten �ber den
- * Zustand eines Feldes. Auf sehr flexible Weise: Es wird ein
- * Z�hler angelegt und gepflegt f�r jede Objektklasse, die im
- * Feld gefunden wird.
- * 
+ * Zustand eines Feldes. Fuer jede Tierart gibt es einen Zaehler, der
+ * ueber die Nummer der Art (siehe Tierart) angesprochen wird.
+ *
+ * Der Simulator haelt die Zaehler waehrend der Simulation aktuell, indem
+ * er nach jedem Schritt die Geburten und Tode meldet; diese Meldungen
+ * des letzten Schrittes koennen ebenfalls abgefragt werden. Abfragen kosten
+ * deshalb nur so viel wie es Arten gibt; das ganze Feld wird nur mit
+ * zaehle durchlaufen, etwa um die Zaehler neu aufzusetzen.
+ *
  * @author David J. Barnes und Michael K�lling
  * @version 2006.03.30
  */
 public class FeldStatistik
 {
     // Die Z�hler f�r die jeweiligen Akteurstypen (Fuchs, Hase, etc.)
-    // in der Simulation.
-    private HashMap<Class, Zaehler> zaehler;
-    // Sind die Z�hlerst�nde momentan aktuell?
-    private boolean zaehlerAktuell;
+    // in der Simulation, Index ist die Nummer der Art.
+    private Zaehler[] zaehler;
+    // Die Geburten, Tode und gefressenen Tiere des letzten Schrittes,
+    // Index ist die Nummer der Art.
+    private int[] geburten;
+    private int[] tode;
+    private int[] gefressen;
 
     /**
      * Erzeuge ein FeldStatistik-Objekt.
      */
     public FeldStatistik()
     {
-        // Wir legen eine Sammlung f�r die Z�hler an, die wir f�r
-        // die gefundenen Tierarten erzeugen.
-        zaehler = new HashMap<Class, Zaehler>();
-        zaehlerAktuell = true;
+        zaehler = new Zaehler[Tierart.ANZAHL];
+        for(int art = 0; art < zaehler.length; art++) {
+            zaehler[art] = new Zaehler(Tierart.gibName(art));
+        }
+        geburten = new int[Tierart.ANZAHL];
+        tode = new int[Tierart.ANZAHL];
+        gefressen = new int[Tierart.ANZAHL];
     }
 
     /**
@@ -35,14 +44,10 @@ public class FeldStatistik
      * @return Eine Beschreibung, welche Tiere das
      *         Feld bev�lkern.
      */
-    public String gibBewohnerInfo(Feld feld)
+    public String gibBewohnerInfo()
     {
-        StringBuffer buffer = new StringBuffer();
-        if(!zaehlerAktuell) {
-            ermittleZaehlerstaende(feld);
-        }
-        for (Class schluessel : zaehler.keySet()) {
-            Zaehler info = zaehler.get(schluessel);
+        StringBuilder buffer = new StringBuilder();
+        for(Zaehler info : zaehler) {
             buffer.append(info.gibName());
             buffer.append(": ");
             buffer.append(info.gibStand());
@@ -50,42 +55,95 @@ public class FeldStatistik
         }
         return buffer.toString();
     }
-    
+
+    /**
+     * Liefere die Anzahl der Tiere einer Art.
+     * @param art die Nummer der Art.
+     * @return den Stand des Zaehlers dieser Art.
+     */
+    public int gibAnzahl(int art)
+    {
+        return zaehler[art].gibStand();
+    }
+
     /**
      * Verwerfe alle bisher gesammelten Daten; setze alle Z�hler
      * auf Null zur�ck.
      */
     public void zuruecksetzen()
     {
-        zaehlerAktuell = false;
-        for(Class schluessel : zaehler.keySet()) {
-            Zaehler einzelZaehler = zaehler.get(schluessel);
+        for(Zaehler einzelZaehler : zaehler) {
             einzelZaehler.zuruecksetzen();
         }
+        beginneSchritt();
     }
 
     /**
-     * Erh�he den Z�hler f�r eine Tierklasse.
-     * @param tierklasse Klasse der Tierart, f�r die erh�ht werden soll.
+     * Verwirf die Geburten und Tode des letzten Schrittes, bevor die
+     * des naechsten gemeldet werden. Die Zaehler bleiben erhalten.
      */
-    public void erhoeheZaehler(Class tierklasse)
+    public void beginneSchritt()
     {
-        Zaehler einzelZaehler = zaehler.get(tierklasse);
-        if(einzelZaehler == null) {
-            // Wir haben noch keinen Z�hler f�r
-            // diese Spezies - also neu anlegen
-            einzelZaehler = new Zaehler(tierklasse.getName());
-            zaehler.put(tierklasse, einzelZaehler);
+        for(int art = 0; art < Tierart.ANZAHL; art++) {
+            geburten[art] = 0;
+            tode[art] = 0;
+            gefressen[art] = 0;
         }
-        einzelZaehler.erhoehen();
     }
 
     /**
-     * Signalisiere, dass eine Tierz�hlung beendet ist.
+     * Melde Geburten und Tode einer Art im aktuellen Schritt und
+     * veraendere ihren Zaehler entsprechend. Ein Schritt kann in
+     * mehreren Teilen gemeldet werden.
+     * @param art die Nummer der Art.
+     * @param geborene die Anzahl der geborenen Tiere.
+     * @param gestorbene die Anzahl der gestorbenen Tiere, einschliesslich
+     *        der gefressenen.
+     * @param gefresseneTiere die Anzahl der gefressenen Tiere.
+     */
+    public void meldeSchritt(int art, int geborene, int gestorbene, int gefresseneTiere)
+    {
+        geburten[art] += geborene;
+        tode[art] += gestorbene;
+        gefressen[art] += gefresseneTiere;
+        zaehler[art].addieren(geborene - gestorbene);
+    }
+
+    /**
+     * @param art die Nummer der Art.
+     * @return die Anzahl der im letzten Schritt geborenen Tiere.
      */
-    public void zaehlungBeendet()
+    public int gibGeburten(int art)
     {
-        zaehlerAktuell = true;
+        return geburten[art];
+    }
+
+    /**
+     * @param art die Nummer der Art.
+     * @return die Anzahl der im letzten Schritt gestorbenen Tiere,
+     *         einschliesslich der gefressenen.
+     */
+    public int gibTode(int art)
+    {
+        return tode[art];
+    }
+
+    /**
+     * @param art die Nummer der Art.
+     * @return die Anzahl der im letzten Schritt gefressenen Tiere.
+     */
+    public int gibGefressen(int art)
+    {
+        return gefressen[art];
+    }
+
+    /**
+     * Erhoehe den Zaehler fuer eine Tierart.
+     * @param art die Nummer der Art, fuer die erhoeht werden soll.
+     */
+    public void erhoeheZaehler(int art)
+    {
+        zaehler[art].erhoehen();
     }
 
     /**
@@ -93,41 +151,34 @@ public class FeldStatistik
      * ob sie weiterhin laufen sollte.
      * @return true wenn noch mehr als eine Spezies lebt.
      */
-    public boolean istAktiv(Feld feld)
+    public boolean istAktiv()
     {
         // Wieviele Z�hler sind nicht Null.
         int nichtNull = 0;
-        if(!zaehlerAktuell) {
-            ermittleZaehlerstaende(feld);
-        }
-        for(Class schluessel : zaehler.keySet()) {
-            Zaehler info = zaehler.get(schluessel);
+        for(Zaehler info : zaehler) {
             if(info.gibStand() > 0) {
                 nichtNull++;
             }
         }
         return nichtNull > 1;
     }
-    
+
     /**
-     * Erzeuge Z�hler f�r die Anzahl der F�chse und Hasen.
-     * Diese werden nicht st�ndig aktuell gehalten, w�hrend
-     * F�chse und Hasen in das Feld gesetzt werden, sondern
-     * jeweils bei der Abfrage der Z�hlerst�nde berechnet.
+     * Setze die Zaehler auf die Anzahl der Fuechse und Hasen, die
+     * im Feld stehen. Dazu wird das ganze Feld durchlaufen.
      * @param feld das Feld, f�r das die Statistik erstellt
      *             werden soll.
      */
-    private void ermittleZaehlerstaende(Feld feld)
+    public void zaehle(Feld feld)
     {
         zuruecksetzen();
         for(int zeile = 0; zeile < feld.gibTiefe(); zeile++) {
             for(int spalte = 0; spalte < feld.gibBreite(); spalte++) {
                 Tier tier = feld.gibTierAn(zeile, spalte);
-                if(tier != null) {
-                    erhoeheZaehler(tier.getClass());
+                if(tier != null && tier.istLebendig()) {
+                    erhoeheZaehler(tier.gibArt());
                 }
             }
         }
-        zaehlerAktuell = true;
     }
 }
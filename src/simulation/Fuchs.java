@@ -1,7 +1,5 @@
 package simulation;
 
-import java.util.List;
-import java.util.Iterator;
 import java.util.Random;
 
 /**
@@ -13,25 +11,11 @@ import java.util.Random;
  */
 public class Fuchs extends Tier
 {
-    // Eigenschaften aller F�chse (statische Datenfelder)
-    
-    // Das Alter, in dem ein Fuchs geb�rf�hig wird.
-    private static final int GEBAER_ALTER = 10;
-    // Das H�chstalter eines Fuchses.
-    private static final int MAX_ALTER = 150;
-    // Die Wahrscheinlichkeit, mit der ein Fuchs Nachwuchs geb�rt.
-    private static final double GEBAER_WAHRSCHEINLICHKEIT = 0.09;
-    // Die maximale Gr��e eines Wurfes (Anzahl der Jungen).
-    private static final int MAX_WURFGROESSE = 3;
-    // Der N�hrwert eines einzelnen Hasen. Letztendlich ist
-    // dies die Anzahl der Schritte, die ein Fuchs bis zur
-    //n�chsten Mahlzeit laufen kann.
-    private static final int HASEN_NAEHRWERT = 4;
-	// Ein Zufallsgenerator, der die Geburten beeinflusst.
-    private static final Random rand = new Random();
-    
     // Individuelle Eigenschaften (Instanzfelder).
 
+    // Die Eigenschaften aller Fuechse dieser Simulation.
+    private final Artparameter parameter;
+
     // Der Futter-Level, der durch das Fressen von Hasen erh�ht wird.
     private int futterLevel;
 
@@ -41,17 +25,34 @@ public class Fuchs extends Tier
      * 
      * @param zufaelligesAlter falls true, hat der neue Fuchs ein 
      *        zuf�lliges Alter und einen zuf�lligen Futter-Level.
+     * @param rand der Zufallsgenerator fuer Alter und Futter-Level;
+     *        wird nur bei zufaelligem Alter benutzt.
+     */
+    public Fuchs(boolean zufaelligesAlter, Random rand)
+    {
+        this(zufaelligesAlter, rand, Artparameter.STANDARD_FUCHS);
+    }
+    
+    /**
+     * Erzeuge einen Fuchs mit den gegebenen Eigenschaften.
+     * @param zufaelligesAlter falls true, hat der neue Fuchs ein
+     *        zufaelliges Alter und einen zufaelligen Futter-Level.
+     * @param rand der Zufallsgenerator fuer Alter und Futter-Level;
+     *        wird nur bei zufaelligem Alter benutzt.
+     * @param parameter die Eigenschaften der Fuechse; sie gehen auf
+     *        den Nachwuchs ueber.
      */
-    public Fuchs(boolean zufaelligesAlter)
+    public Fuchs(boolean zufaelligesAlter, Random rand, Artparameter parameter)
     {
-        super();
+        super(Tierart.FUCHS);
+        this.parameter = parameter;
         if(zufaelligesAlter) {
-            setzeAlter(rand.nextInt(MAX_ALTER));
-            futterLevel = rand.nextInt(HASEN_NAEHRWERT);
+            setzeAlter(rand.nextInt(parameter.gibMaxAlter()));
+            futterLevel = rand.nextInt(parameter.gibSaettigung());
         }
         else {
             // leave age at 0
-            futterLevel = HASEN_NAEHRWERT;
+            futterLevel = parameter.gibSaettigung();
         }
     }
     
@@ -59,33 +60,37 @@ public class Fuchs extends Tier
      * Das was ein Fuchs die meiste Zeit tut: er jagt Hasen.
      * Dabei kann er Nachwuchs geb�ren, vor Hunger sterben oder
      * an Altersschw�che.
-     * @param aktuellesFeld Das aktuell belegte Feld.
-     * @param naechstesFeld Das zu belegende Feld.
-     * @param neueTiere Liste, in die neue F�chse einzuf�gen sind.
+     * @param kontext Der Kontext des Schrittes.
      */
-    public void agiere(Feld aktuellesFeld, Feld naechstesFeld, List<Tier> neueTiere)
+    public void agiere(Schrittkontext kontext)
     {
         alterErhoehen();
         hungerVergroessern();
         if(istLebendig()) {
+            Feld naechstesFeld = kontext.gibNaechstesFeld();
+            Random zufall = kontext.gibZufall();
+            int zeile = gibZeile();
+            int spalte = gibSpalte();
             // neue F�chse werden in Nachbarpositionen geboren.
-            int geburten = gebaereNachwuchs();
+            int geburten = gebaereNachwuchs(zufall);
             for(int b = 0; b < geburten; b++) {
-                Fuchs neuerFuchs = new Fuchs(false);
-                neueTiere.add(neuerFuchs);
-                neuerFuchs.setzePosition(naechstesFeld.zufaelligeNachbarposition(gibPosition()));
-                naechstesFeld.platziere(neuerFuchs);
+                Fuchs neuerFuchs = new Fuchs(false, zufall, parameter);
+                // auf einer besetzten Position wird kein Fuchs geboren
+                if(neuerFuchs.zieheNach(kontext,
+                                        naechstesFeld.zufaelligerNachbar(zeile, spalte, zufall))) {
+                    kontext.geboren(neuerFuchs);
+                }
             }
             // In die Richtung bewegen, in der Futter gefunden wurde.
-            Position neuePosition = findeNahrung(aktuellesFeld, gibPosition());
-            if(neuePosition == null) {  // kein Futter - zuf�llig bewegen
-                neuePosition = naechstesFeld.freieNachbarposition(gibPosition());
+            long neuePosition = findeNahrung(kontext, zeile, spalte, zufall);
+            if(neuePosition == Position.KEINE && parameter.gibSichtweite() > 1) {
+                // kein Futter nebenan - auf entferntere Beute zugehen
+                neuePosition = folgeBeute(kontext, zeile, spalte);
             }
-            if(neuePosition != null) {
-                setzePosition(neuePosition);
-                naechstesFeld.platziere(this); // setzt die Position
+            if(neuePosition == Position.KEINE) {  // kein Futter - zufaellig bewegen
+                neuePosition = naechstesFeld.freierNachbar(zeile, spalte, zufall);
             }
-            else {
+            if(neuePosition == Position.KEINE || !zieheNach(kontext, neuePosition)) {
                 // weder Bleiben noch Gehen m�glich - �berpopulation - kein Platz 
                 setzeGestorben();
             }
@@ -93,29 +98,70 @@ public class Fuchs extends Tier
     }
     
     /**
-     * Suche nach Nahrung (Hasen) in den Nachbarpositionen.
-     * Nur der erste lebendige Hase wird gefressen.
-     * @param feld das Feld, in dem gesucht werden soll.
-     * @param position die Position, an der sich der Fuchs befindet.
-     * @return die Position mit Nahrung, oder null, wenn keine vorhanden.
+     * Suche nach Nahrung (Tiere, die ein Fuchs frisst, siehe
+     * Tierart.frisst) in den Nachbarpositionen.
+     * Nur das erste lebendige Beutetier wird gefressen. Hat es schon
+     * agiert, wird es wieder aus dem naechsten Feld entfernt; ist
+     * seine Position dort besetzt, zieht der Fuchs auf einen freien
+     * Nachbarn.
+     * @param kontext der Kontext des Schrittes; gesucht wird im
+     *        aktuellen Feld.
+     * @param zeile die Zeile, in der sich der Fuchs befindet.
+     * @param spalte die Spalte, in der sich der Fuchs befindet.
+     * @param zufall der zu benutzende Zufallsgenerator.
+     * @return die gepackte Koordinate der Position mit Nahrung (oder
+     *         des freien Nachbarn), oder Position.KEINE, wenn keine
+     *         vorhanden.
      */
-    private Position findeNahrung(Feld feld, Position position)
+    private long findeNahrung(Schrittkontext kontext, int zeile, int spalte, Random zufall)
     {
-        Iterator<Position> nachbarPositionen =
-                          feld.nachbarpositionen(position);
-        while(nachbarPositionen.hasNext()) {
-            Position pos = nachbarPositionen.next();
-            Tier tier = feld.gibTierAn(pos);
-            if(tier instanceof Hase) {
-                Hase hase = (Hase) tier;
-                if(hase.istLebendig()) { 
-                    hase.setzeGestorben();
-                    futterLevel = HASEN_NAEHRWERT;
-                    return pos;
+        Feld feld = kontext.gibAktuellesFeld();
+        int reihenfolge = feld.mischeNachbarn(zufall);
+        for(int k = 0; k < Feld.NACHBARN; k++) {
+            long nachbar = feld.nachbar(zeile, spalte, reihenfolge, k);
+            if(nachbar == Position.KEINE) {
+                continue;
+            }
+            Tier tier = feld.gibTierAn(nachbar);
+            if(tier != null && Tierart.frisst(gibArt(), tier.gibArt())
+               && tier.istLebendig()) {
+                tier.setzeGestorben();
+                kontext.gefressen(tier, nachbar);
+                futterLevel = parameter.gibSaettigung();
+                Feld naechstesFeld = kontext.gibNaechstesFeld();
+                naechstesFeld.entferne(tier);
+                if(naechstesFeld.gibTierAn(nachbar) != null) {
+                    return naechstesFeld.freierNachbar(zeile, spalte, zufall);
                 }
+                return nachbar;
             }
         }
-        return null;
+        return Position.KEINE;
+    }
+        
+    /**
+     * Suche die naechste Beute innerhalb der Sichtweite und waehle die
+     * Nachbarposition in ihrer Richtung, falls sie im naechsten Feld
+     * frei ist.
+     * @param kontext der Kontext des Schrittes; gesucht wird im
+     *        aktuellen Feld, dessen Index erneuert sein muss.
+     * @param zeile die Zeile, in der sich der Fuchs befindet.
+     * @param spalte die Spalte, in der sich der Fuchs befindet.
+     * @return die gepackte Koordinate der Position in Richtung der
+     *         Beute, oder Position.KEINE.
+     */
+    private long folgeBeute(Schrittkontext kontext, int zeile, int spalte)
+    {
+        long beute = kontext.gibAktuellesFeld().sucheBeute(zeile, spalte,
+                                                           parameter.gibSichtweite(), gibArt());
+        if(beute == Position.KEINE) {
+            return Position.KEINE;
+        }
+        long ziel = kontext.gibNaechstesFeld().schrittZu(zeile, spalte, beute);
+        if(kontext.gibNaechstesFeld().gibTierAn(ziel) != null) {
+            return Position.KEINE;
+        }
+        return ziel;
     }
         
     /**
@@ -125,7 +171,7 @@ public class Fuchs extends Tier
     private void alterErhoehen()
     {
         setzeAlter(gibAlter()+1);
-        if(gibAlter() > MAX_ALTER) {
+        if(gibAlter() > parameter.gibMaxAlter()) {
             setzeGestorben();
         }
     }
@@ -144,17 +190,35 @@ public class Fuchs extends Tier
     
     /**
      * Geb�re Nachwuchs, wenn dieser Fuchs geb�rf�hig ist.
+     * @param zufall der zu benutzende Zufallsgenerator.
      * @return die Anzahl der Neugeborenen (kann Null sein).
      */
-    private int gebaereNachwuchs()
+    private int gebaereNachwuchs(Random zufall)
     {
         int geburten = 0;
-        if(kannGebaeren() && rand.nextDouble() <= GEBAER_WAHRSCHEINLICHKEIT) {
-            geburten = rand.nextInt(MAX_WURFGROESSE) + 1;
+        if(kannGebaeren() && zufall.nextDouble() <= parameter.gibGebaerWahrscheinlichkeit()) {
+            geburten = zufall.nextInt(parameter.gibMaxWurfgroesse()) + 1;
         }
         return geburten;
     }
     
+    /**
+     * @return den Futter-Level dieses Fuchses.
+     */
+    int gibFutterLevel()
+    {
+        return futterLevel;
+    }
+    
+    /**
+     * Setze den Futter-Level dieses Fuchses, etwa beim Laden.
+     * @param futterLevel der neue Futter-Level.
+     */
+    void setzeFutterLevel(int futterLevel)
+    {
+        this.futterLevel = futterLevel;
+    }
+    
     /**
      * Liefere eine String-Beschreibung dieses Fuchses.
      */
@@ -169,7 +233,7 @@ public class Fuchs extends Tier
      */
     private boolean kannGebaeren()
     {
-        return gibAlter() >= GEBAER_ALTER;
+        return gibAlter() >= parameter.gibGebaerAlter();
     }
     
 }
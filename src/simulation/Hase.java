@@ -1,6 +1,5 @@
 package simulation;
 
-import java.util.List;
 import java.util.Random;
 
 /**
@@ -12,31 +11,37 @@ import java.util.Random;
  */
 public class Hase extends Tier
 {
-    // Eigenschaften aller Hasen (statische Datenfelder).
-
-    // Das Alter, in dem ein Hase geb�rf�hig wird.
-    private static final int GEBAER_ALTER = 5;
-    // Das H�chstalter eines Hasen.
-    private static final int MAX_ALTER = 50;
-    // Die Wahrscheinlichkeit, mit der ein Hase Nachwuchs geb�rt.
-    private static final double GEBAER_WAHRSCHEINLICHKEIT = 0.15;
-    // Die maximale Gr��e eines Wurfes (Anzahl der Jungen)
-    private static final int MAX_WURFGROESSE = 5;
-    // Ein Zufallsgenerator, der die Geburten beeinflusst.
-    private static final Random rand = new Random();
-    
     // Individuelle Eigenschaften eines Hasen (Instanzfelder).
+
+    // Die Eigenschaften aller Hasen dieser Simulation.
+    private final Artparameter parameter;
     
     /**
      * Erzeuge einen neuen Hasen. Ein Hase kann das Alter 0 
      *(neu geboren) oder ein zuf�lliges Alter haben.
      * @param zufaelligesAlter soll der Hase ein zuf�lliges Alter haben?
+     * @param rand der Zufallsgenerator fuer das Alter; wird nur bei
+     *        zufaelligem Alter benutzt.
      */
-    public Hase(boolean zufaelligesAlter)
+    public Hase(boolean zufaelligesAlter, Random rand)
     {
-        super();
+        this(zufaelligesAlter, rand, Artparameter.STANDARD_HASE);
+    }
+    
+    /**
+     * Erzeuge einen neuen Hasen mit den gegebenen Eigenschaften.
+     * @param zufaelligesAlter soll der Hase ein zufaelliges Alter haben?
+     * @param rand der Zufallsgenerator fuer das Alter; wird nur bei
+     *        zufaelligem Alter benutzt.
+     * @param parameter die Eigenschaften der Hasen; sie gehen auf den
+     *        Nachwuchs ueber.
+     */
+    public Hase(boolean zufaelligesAlter, Random rand, Artparameter parameter)
+    {
+        super(Tierart.HASE);
+        this.parameter = parameter;
         if(zufaelligesAlter) {
-            setzeAlter(rand.nextInt(MAX_ALTER));
+            setzeAlter(rand.nextInt(parameter.gibMaxAlter()));
         }
     }
     
@@ -44,28 +49,28 @@ public class Hase extends Tier
      * Das was ein Hase die meiste Zeit tut - er l�uft herum.
      * Manchmal geb�rt er Nachwuchs und irgendwann stirbt er
      * an Altersschw�che.
-     * @param aktuellesFeld Das aktuell belegte Feld.
-     * @param naechstesFeld Das zu belegende Feld.
-     * @param neueTiere Liste, in die neue Hasen einzuf�gen sind.
+     * @param kontext Der Kontext des Schrittes.
      */
-    public void agiere(Feld feld, Feld naechstesFeld, List<Tier> neueTiere)
+    public void agiere(Schrittkontext kontext)
     {
         alterErhoehen();
         if(istLebendig()) {
-            int geburten = gebaereNachwuchs();
+            Feld naechstesFeld = kontext.gibNaechstesFeld();
+            Random zufall = kontext.gibZufall();
+            int zeile = gibZeile();
+            int spalte = gibSpalte();
+            int geburten = gebaereNachwuchs(zufall);
             for(int b = 0; b < geburten; b++) {
-                Hase neuerHase = new Hase(false);
-                neueTiere.add(neuerHase);
-                neuerHase.setzePosition(naechstesFeld.zufaelligeNachbarposition(gibPosition()));
-                naechstesFeld.platziere(neuerHase);
+                Hase neuerHase = new Hase(false, zufall, parameter);
+                // auf einer besetzten Position wird kein Hase geboren
+                if(neuerHase.zieheNach(kontext,
+                                       naechstesFeld.zufaelligerNachbar(zeile, spalte, zufall))) {
+                    kontext.geboren(neuerHase);
+                }
             }
-            Position neuePosition = naechstesFeld.freieNachbarposition(gibPosition());
+            long neuePosition = naechstesFeld.freierNachbar(zeile, spalte, zufall);
             // nur in das n�chste Feld setzen, wenn eine Position frei ist
-            if(neuePosition != null) {
-                setzePosition(neuePosition);
-                naechstesFeld.platziere(this);
-            }
-            else {
+            if(neuePosition == Position.KEINE || !zieheNach(kontext, neuePosition)) {
                 // weder Bleiben noch Gehen m�glich - �berpopulation - kein Platz 
                 setzeGestorben();
             }
@@ -79,20 +84,21 @@ public class Hase extends Tier
     private void alterErhoehen()
     {
         setzeAlter(gibAlter()+1);
-        if(gibAlter() > MAX_ALTER) {
+        if(gibAlter() > parameter.gibMaxAlter()) {
             setzeGestorben();
         }
     }
     
     /**
      * Geb�re Nachwuchs, wenn dieser Hase geb�rf�hig ist.
+     * @param zufall der zu benutzende Zufallsgenerator.
      * @return die Anzahl der Neugeborenen (kann Null sein).
      */
-    private int gebaereNachwuchs()
+    private int gebaereNachwuchs(Random zufall)
     {
         int geburten = 0;
-        if(kannGebaeren() && rand.nextDouble() <= GEBAER_WAHRSCHEINLICHKEIT) {
-            geburten = rand.nextInt(MAX_WURFGROESSE) + 1;
+        if(kannGebaeren() && zufall.nextDouble() <= parameter.gibGebaerWahrscheinlichkeit()) {
+            geburten = zufall.nextInt(parameter.gibMaxWurfgroesse()) + 1;
         }
         return geburten;
     }
@@ -107,6 +113,6 @@ public class Hase extends Tier
      */
     private boolean kannGebaeren()
     {
-        return gibAlter() >= GEBAER_ALTER;
+        return gibAlter() >= parameter.gibGebaerAlter();
     }
 }
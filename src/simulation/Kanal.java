@@ -0,0 +1,203 @@
+package simulation;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Eine Verbindung zwischen zwei Prozessen einer VerteiltenSimulation,
+ * ueber die ganze Nachrichten geschickt werden. Eine Nachricht ist ein
+ * int mit ihrer Laenge und danach ihr Inhalt (big-endian, wie bei
+ * Sicherung).
+ *
+ * Eine Nachricht wird mit beginne angefangen, mit den schreibe-Methoden
+ * gefuellt und mit sende verschickt. empfange wartet auf die naechste
+ * Nachricht, deren Inhalt dann mit den lies-Methoden gelesen wird. Die
+ * Puffer fuer beide Richtungen wachsen bei Bedarf und werden fuer alle
+ * Nachrichten wiederverwendet.
+ *
+ * @author marc
+ */
+class Kanal
+{
+    // Die Anfangsgroesse der Puffer in Bytes.
+    private static final int STARTGROESSE = 1 << 16;
+
+    private final SocketChannel kanal;
+    private ByteBuffer aus;
+    private ByteBuffer ein;
+
+    /**
+     * Erzeuge einen Kanal ueber eine verbundene SocketChannel.
+     * @param kanal die Verbindung; sie wird auf blockierend gestellt.
+     * @throws IOException wenn die Verbindung nicht eingestellt werden kann.
+     */
+    Kanal(SocketChannel kanal) throws IOException
+    {
+        this.kanal = kanal;
+        kanal.configureBlocking(true);
+        // die Nachrichten sind klein und jede wird sofort erwartet
+        kanal.socket().setTcpNoDelay(true);
+        aus = ByteBuffer.allocateDirect(STARTGROESSE);
+        ein = ByteBuffer.allocateDirect(STARTGROESSE);
+    }
+
+    /**
+     * @return die Verbindung dieses Kanals.
+     */
+    SocketChannel gibVerbindung()
+    {
+        return kanal;
+    }
+
+    /**
+     * Beginne eine neue Nachricht.
+     */
+    void beginne()
+    {
+        aus.clear();
+        aus.putInt(0);
+    }
+
+    void schreibeByte(int wert)
+    {
+        platz(1);
+        aus.put((byte) wert);
+    }
+
+    void schreibeInt(int wert)
+    {
+        platz(4);
+        aus.putInt(wert);
+    }
+
+    void schreibeLong(long wert)
+    {
+        platz(8);
+        aus.putLong(wert);
+    }
+
+    void schreibeText(String text)
+    {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        schreibeInt(bytes.length);
+        platz(bytes.length);
+        aus.put(bytes);
+    }
+
+    /**
+     * Reserviere Platz fuer ein int, das erst spaeter bekannt ist,
+     * etwa eine Anzahl vor den gezaehlten Eintraegen.
+     * @return die Stelle fuer setzeInt.
+     */
+    int reserviereInt()
+    {
+        int stelle = aus.position();
+        schreibeInt(0);
+        return stelle;
+    }
+
+    /**
+     * Trage ein int an einer reservierten Stelle ein.
+     * @param stelle die Stelle aus reserviereInt.
+     * @param wert der Wert.
+     */
+    void setzeInt(int stelle, int wert)
+    {
+        aus.putInt(stelle, wert);
+    }
+
+    /**
+     * Verschicke die begonnene Nachricht.
+     * @throws IOException wenn die Verbindung gestoert ist.
+     */
+    void sende() throws IOException
+    {
+        aus.putInt(0, aus.position() - 4);
+        aus.flip();
+        while(aus.hasRemaining()) {
+            kanal.write(aus);
+        }
+    }
+
+    /**
+     * Warte auf die naechste Nachricht.
+     * @throws IOException wenn die Verbindung gestoert oder beendet ist.
+     */
+    void empfange() throws IOException
+    {
+        ein.clear();
+        ein.limit(4);
+        lies();
+        int laenge = ein.getInt(0);
+        if(laenge < 0) {
+            throw new IOException("Ungueltige Laenge einer Nachricht: " + laenge);
+        }
+        if(ein.capacity() < laenge) {
+            ein = ByteBuffer.allocateDirect(Math.max(laenge, ein.capacity() * 2));
+        }
+        ein.clear();
+        ein.limit(laenge);
+        lies();
+        ein.flip();
+    }
+
+    byte liesByte()
+    {
+        return ein.get();
+    }
+
+    int liesInt()
+    {
+        return ein.getInt();
+    }
+
+    long liesLong()
+    {
+        return ein.getLong();
+    }
+
+    String liesText()
+    {
+        byte[] bytes = new byte[liesInt()];
+        ein.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Schliesse die Verbindung.
+     * @throws IOException wenn das Schliessen fehlschlaegt.
+     */
+    void schliesse() throws IOException
+    {
+        kanal.close();
+    }
+
+    /**
+     * Lies, bis der Eingangspuffer bis zu seiner Grenze gefuellt ist.
+     */
+    private void lies() throws IOException
+    {
+        while(ein.hasRemaining()) {
+            if(kanal.read(ein) < 0) {
+                throw new EOFException("Verbindung beendet");
+            }
+        }
+    }
+
+    /**
+     * Vergroessere den Ausgangspuffer, wenn weniger als bytes frei sind.
+     */
+    private void platz(int bytes)
+    {
+        if(aus.remaining() < bytes) {
+            ByteBuffer groesser = ByteBuffer.allocateDirect(Math.max(aus.capacity() * 2,
+                                                                     aus.position() + bytes));
+            aus.flip();
+            groesser.put(aus);
+            aus = groesser;
+        }
+    }
+}
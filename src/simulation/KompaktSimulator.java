@@ -0,0 +1,579 @@
+package simulation;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Ein eigener, schlanker Jaeger-Beute-Simulator neben dem Simulator,
+ * mit denselben Regeln, der aber ohne Tier-, Position- und
+ * Feld-Objekte auskommt: Die Tiere liegen in einem Tierbestand, die
+ * Felder sind Arrays, die fuer jede Zelle den Index des dort stehenden
+ * Tieres enthalten. Der Simulator selbst arbeitet weiter mit einer
+ * Liste von Tieren.
+ *
+ * Fuer grosse Felder mit Millionen von Tieren braucht ein Schritt
+ * damit weniger Zeit und deutlich weniger Speicher. Dafuer kann er
+ * nur einen Teil dessen, was der Simulator kann: Es gibt keine
+ * Ansicht, keine Sichtweite ueber die Nachbarzellen hinaus (siehe
+ * Artparameter; der Konstruktor lehnt sie ab), keinen parallelen
+ * Schritt, kein duennes Feld, keine Sicherung und kein Schrittprotokoll.
+ * Die Arten kommen aus Tierart: eine Art, die etwas frisst, verhaelt
+ * sich wie ein Fuchs, jede andere wie ein Hase.
+ *
+ * Wie beim Simulator werden alle Zufallszahlen aus einer Saat
+ * abgeleitet. Mit derselben Saat, Groesse, Topologie und denselben
+ * Parametern verlaeuft er Schritt fuer Schritt genau wie der
+ * sequentielle Schritt des Simulators; vergleiche prueft das.
+ *
+ * @author marc
+ */
+public class KompaktSimulator
+{
+    // Markierung fuer eine leere Zelle.
+    private static final int LEER = -1;
+
+    // Die Tiefe und die Breite des Feldes
+    private int tiefe, breite;
+    // Die umgebrochenen Zeilen und Spalten eines Torus (siehe
+    // Nachbarschaft.ringtabelle), oder null fuer ein begrenztes Feld
+    private int[] zeilenRing, spaltenRing;
+    // Alle Tiere der Simulation
+    private Tierbestand bestand;
+    // Der aktuelle Zustand des Feldes
+    private Gitter feld;
+    // Zweites Feld, mit dem der naechste Schritt erzeugt wird
+    private Gitter naechstesFeld;
+    // Der aktuelle Schritt der Simulation
+    private int schritt;
+    // Der Zufallsgenerator fuer alle Entscheidungen der Tiere
+    private Zufall rand;
+    // Die Saat, aus der alle Zufallszahlen abgeleitet werden
+    private long saat;
+    // Die Massenphasen fuer Alter und Hunger, oder null fuer Tier fuer Tier
+    private Massenphasen massenphasen;
+    // Die Eigenschaften jeder Art, Index ist die Nummer der Art
+    private final Artparameter[] arten;
+    // Jagt die Art (siehe Tierart.istJaeger)?
+    private final boolean[] jaeger;
+    // Das Hoechstalter jeder Art und um wie viel ihr Futter-Level je
+    // Schritt sinkt, fuer die Massenphasen
+    private final int[] maxAlter;
+    private final int[] hunger;
+
+    /**
+     * Erzeuge ein Simulationsfeld mit der gegebenen Groesse.
+     * @param tiefe die Tiefe des Feldes (muss groesser als Null sein).
+     * @param breite die Breite des Feldes (muss groesser als Null sein).
+     */
+    public KompaktSimulator(int tiefe, int breite)
+    {
+        this(tiefe, breite, new Random().nextLong());
+    }
+
+    /**
+     * Erzeuge ein Simulationsfeld mit der gegebenen Groesse und Saat.
+     * @param tiefe die Tiefe des Feldes (muss groesser als Null sein).
+     * @param breite die Breite des Feldes (muss groesser als Null sein).
+     * @param saat die Saat fuer alle Zufallszahlen der Simulation.
+     */
+    public KompaktSimulator(int tiefe, int breite, long saat)
+    {
+        this(tiefe, breite, saat, Parameter.STANDARD);
+    }
+
+    /**
+     * Erzeuge ein Simulationsfeld mit der gegebenen Groesse, Saat und
+     * eigenen Eigenschaften der Tierarten.
+     * @param tiefe die Tiefe des Feldes (muss groesser als Null sein).
+     * @param breite die Breite des Feldes (muss groesser als Null sein).
+     * @param saat die Saat fuer alle Zufallszahlen der Simulation.
+     * @param parameter die Eigenschaften der Tierarten.
+     */
+    public KompaktSimulator(int tiefe, int breite, long saat, Parameter parameter)
+    {
+        if(breite <= 0 || tiefe <= 0) {
+            throw new IllegalArgumentException("Abmessungen muessen groesser als Null sein.");
+        }
+        if(parameter.gibMaxSichtweite() > 1) {
+            throw new IllegalArgumentException("Der KompaktSimulator kennt keine Sichtweite ueber 1.");
+        }
+        this.tiefe = tiefe;
+        this.breite = breite;
+        bestand = new Tierbestand();
+        feld = new Gitter(tiefe * breite);
+        naechstesFeld = new Gitter(tiefe * breite);
+        this.saat = saat;
+        arten = new Artparameter[Tierart.ANZAHL];
+        jaeger = new boolean[Tierart.ANZAHL];
+        maxAlter = new int[Tierart.ANZAHL];
+        hunger = new int[Tierart.ANZAHL];
+        for(int art = 0; art < Tierart.ANZAHL; art++) {
+            arten[art] = parameter.gib(art);
+            jaeger[art] = Tierart.istJaeger(art);
+            maxAlter[art] = arten[art].gibMaxAlter();
+            hunger[art] = jaeger[art] ? 1 : 0;
+        }
+        rand = new Zufall(saat);
+        zuruecksetzen();
+    }
+
+    /**
+     * Fuehre vom aktuellen Zustand aus die angegebene Anzahl an
+     * Simulationsschritten durch.
+     * Brich vorzeitig ab, wenn die Simulation nicht mehr aktiv ist.
+     * @param schritte Anzahl der zu simulierenden Schritte.
+     */
+    public void simuliere(int schritte)
+    {
+        for(int schritt = 1; schritt <= schritte && istAktiv(); schritt++) {
+            simuliereEinenSchritt();
+        }
+    }
+
+    /**
+     * Fuehre einen einzelnen Simulationsschritt aus. Die Tiere agieren
+     * in derselben Reihenfolge und nach denselben Regeln wie
+     * Hase.agiere und Fuchs.agiere.
+     */
+    public void simuliereEinenSchritt()
+    {
+        schritt++;
+        rand.setSeed(Zufall.ableiten(saat, schritt, 0));
+        // Neugeborene werden hinten angefuegt und agieren erst im
+        // naechsten Schritt.
+        int anzahl = bestand.gibAnzahl();
+        if(massenphasen != null) {
+            bestand.altere(massenphasen, maxAlter, hunger);
+        }
+        for(int tier = 0; tier < anzahl; tier++) {
+            agiere(tier);
+            // Tote Tiere aus der Simulation entfernen.
+            if(!bestand.istLebendig(tier)) {
+                bestand.entferne(tier);
+            }
+        }
+        bestand.verdichte(naechstesFeld.tiere);
+
+        // feld und naechstesFeld am Ende des Schritts austauschen.
+        Gitter temp = feld;
+        feld = naechstesFeld;
+        naechstesFeld = temp;
+        naechstesFeld.raeumen();
+    }
+
+    /**
+     * Setze die Simulation an den Anfang zurueck.
+     */
+    public void zuruecksetzen()
+    {
+        schritt = 0;
+        bestand.leeren();
+        feld.raeumen();
+        naechstesFeld.raeumen();
+        bevoelkere();
+    }
+
+    /**
+     * Lege fest, ob Alter und Hunger Tier fuer Tier in agiere erhoeht
+     * werden oder fuer alle Tiere zu Beginn des Schrittes in einem
+     * Durchlauf ueber die Arrays des Tierbestands, skalar oder mit der
+     * Vector API (siehe Massenphasen). Der Ablauf ist in allen Faellen
+     * derselbe.
+     * @param massenphasen die Massenphasen, oder null fuer Tier fuer
+     *        Tier (die Voreinstellung).
+     */
+    public void setzeMassenphasen(Massenphasen massenphasen)
+    {
+        this.massenphasen = massenphasen;
+    }
+
+    /**
+     * Lege fest, ob das Feld an seinen Raendern endet oder ein Torus
+     * ist, wie Simulator.setzeTopologie.
+     * @param topologie die neue Topologie.
+     * @throws IllegalArgumentException wenn ein Torus weniger als drei
+     *         Zeilen oder Spalten haette.
+     */
+    public void setzeTopologie(Topologie topologie)
+    {
+        if(topologie == Topologie.TORUS) {
+            if(tiefe < 3 || breite < 3) {
+                throw new IllegalArgumentException("Ein Torus braucht mindestens 3x3 Zellen: "
+                                                   + tiefe + "x" + breite);
+            }
+            zeilenRing = Nachbarschaft.ringtabelle(tiefe);
+            spaltenRing = Nachbarschaft.ringtabelle(breite);
+        }
+        else {
+            zeilenRing = null;
+            spaltenRing = null;
+        }
+    }
+
+    /**
+     * Entscheide, ob die Simulation weiterlaufen soll.
+     * @return true wenn noch mehr als eine Art lebt, wie
+     *         FeldStatistik.istAktiv.
+     */
+    public boolean istAktiv()
+    {
+        int lebendeArten = 0;
+        for(int art = 0; art < Tierart.ANZAHL; art++) {
+            if(gibAnzahl((byte) art) > 0) {
+                lebendeArten++;
+            }
+        }
+        return lebendeArten > 1;
+    }
+
+    /**
+     * Liefere die Anzahl der lebendigen Tiere einer Art.
+     * @param tierart die Nummer der Art (siehe Tierart).
+     * @return die Anzahl der lebendigen Tiere dieser Art.
+     */
+    public int gibAnzahl(byte tierart)
+    {
+        return bestand.gibAnzahlLebende(tierart);
+    }
+
+    /**
+     * Liefere die Saat der Simulation.
+     * @return die Saat, aus der alle Zufallszahlen abgeleitet werden.
+     */
+    public long gibSaat()
+    {
+        return saat;
+    }
+
+    /**
+     * Liefere den aktuellen Schritt der Simulation.
+     * @return die Anzahl der bisher ausgefuehrten Schritte.
+     */
+    public int gibSchritt()
+    {
+        return schritt;
+    }
+
+    /**
+     * Trage fuer jede Zelle die Art des lebenden Tieres darin ein, wie
+     * Feld.kopiereArten: 0 fuer eine leere Zelle, sonst die Nummer der
+     * Art plus 1.
+     * @param arten ein Array mit einem Eintrag je Zelle, Index
+     *        zeile * breite + spalte.
+     */
+    public void kopiereArten(byte[] arten)
+    {
+        Arrays.fill(arten, (byte) 0);
+        for(int i = 0; i < feld.anzahlBelegt; i++) {
+            int zelle = feld.belegt[i];
+            int tier = feld.tiere[zelle];
+            if(tier != LEER && bestand.istLebendig(tier)) {
+                arten[zelle] = (byte) (bestand.gibArt(tier) + 1);
+            }
+        }
+    }
+
+    /**
+     * Simuliere diesen KompaktSimulator und einen Simulator in seinem
+     * sequentiellen Schritt nebeneinander und vergleiche nach jedem
+     * Schritt die Belegung aller Zellen. Beide muessen mit derselben
+     * Saat, Groesse, Topologie und denselben Parametern erzeugt sein
+     * und im selben Schritt stehen.
+     * @param simulator der Simulator zum Vergleich.
+     * @param schritte die Anzahl der Schritte.
+     * @return den ersten Schritt, nach dem die Felder verschieden
+     *         belegt sind, oder -1, wenn sie immer gleich waren.
+     */
+    public int vergleiche(Simulator simulator, int schritte)
+    {
+        Feld anderesFeld = simulator.gibFeld();
+        if(anderesFeld.gibTiefe() != tiefe || anderesFeld.gibBreite() != breite) {
+            throw new IllegalArgumentException("Die Felder sind verschieden gross");
+        }
+        byte[] arten = new byte[tiefe * breite];
+        byte[] andereArten = new byte[tiefe * breite];
+        for(int n = 0; n <= schritte; n++) {
+            if(n > 0) {
+                if(!istAktiv()) {
+                    break;
+                }
+                simuliereEinenSchritt();
+                simulator.simuliereEinenSchritt();
+            }
+            kopiereArten(arten);
+            simulator.gibFeld().kopiereArten(andereArten);
+            if(!Arrays.equals(arten, andereArten)) {
+                return schritt;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Liefere Informationen ueber die Bewohner des Feldes.
+     * @return eine Beschreibung, welche Tiere das Feld bevoelkern.
+     */
+    public String gibBewohnerInfo()
+    {
+        StringBuilder info = new StringBuilder();
+        for(int art = 0; art < Tierart.ANZAHL; art++) {
+            info.append(Tierart.gibName(art)).append(": ")
+                .append(gibAnzahl((byte) art)).append(' ');
+        }
+        return info.toString();
+    }
+
+    /**
+     * Hase.agiere und Fuchs.agiere: das Tier altert, ein Jaeger
+     * hungert, es bekommt Nachwuchs, ein Jaeger frisst ein benachbartes
+     * Beutetier, falls vorhanden, und sonst laeuft es auf eine freie
+     * Nachbarzelle.
+     */
+    private void agiere(int tier)
+    {
+        int art = bestand.gibArt(tier);
+        Artparameter parameter = arten[art];
+        if(massenphasen != null) {
+            if(bestand.istFaellig(tier)) {
+                bestand.setzeGestorben(tier);
+            }
+        }
+        else {
+            bestand.setzeAlter(tier, bestand.gibAlter(tier) + 1);
+            if(bestand.gibAlter(tier) > parameter.gibMaxAlter()) {
+                bestand.setzeGestorben(tier);
+            }
+            if(jaeger[art]) {
+                bestand.setzeFutterLevel(tier, bestand.gibFutterLevel(tier) - 1);
+                if(bestand.gibFutterLevel(tier) <= 0) {
+                    bestand.setzeGestorben(tier);
+                }
+            }
+        }
+        if(bestand.istLebendig(tier)) {
+            int zelle = bestand.gibZelle(tier);
+            int geburten = gebaereNachwuchs(tier, parameter);
+            for(int b = 0; b < geburten; b++) {
+                int ziel = zufaelligeNachbarzelle(zelle);
+                // auf einer besetzten Zelle wird kein Tier geboren
+                if(naechstesFeld.tiere[ziel] == LEER) {
+                    int futterLevel = jaeger[art] ? parameter.gibSaettigung() : 0;
+                    naechstesFeld.setze(ziel, bestand.hinzufuegen((byte) art, 0, futterLevel, ziel));
+                }
+            }
+            // Ein Jaeger bewegt sich in die Richtung, in der er Futter
+            // gefunden hat, sonst zufaellig.
+            int neueZelle = jaeger[art] ? findeNahrung(tier, zelle) : LEER;
+            if(neueZelle == LEER) {
+                neueZelle = freieNachbarzelle(zelle);
+            }
+            // nur in das naechste Feld setzen, wenn eine Zelle frei ist
+            if(neueZelle != LEER) {
+                bestand.setzeZelle(tier, neueZelle);
+                naechstesFeld.setze(neueZelle, tier);
+            }
+            else {
+                // weder Bleiben noch Gehen moeglich - ueberpopulation - kein Platz
+                bestand.setzeGestorben(tier);
+            }
+        }
+    }
+
+    /**
+     * Suche im aktuellen Feld nach lebendiger Beute des Jaegers in den
+     * Nachbarzellen und friss sie. Wie in Fuchs.findeNahrung wird
+     * Beute, die schon gezogen ist, wieder aus dem naechsten Feld
+     * entfernt, und ist die Zelle dort besetzt, zieht der Jaeger auf
+     * eine freie Nachbarzelle.
+     * @return die Zelle mit Nahrung (oder die freie Nachbarzelle),
+     *         oder LEER, wenn keine vorhanden.
+     */
+    private int findeNahrung(int jaeger, int zelle)
+    {
+        int art = bestand.gibArt(jaeger);
+        int zeile = zelle / breite;
+        int spalte = zelle % breite;
+        int reihenfolge = Nachbarschaft.zufaelligeReihenfolge(rand);
+        for(int k = 0; k < Nachbarschaft.ANZAHL; k++) {
+            int nachbar = nachbarzelle(zeile, spalte, reihenfolge, k);
+            if(nachbar == LEER) {
+                continue;
+            }
+            int tier = feld.tiere[nachbar];
+            // entfernte Tiere sind tot; ihre Art wird nicht mehr gefragt
+            if(tier != LEER && bestand.istLebendig(tier)
+               && Tierart.frisst(art, bestand.gibArt(tier))) {
+                bestand.setzeGestorben(tier);
+                bestand.setzeFutterLevel(jaeger, arten[art].gibSaettigung());
+                naechstesFeld.entferne(bestand.gibZelle(tier), tier);
+                if(naechstesFeld.tiere[nachbar] != LEER) {
+                    return freieNachbarzelle(zelle);
+                }
+                return nachbar;
+            }
+        }
+        return LEER;
+    }
+
+    /**
+     * @return die Anzahl der Neugeborenen (kann Null sein).
+     */
+    private int gebaereNachwuchs(int tier, Artparameter parameter)
+    {
+        int geburten = 0;
+        if(bestand.gibAlter(tier) >= parameter.gibGebaerAlter()
+           && rand.nextDouble() <= parameter.gibGebaerWahrscheinlichkeit()) {
+            geburten = rand.nextInt(parameter.gibMaxWurfgroesse()) + 1;
+        }
+        return geburten;
+    }
+
+    /**
+     * Wie Feld.zufaelligeNachbarposition: eine zufaellige Nachbarzelle
+     * oder die Zelle selbst, wenn der Nachbar ausserhalb laege.
+     */
+    private int zufaelligeNachbarzelle(int zelle)
+    {
+        int zeile = zelle / breite;
+        int spalte = zelle % breite;
+        if(zeilenRing != null) {
+            return zeilenRing[zeile + rand.nextInt(3)] * breite
+                   + spaltenRing[spalte + rand.nextInt(3)];
+        }
+        int naechsteZeile = zeile + rand.nextInt(3) - 1;
+        int naechsteSpalte = spalte + rand.nextInt(3) - 1;
+        if(naechsteZeile < 0 || naechsteZeile >= tiefe
+           || naechsteSpalte < 0 || naechsteSpalte >= breite) {
+            return zelle;
+        }
+        return naechsteZeile * breite + naechsteSpalte;
+    }
+
+    /**
+     * Wie Feld.freieNachbarposition, aber im naechsten Feld.
+     * @return eine freie Nachbarzelle, die Zelle selbst, wenn sie frei
+     *         ist, oder LEER.
+     */
+    private int freieNachbarzelle(int zelle)
+    {
+        int zeile = zelle / breite;
+        int spalte = zelle % breite;
+        int reihenfolge = Nachbarschaft.zufaelligeReihenfolge(rand);
+        for(int k = 0; k < Nachbarschaft.ANZAHL; k++) {
+            int nachbar = nachbarzelle(zeile, spalte, reihenfolge, k);
+            if(nachbar != LEER && naechstesFeld.tiere[nachbar] == LEER) {
+                return nachbar;
+            }
+        }
+        if(naechstesFeld.tiere[zelle] == LEER) {
+            return zelle;
+        }
+        return LEER;
+    }
+
+    /**
+     * Wie Feld.nachbarzelle: der k-te Nachbar in der gewaehlten
+     * Reihenfolge, oder LEER, wenn er ausserhalb des Feldes liegt.
+     */
+    private int nachbarzelle(int zeile, int spalte, int reihenfolge, int k)
+    {
+        int richtung = Nachbarschaft.richtung(reihenfolge, k);
+        if(zeilenRing != null) {
+            return zeilenRing[zeile + 1 + Nachbarschaft.ZEILEN_ABWEICHUNG[richtung]] * breite
+                   + spaltenRing[spalte + 1 + Nachbarschaft.SPALTEN_ABWEICHUNG[richtung]];
+        }
+        int naechsteZeile = zeile + Nachbarschaft.ZEILEN_ABWEICHUNG[richtung];
+        int naechsteSpalte = spalte + Nachbarschaft.SPALTEN_ABWEICHUNG[richtung];
+        if(naechsteZeile < 0 || naechsteZeile >= tiefe
+           || naechsteSpalte < 0 || naechsteSpalte >= breite) {
+            return LEER;
+        }
+        return naechsteZeile * breite + naechsteSpalte;
+    }
+
+    /**
+     * Bevoelkere das Feld wie Simulator.bevoelkere und mit denselben
+     * Zufallszahlen wie Hase und Fuchs mit zufaelligem Alter.
+     */
+    private void bevoelkere()
+    {
+        rand.setSeed(Zufall.ableiten(saat, 0, 0));
+        double[] geburt = new double[Tierart.ANZAHL];
+        for(int art = 0; art < Tierart.ANZAHL; art++) {
+            geburt[art] = arten[art].gibStartWahrscheinlichkeit();
+        }
+        for(int zelle = 0; zelle < tiefe * breite; zelle++) {
+            int art = Tierart.waehleStartart(rand, geburt);
+            if(art >= 0) {
+                int alter = rand.nextInt(arten[art].gibMaxAlter());
+                int futterLevel = jaeger[art] ? rand.nextInt(arten[art].gibSaettigung()) : 0;
+                bestand.hinzufuegen((byte) art, alter, futterLevel, zelle);
+            }
+            // ansonsten die Zelle leer lassen
+        }
+        bestand.mischen(rand);
+        for(int tier = 0; tier < bestand.gibAnzahl(); tier++) {
+            feld.setze(bestand.gibZelle(tier), tier);
+        }
+    }
+
+    /**
+     * Ein Feld als Array (Zelle -> Tierindex), das wie Feld die
+     * belegten Zellen vermerkt, damit raeumen nur sie leeren muss.
+     */
+    private static class Gitter
+    {
+        private final int[] tiere;
+        private int[] belegt;
+        private int anzahlBelegt;
+
+        Gitter(int zellen)
+        {
+            tiere = new int[zellen];
+            Arrays.fill(tiere, LEER);
+            belegt = new int[Math.min(64, zellen)];
+        }
+
+        /**
+         * Trage ein Tier in eine Zelle ein.
+         */
+        void setze(int zelle, int tier)
+        {
+            if(tiere[zelle] == LEER) {
+                if(anzahlBelegt == belegt.length) {
+                    // nach entferne kann eine Zelle mehrmals vermerkt sein
+                    belegt = Arrays.copyOf(belegt, Math.max(Math.min(belegt.length * 2, tiere.length),
+                                                            belegt.length + 1));
+                }
+                belegt[anzahlBelegt++] = zelle;
+            }
+            tiere[zelle] = tier;
+        }
+
+        /**
+         * Leere eine Zelle, wenn das Tier darin steht.
+         */
+        void entferne(int zelle, int tier)
+        {
+            if(tiere[zelle] == tier) {
+                tiere[zelle] = LEER;
+            }
+        }
+
+        /**
+         * Leere alle belegten Zellen.
+         */
+        void raeumen()
+        {
+            if(anzahlBelegt > tiere.length / 4) {
+                Arrays.fill(tiere, LEER);
+            }
+            else {
+                for(int i = 0; i < anzahlBelegt; i++) {
+                    tiere[belegt[i]] = LEER;
+                }
+            }
+            anzahlBelegt = 0;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package simulation;
+
+/**
+ * Das Ergebnis eines Laufes in einem Ensemble: mit welcher Saat er
+ * lief, wie viele Schritte er schaffte, wie viele Tiere jeder Art am
+ * Ende lebten und wie lange er dauerte.
+ *
+ * @author marc
+ */
+public class Laufergebnis
+{
+    private final int lauf;
+    private final long saat;
+    private final int schritte;
+    private final int[] anzahlen;
+    private final long dauer;
+
+    /**
+     * Halte das Ergebnis eines beendeten Simulators fest.
+     * @param lauf die Nummer des Laufes im Ensemble.
+     * @param simulator der Simulator nach dem Lauf.
+     * @param dauer die Dauer des Laufes in Nanosekunden.
+     */
+    Laufergebnis(int lauf, Simulator simulator, long dauer)
+    {
+        this.lauf = lauf;
+        this.saat = simulator.gibSaat();
+        this.schritte = simulator.gibSchritt();
+        this.dauer = dauer;
+        anzahlen = new int[Tierart.ANZAHL];
+        for(int art = 0; art < Tierart.ANZAHL; art++) {
+            anzahlen[art] = simulator.gibAnzahl(art);
+        }
+    }
+
+    /**
+     * @return die Nummer des Laufes, von 0 an.
+     */
+    public int gibLauf()
+    {
+        return lauf;
+    }
+
+    public long gibSaat()
+    {
+        return saat;
+    }
+
+    /**
+     * @return die Anzahl der Schritte; weniger als verlangt, wenn eine
+     *         Art vorher ausgestorben ist.
+     */
+    public int gibSchritte()
+    {
+        return schritte;
+    }
+
+    /**
+     * @param art die Nummer der Art (siehe Tierart).
+     * @return die Anzahl der lebenden Tiere dieser Art am Ende.
+     */
+    public int gibAnzahl(int art)
+    {
+        return anzahlen[art];
+    }
+
+    /**
+     * @return die Dauer des Laufes in Nanosekunden.
+     */
+    public long gibDauer()
+    {
+        return dauer;
+    }
+}
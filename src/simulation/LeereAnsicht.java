@@ -0,0 +1,27 @@
+package simulation;
+
+import java.awt.Color;
+
+/**
+ * Eine Ansicht, die nichts anzeigt. Sie wird fuer Laeufe ohne
+ * Bildschirm benutzt (etwa mit -Djava.awt.headless=true), bei denen
+ * nur das Ergebnis der Simulation interessiert.
+ * 
+ * @author marc
+ */
+public class LeereAnsicht implements SimulatorAnsicht
+{
+    /**
+     * Farben werden nicht benoetigt und ignoriert.
+     */
+    public void setzeFarbe(Class<? extends Tier> tierklasse, Color farbe)
+    {
+    }
+
+    /**
+     * Es wird nichts angezeigt.
+     */
+    public void zeigeStatus(int schritt, Feld feld, FeldStatistik stats)
+    {
+    }
+}
@@ -0,0 +1,109 @@
+package simulation;
+
+/**
+ * Die Teile eines Schrittes, die fuer alle Tiere eines Tierbestands in
+ * einem Durchlauf ueber die Arrays ausgefuehrt werden koennen statt
+ * Tier fuer Tier in agiere (siehe KompaktSimulator.setzeMassenphasen).
+ *
+ * skalar() ist eine einfache Schleife. vektor() rechnet mit der Vector
+ * API (jdk.incubator.vector) mehrere Tiere in einer Anweisung. Die
+ * Vector API ist ein Inkubator-Modul: die Klasse VektorMassenphasen
+ * liegt deshalb in src-vektor, das nur ab Java 16 uebersetzt wird, und
+ * die JVM muss mit --add-modules jdk.incubator.vector gestartet werden.
+ * Fehlt eins davon, liefert vektor() die skalare Variante.
+ *
+ * @author marc
+ */
+public abstract class Massenphasen
+{
+    private static final Massenphasen SKALAR = new Massenphasen() {
+        public void altere(byte[] art, int[] alter, int[] futterLevel, boolean[] faellig,
+                           int anzahl, int[] maxAlter, int[] hunger)
+        {
+            altere(art, alter, futterLevel, faellig, 0, anzahl, maxAlter, hunger);
+        }
+
+        public String gibName()
+        {
+            return "skalar";
+        }
+    };
+
+    /**
+     * @return die skalare Variante, die es immer gibt.
+     */
+    public static Massenphasen skalar()
+    {
+        return SKALAR;
+    }
+
+    /**
+     * @return die Variante mit der Vector API, oder die skalare, wenn
+     *         die Vector API zur Laufzeit nicht vorhanden ist.
+     */
+    public static Massenphasen vektor()
+    {
+        return Vektor.VARIANTE;
+    }
+
+    /**
+     * Lasse alle Tiere um einen Schritt altern und die Jaeger hungern.
+     * Ob ein Tier daran stirbt, wird nur in faellig vermerkt: Sterben
+     * muss es erst, wenn es agiert, denn ein Jaeger, der vorher agiert,
+     * kann es bis dahin noch fressen.
+     * @param art die Nummern der Arten der Tiere (siehe Tierart).
+     * @param alter die Alter der Tiere, werden um eins erhoeht.
+     * @param futterLevel die Futter-Level, werden um den Hunger der
+     *        Art verringert.
+     * @param faellig wird fuer jedes Tier gesetzt: ist es zu alt oder
+     *        als Jaeger zu hungrig geworden?
+     * @param anzahl die Anzahl der Tiere.
+     * @param maxAlter das hoechste Alter je Art.
+     * @param hunger um wie viel der Futter-Level je Art und Schritt
+     *        sinkt: 1 fuer Jaeger, 0 fuer alle anderen.
+     */
+    public abstract void altere(byte[] art, int[] alter, int[] futterLevel, boolean[] faellig,
+                                int anzahl, int[] maxAlter, int[] hunger);
+
+    /**
+     * @return "skalar" oder "vektor".
+     */
+    public abstract String gibName();
+
+    /**
+     * altere fuer die Tiere von bis ausschliesslich bis, Tier fuer Tier;
+     * auch fuer den Rest, der fuer einen ganzen Vektor zu kurz ist.
+     */
+    static void altere(byte[] art, int[] alter, int[] futterLevel, boolean[] faellig,
+                       int von, int bis, int[] maxAlter, int[] hunger)
+    {
+        for(int tier = von; tier < bis; tier++) {
+            int tierart = art[tier];
+            int neuesAlter = alter[tier] + 1;
+            int neuerFutterLevel = futterLevel[tier] - hunger[tierart];
+            alter[tier] = neuesAlter;
+            futterLevel[tier] = neuerFutterLevel;
+            faellig[tier] = neuesAlter > maxAlter[tierart]
+                            | hunger[tierart] != 0 & neuerFutterLevel <= 0;
+        }
+    }
+
+    /**
+     * Laedt VektorMassenphasen erst beim ersten Aufruf von vektor().
+     */
+    private static class Vektor
+    {
+        static final Massenphasen VARIANTE = lade();
+
+        private static Massenphasen lade()
+        {
+            try {
+                return (Massenphasen) Class.forName("simulation.VektorMassenphasen").getDeclaredConstructor().newInstance();
+            }
+            catch(ReflectiveOperationException | LinkageError e) {
+                // nicht uebersetzt, zu altes Java oder ohne --add-modules
+                return SKALAR;
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package simulation;
+
+/**
+ * Ein Block von Messpunkten, je einer fuer einen Simulationsschritt.
+ * Ein Messpunkt ist eine Zeile mit festen Spalten: Schritt, Dauer des
+ * Schrittes in Nanosekunden und fuer jede Tierart die Anzahl, die
+ * Geburten, die Tode und die gefressenen Tiere.
+ *
+ * Die Werte liegen zeilenweise in einem einzigen long-Array. Ein Block
+ * wird von der Messreihe gefuellt, an die Messziele uebergeben und
+ * danach wiederverwendet; Messziele duerfen ihn deshalb nicht
+ * aufbewahren.
+ *
+ * @author marc
+ */
+public class Messpunkte
+{
+    // Die festen Spalten.
+    public static final int SCHRITT = 0;
+    public static final int DAUER = 1;
+    // Die Anzahl der Spalten einer Zeile.
+    public static final int SPALTEN = 2 + 4 * Tierart.ANZAHL;
+
+    private final long[] werte;
+    private int zeilen;
+
+    /**
+     * Erzeuge einen leeren Block.
+     * @param kapazitaet die Anzahl der Zeilen, die der Block aufnimmt.
+     */
+    public Messpunkte(int kapazitaet)
+    {
+        werte = new long[kapazitaet * SPALTEN];
+    }
+
+    /**
+     * @param art die Nummer einer Tierart.
+     * @return die Spalte mit der Anzahl der Tiere dieser Art.
+     */
+    public static int anzahl(int art)
+    {
+        return 2 + art;
+    }
+
+    /**
+     * @param art die Nummer einer Tierart.
+     * @return die Spalte mit den Geburten dieser Art.
+     */
+    public static int geburten(int art)
+    {
+        return 2 + Tierart.ANZAHL + art;
+    }
+
+    /**
+     * @param art die Nummer einer Tierart.
+     * @return die Spalte mit den Toden dieser Art.
+     */
+    public static int tode(int art)
+    {
+        return 2 + 2 * Tierart.ANZAHL + art;
+    }
+
+    /**
+     * @param art die Nummer einer Tierart.
+     * @return die Spalte mit den gefressenen Tieren dieser Art.
+     */
+    public static int gefressen(int art)
+    {
+        return 2 + 3 * Tierart.ANZAHL + art;
+    }
+
+    /**
+     * @param spalte die Nummer einer Spalte.
+     * @return einen Namen fuer die Spalte, etwa fuer Kopfzeilen.
+     */
+    public static String gibSpaltenname(int spalte)
+    {
+        if(spalte == SCHRITT) {
+            return "schritt";
+        }
+        if(spalte == DAUER) {
+            return "dauer_ns";
+        }
+        int art = (spalte - 2) % Tierart.ANZAHL;
+        String[] gruppen = { "anzahl", "geburten", "tode", "gefressen" };
+        return gruppen[(spalte - 2) / Tierart.ANZAHL] + "_" + Tierart.gibKurzname(art);
+    }
+
+    /**
+     * Haenge einen Messpunkt fuer den letzten Schritt an.
+     * @param schritt die Nummer des Schrittes.
+     * @param dauer die Dauer des Schrittes in Nanosekunden.
+     * @param stats die Statistik nach dem Schritt.
+     */
+    void erfasse(int schritt, long dauer, FeldStatistik stats)
+    {
+        int zeile = zeilen++ * SPALTEN;
+        werte[zeile + SCHRITT] = schritt;
+        werte[zeile + DAUER] = dauer;
+        for(int art = 0; art < Tierart.ANZAHL; art++) {
+            werte[zeile + anzahl(art)] = stats.gibAnzahl(art);
+            werte[zeile + geburten(art)] = stats.gibGeburten(art);
+            werte[zeile + tode(art)] = stats.gibTode(art);
+            werte[zeile + gefressen(art)] = stats.gibGefressen(art);
+        }
+    }
+
+    /**
+     * @return true wenn keine weitere Zeile in den Block passt.
+     */
+    boolean istVoll()
+    {
+        return zeilen * SPALTEN == werte.length;
+    }
+
+    /**
+     * Entferne alle Zeilen.
+     */
+    void leeren()
+    {
+        zeilen = 0;
+    }
+
+    /**
+     * @return die Anzahl der Zeilen im Block.
+     */
+    public int gibZeilen()
+    {
+        return zeilen;
+    }
+
+    /**
+     * @param zeile die Nummer der Zeile.
+     * @param spalte die Nummer der Spalte.
+     * @return den Wert in dieser Zeile und Spalte.
+     */
+    public long gibWert(int zeile, int spalte)
+    {
+        return werte[zeile * SPALTEN + spalte];
+    }
+}
@@ -0,0 +1,172 @@
+package simulation;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Nimmt nach jedem Simulationsschritt einen Messpunkt auf und gibt die
+ * Messpunkte an ein oder mehrere Messziele weiter.
+ *
+ * Die Messpunkte werden in Bloecken gesammelt. Ein voller Block geht
+ * an einen eigenen Schreibthread, der ihn an alle Messziele uebergibt
+ * und danach zur Wiederverwendung zurueckgibt. Die Simulation wartet
+ * deshalb nie auf Dateien und erzeugt beim Messen keine neuen Objekte.
+ * Nur wenn die Ziele dauerhaft langsamer sind als die Simulation,
+ * wartet sie auf einen freien Block.
+ *
+ * Am Ende muss schliesse aufgerufen werden, sonst gehen die Messpunkte
+ * des letzten Blocks verloren.
+ *
+ * @author marc
+ */
+public class Messreihe
+{
+    // Die Standardanzahl der Messpunkte je Block.
+    private static final int STANDARD_BLOCKGROESSE = 4096;
+    // Die Anzahl der Bloecke, die gleichzeitig unterwegs sein koennen.
+    private static final int BLOECKE = 4;
+    // Markiert das Ende der Messreihe fuer den Schreibthread.
+    private static final Messpunkte ENDE = new Messpunkte(0);
+
+    private final Messziel[] ziele;
+    // Volle Bloecke fuer den Schreibthread
+    private final BlockingQueue<Messpunkte> volle;
+    // Geschriebene Bloecke zur Wiederverwendung
+    private final BlockingQueue<Messpunkte> freie;
+    private final Thread schreiber;
+    // Der Block, der gerade gefuellt wird
+    private Messpunkte aktuell;
+    // Der erste Fehler des Schreibthreads, oder null
+    private volatile IOException fehler;
+
+    /**
+     * Erzeuge eine Messreihe mit der Standardblockgroesse.
+     * @param ziele die Messziele.
+     */
+    public Messreihe(Messziel... ziele)
+    {
+        this(STANDARD_BLOCKGROESSE, ziele);
+    }
+
+    /**
+     * Erzeuge eine Messreihe.
+     * @param blockgroesse die Anzahl der Messpunkte, die gesammelt
+     *        und zusammen weitergegeben werden.
+     * @param ziele die Messziele.
+     */
+    public Messreihe(int blockgroesse, Messziel... ziele)
+    {
+        if(blockgroesse < 1) {
+            throw new IllegalArgumentException("Blockgroesse muss mindestens 1 sein: "
+                                               + blockgroesse);
+        }
+        this.ziele = ziele.clone();
+        volle = new ArrayBlockingQueue<Messpunkte>(BLOECKE + 1);
+        freie = new ArrayBlockingQueue<Messpunkte>(BLOECKE);
+        for(int i = 1; i < BLOECKE; i++) {
+            freie.add(new Messpunkte(blockgroesse));
+        }
+        aktuell = new Messpunkte(blockgroesse);
+
+        schreiber = new Thread(new Runnable() {
+            public void run()
+            {
+                schreibeBloecke();
+            }
+        }, "Messreihe");
+        schreiber.setDaemon(true);
+        schreiber.start();
+    }
+
+    /**
+     * Nimm einen Messpunkt fuer den gerade beendeten Schritt auf.
+     * @param schritt die Nummer des Schrittes.
+     * @param dauer die Dauer des Schrittes in Nanosekunden.
+     * @param stats die Statistik nach dem Schritt.
+     */
+    public void erfasse(int schritt, long dauer, FeldStatistik stats)
+    {
+        aktuell.erfasse(schritt, dauer, stats);
+        if(aktuell.istVoll()) {
+            try {
+                volle.put(aktuell);
+                aktuell = freie.take();
+            }
+            catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Messreihe unterbrochen", e);
+            }
+            aktuell.leeren();
+        }
+    }
+
+    /**
+     * Gib die restlichen Messpunkte weiter, warte, bis alle
+     * geschrieben sind, und schliesse die Messziele.
+     * @throws IOException wenn ein Messziel einen Fehler meldet.
+     */
+    public void schliesse() throws IOException
+    {
+        try {
+            if(aktuell.gibZeilen() > 0) {
+                volle.put(aktuell);
+            }
+            volle.put(ENDE);
+            schreiber.join();
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Messreihe unterbrochen", e);
+        }
+        for(Messziel ziel : ziele) {
+            try {
+                ziel.schliesse();
+            }
+            catch(IOException e) {
+                if(fehler == null) {
+                    fehler = e;
+                }
+            }
+        }
+        if(fehler != null) {
+            throw fehler;
+        }
+    }
+
+    /**
+     * Die Arbeit des Schreibthreads: Bloecke bis zum Ende an die
+     * Messziele geben. Nach einem Fehler werden die Bloecke nur noch
+     * zurueckgegeben, damit die Simulation nicht stehen bleibt.
+     */
+    private void schreibeBloecke()
+    {
+        try {
+            while(true) {
+                Messpunkte block = volle.take();
+                if(block == ENDE) {
+                    return;
+                }
+                if(fehler == null) {
+                    try {
+                        for(Messziel ziel : ziele) {
+                            ziel.schreibe(block);
+                        }
+                    }
+                    catch(IOException e) {
+                        fehler = e;
+                    }
+                    catch(RuntimeException e) {
+                        // sonst endet der Thread, und erfasse wartet
+                        // ewig auf einen freien Block
+                        fehler = new IOException("Messziel fehlgeschlagen", e);
+                    }
+                }
+                freie.put(block);
+            }
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
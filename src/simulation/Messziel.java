@@ -0,0 +1,27 @@
+package simulation;
+
+import java.io.IOException;
+
+/**
+ * Ein Ziel fuer die Messpunkte einer Messreihe, etwa eine Datei oder
+ * ein Puffer im Speicher. Die Methoden werden nur vom Schreibthread
+ * der Messreihe aufgerufen, nie von der Simulation selbst.
+ *
+ * @author marc
+ */
+public interface Messziel
+{
+    /**
+     * Uebernimm einen Block von Messpunkten. Der Block wird danach
+     * wiederverwendet und darf nicht aufbewahrt werden.
+     * @param block die Messpunkte.
+     * @throws IOException wenn sie nicht geschrieben werden koennen.
+     */
+    void schreibe(Messpunkte block) throws IOException;
+
+    /**
+     * Schreibe alles Gepufferte und gib Ressourcen frei.
+     * @throws IOException wenn dabei ein Fehler auftritt.
+     */
+    void schliesse() throws IOException;
+}
@@ -0,0 +1,80 @@
+package simulation;
+
+/**
+ * Eine Momentaufnahme des Feldes fuer die Anzeige: der Schritt, die
+ * Art des Tieres in jeder Zelle und die Beschreibung der Population.
+ *
+ * Die Simulation fuellt eine Momentaufnahme, waehrend die Oberflaeche
+ * eine andere zeichnet; danach werden sie getauscht. Dadurch muss die
+ * Simulation nie auf das Zeichnen warten, und gezeichnet wird ein
+ * Zustand, der sich dabei nicht veraendert.
+ *
+ * @author marc
+ */
+class Momentaufnahme
+{
+    // Die Art je Zelle: 0 fuer leer, sonst Nummer der Art plus 1
+    private final byte[] arten;
+    private int schritt;
+    private String population;
+    // Ist diese Aufnahme neuer als die zuletzt gezeichnete?
+    private boolean neu;
+
+    /**
+     * Erzeuge eine leere Momentaufnahme fuer ein Feld.
+     * @param tiefe die Tiefe des Feldes.
+     * @param breite die Breite des Feldes.
+     */
+    Momentaufnahme(int tiefe, int breite)
+    {
+        arten = new byte[tiefe * breite];
+        population = "";
+    }
+
+    /**
+     * Nimm den aktuellen Zustand auf und markiere die Aufnahme als neu.
+     * @param schritt der aktuelle Schritt.
+     * @param feld das aktuelle Feld.
+     * @param stats die aktuellen Zaehlerstaende.
+     */
+    void erfasse(int schritt, Feld feld, FeldStatistik stats)
+    {
+        this.schritt = schritt;
+        feld.kopiereArten(arten);
+        population = stats.gibBewohnerInfo();
+        neu = true;
+    }
+
+    /**
+     * @return die Arten aller Zellen zeilenweise: 0 fuer eine leere
+     *         Zelle, sonst die Nummer der Art plus 1. Das Array darf
+     *         nicht veraendert werden.
+     */
+    byte[] gibArten()
+    {
+        return arten;
+    }
+
+    int gibSchritt()
+    {
+        return schritt;
+    }
+
+    String gibPopulation()
+    {
+        return population;
+    }
+
+    boolean istNeu()
+    {
+        return neu;
+    }
+
+    /**
+     * Markiere die Aufnahme als gezeichnet.
+     */
+    void gezeichnet()
+    {
+        neu = false;
+    }
+}
@@ -0,0 +1,136 @@
+package simulation;
+
+import java.util.Random;
+
+/**
+ * Vorberechnete Tabellen fuer die acht Nachbarn einer Zelle.
+ * Die Richtungen 0 bis 7 sind ueber ihre Zeilen- und
+ * Spaltenabweichung definiert. Zusaetzlich enthaelt die Klasse alle
+ * 8! Reihenfolgen dieser Richtungen, so dass eine gemischte
+ * Nachbarliste mit einer einzigen Zufallszahl und ohne neue Objekte
+ * durchlaufen werden kann.
+ *
+ * Liegt ein Teil der Nachbarn ausserhalb des Feldes und wird
+ * uebersprungen, bilden die uebrigen Nachbarn wieder eine
+ * gleichverteilte zufaellige Reihenfolge - wie bei Collections.shuffle.
+ *
+ * Fuer Felder ohne Rand (siehe Topologie.TORUS) liefert ringtabelle
+ * die umgebrochenen Zeilen oder Spalten, so dass ein Nachbar ohne
+ * Vergleiche bestimmt werden kann.
+ *
+ * @author marc
+ */
+final class Nachbarschaft
+{
+    // Die Anzahl der Nachbarn einer Zelle.
+    static final int ANZAHL = 8;
+    // Die Abweichung der Zeile und Spalte je Richtung.
+    static final int[] ZEILEN_ABWEICHUNG = { -1, -1, -1, 0, 0, 1, 1, 1 };
+    static final int[] SPALTEN_ABWEICHUNG = { -1, 0, 1, -1, 1, -1, 0, 1 };
+
+    // Die Anzahl der Reihenfolgen (8!).
+    private static final int REIHENFOLGEN = 40320;
+    // Alle Reihenfolgen hintereinander, je ANZAHL Richtungen.
+    private static final byte[] PERMUTATIONEN = erzeugePermutationen();
+
+    private Nachbarschaft()
+    {
+    }
+
+    /**
+     * Waehle eine zufaellige Reihenfolge der Nachbarn.
+     * @param rand der zu benutzende Zufallsgenerator.
+     * @return eine Kennung der Reihenfolge fuer richtung().
+     */
+    static int zufaelligeReihenfolge(Random rand)
+    {
+        return rand.nextInt(REIHENFOLGEN) * ANZAHL;
+    }
+
+    /**
+     * Liefere die k-te Richtung einer Reihenfolge.
+     * @param reihenfolge eine Kennung aus zufaelligeReihenfolge().
+     * @param k die Nummer des Nachbarn (0 bis ANZAHL-1).
+     * @return eine Richtung zwischen 0 und ANZAHL-1.
+     */
+    static int richtung(int reihenfolge, int k)
+    {
+        return PERMUTATIONEN[reihenfolge + k];
+    }
+
+    /**
+     * Erzeuge eine Tabelle der umgebrochenen Koordinaten einer Zeile
+     * oder Spalte des Torus: Eintrag i + 1 ist die Koordinate i, mit
+     * -1 und laenge an den gegenueberliegenden Rand verschoben. Der
+     * Nachbar von i mit der Abweichung a ist damit tabelle[i + 1 + a].
+     * @param laenge die Tiefe oder Breite des Feldes.
+     * @return die Tabelle mit laenge + 2 Eintraegen.
+     */
+    static int[] ringtabelle(int laenge)
+    {
+        return ringtabelle(laenge, 1);
+    }
+
+    /**
+     * Erzeuge eine Tabelle wie ringtabelle(laenge) fuer Abweichungen bis
+     * rand: Eintrag i + rand ist die umgebrochene Koordinate i.
+     * @param laenge die Anzahl der Koordinaten.
+     * @param rand die groesste Abweichung.
+     * @return die Tabelle mit laenge + 2 * rand Eintraegen.
+     */
+    static int[] ringtabelle(int laenge, int rand)
+    {
+        int[] tabelle = new int[laenge + 2 * rand];
+        for(int i = -rand; i < laenge + rand; i++) {
+            tabelle[i + rand] = (i % laenge + laenge) % laenge;
+        }
+        return tabelle;
+    }
+
+    /**
+     * Erzeuge alle Permutationen der Richtungen in lexikographischer
+     * Reihenfolge.
+     */
+    private static byte[] erzeugePermutationen()
+    {
+        byte[] tabelle = new byte[REIHENFOLGEN * ANZAHL];
+        byte[] aktuelle = new byte[ANZAHL];
+        for(int i = 0; i < ANZAHL; i++) {
+            aktuelle[i] = (byte) i;
+        }
+        for(int p = 0; p < REIHENFOLGEN; p++) {
+            System.arraycopy(aktuelle, 0, tabelle, p * ANZAHL, ANZAHL);
+            naechstePermutation(aktuelle);
+        }
+        return tabelle;
+    }
+
+    /**
+     * Bilde die lexikographisch naechste Permutation an Ort und Stelle.
+     */
+    private static void naechstePermutation(byte[] werte)
+    {
+        int i = werte.length - 2;
+        while(i >= 0 && werte[i] >= werte[i + 1]) {
+            i--;
+        }
+        if(i < 0) {
+            return;
+        }
+        int j = werte.length - 1;
+        while(werte[j] <= werte[i]) {
+            j--;
+        }
+        tausche(werte, i, j);
+        for(int links = i + 1, rechts = werte.length - 1; links < rechts; links++, rechts--) {
+            tausche(werte, links, rechts);
+        }
+    }
+
+    private static void tausche(byte[] werte, int a, int b)
+    {
+        byte temp = werte[a];
+        werte[a] = werte[b];
+        werte[b] = temp;
+    }
+}
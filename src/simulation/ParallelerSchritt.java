@@ -0,0 +1,328 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Ein Simulationsschritt, der das Feld in quadratische Kacheln teilt
+ * und die Tiere verschiedener Kacheln parallel agieren laesst.
+ *
+ * Ein Tier schreibt hoechstens zwei Zellen neben seiner Position (eine
+ * gefressene Beute kann schon einen Schritt weiter gezogen sein, siehe
+ * Feld.entferne) und liest hoechstens so weit, wie seine Sichtweite
+ * reicht; die Kacheln muessen mindestens drei Zellen breit und groesser
+ * als die Sichtweite sein (siehe Simulator.setzeParallelitaet). Die Kacheln werden deshalb wie ein
+ * Schachbrett mit vier Farben eingefaerbt und in vier Phasen abgearbeitet: In einer Phase
+ * laufen nur Kacheln einer Farbe, und zwischen zwei solchen Kacheln
+ * liegt immer eine ganze Kachel einer anderen Farbe. Wollen Tiere an
+ * einer Kachelgrenze dieselbe Zelle im naechsten Feld oder denselben
+ * Hasen, gewinnt stets das Tier aus der frueheren Phase, unabhaengig
+ * von der Anzahl der Threads. Innerhalb einer Kachel agieren die Tiere
+ * in der Reihenfolge der Tierliste.
+ *
+ * Auf einem Torus beruehren sich auch die Kacheln an gegenueberliegenden
+ * Raendern. Dort gibt es deshalb in jeder Richtung eine gerade Anzahl
+ * von Kacheln, die dafuer nicht alle gleich gross sind, aber mindestens
+ * so gross wie verlangt; die Farben wechseln sich dann auch ueber den
+ * Rand hinweg ab.
+ *
+ * Jede Kachel zieht ihre Zufallszahlen aus einem eigenen Strom, der
+ * nur von Saat, Schritt und Kachelnummer abhaengt (siehe
+ * Zufall.ableiten). Mit derselben Saat ergibt sich deshalb bei jeder
+ * Anzahl an Threads genau derselbe Ablauf.
+ *
+ * Nach dem Schritt besteht die Tierliste aus den Ueberlebenden und
+ * danach den Neugeborenen, jeweils nach Kacheln geordnet.
+ *
+ * @author marc
+ */
+class ParallelerSchritt
+{
+    // Die Anzahl der Farben (und damit der Phasen) der Kacheln.
+    private static final int FARBEN = 4;
+
+    private final ForkJoinPool pool;
+    private final int tiefe, breite;
+    private final int kachelgroesse;
+    private final boolean torus;
+    private final int kachelZeilen, kachelSpalten;
+    // Die Tiere jeder Kachel zu Beginn des Schrittes
+    private final List<List<Tier>> kacheltiere;
+    // Die ueberlebenden Tiere jeder Kachel
+    private final List<List<Tier>> ueberlebende;
+    // Ein Kontext je Kachel; sein Abschnitt ist die Kachelnummer
+    private final Schrittkontext[] kontexte;
+    // Die Kachelnummern jeder Farbe
+    private final int[][] phasen;
+    // Eine Messung je Kachel, oder null, wenn nicht gemessen wird
+    private Schrittzeiten[] zeiten;
+
+    /**
+     * Bereite parallele Schritte fuer ein Feld vor.
+     * @param tiefe die Tiefe des Feldes.
+     * @param breite die Breite des Feldes.
+     * @param kachelgroesse die Kantenlaenge einer Kachel (mindestens 3).
+     * @param threads die Anzahl der Threads.
+     * @param topologie die Topologie des Feldes.
+     */
+    ParallelerSchritt(int tiefe, int breite, int kachelgroesse, int threads,
+                      Topologie topologie)
+    {
+        if(kachelgroesse < 3) {
+            throw new IllegalArgumentException("Kachelgroesse muss mindestens 3 sein: "
+                                               + kachelgroesse);
+        }
+        this.tiefe = tiefe;
+        this.breite = breite;
+        this.kachelgroesse = kachelgroesse;
+        torus = topologie == Topologie.TORUS;
+        if(torus) {
+            kachelZeilen = geradeAnzahl(tiefe / kachelgroesse);
+            kachelSpalten = geradeAnzahl(breite / kachelgroesse);
+        }
+        else {
+            kachelZeilen = (tiefe + kachelgroesse - 1) / kachelgroesse;
+            kachelSpalten = (breite + kachelgroesse - 1) / kachelgroesse;
+        }
+        int kacheln = kachelZeilen * kachelSpalten;
+
+        pool = new ForkJoinPool(threads);
+        kacheltiere = new ArrayList<List<Tier>>(kacheln);
+        ueberlebende = new ArrayList<List<Tier>>(kacheln);
+        kontexte = new Schrittkontext[kacheln];
+        for(int kachel = 0; kachel < kacheln; kachel++) {
+            kacheltiere.add(new ArrayList<Tier>());
+            ueberlebende.add(new ArrayList<Tier>());
+            kontexte[kachel] = new Schrittkontext(kachel);
+        }
+
+        int[] anzahl = new int[FARBEN];
+        for(int kachel = 0; kachel < kacheln; kachel++) {
+            anzahl[farbe(kachel)]++;
+        }
+        phasen = new int[FARBEN][];
+        for(int farbe = 0; farbe < FARBEN; farbe++) {
+            phasen[farbe] = new int[anzahl[farbe]];
+            anzahl[farbe] = 0;
+        }
+        for(int kachel = 0; kachel < kacheln; kachel++) {
+            int farbe = farbe(kachel);
+            phasen[farbe][anzahl[farbe]++] = kachel;
+        }
+    }
+
+    /**
+     * @return die Anzahl der Kacheln; so viele Abschnitte brauchen
+     *         die Felder (siehe Feld.setzeAbschnitte).
+     */
+    int gibAnzahlKacheln()
+    {
+        return kontexte.length;
+    }
+
+    /**
+     * @return die Anzahl der Threads.
+     */
+    int gibThreads()
+    {
+        return pool.getParallelism();
+    }
+
+    /**
+     * @return die verlangte Kantenlaenge einer Kachel.
+     */
+    int gibKachelgroesse()
+    {
+        return kachelgroesse;
+    }
+
+    /**
+     * Lasse alle Tiere einmal agieren.
+     * @param tiere die Tiere; die Liste wird durch die Tiere nach dem
+     *              Schritt ersetzt.
+     * @param feld das aktuell belegte Feld.
+     * @param naechstesFeld das zu belegende Feld.
+     * @param saat die Saat der Simulation.
+     * @param schritt die Nummer des Schrittes.
+     */
+    void simuliere(List<Tier> tiere, Feld feld, Feld naechstesFeld, long saat, int schritt)
+    {
+        for(List<Tier> liste : kacheltiere) {
+            liste.clear();
+        }
+        for(Tier tier : tiere) {
+            kacheltiere.get(kachel(tier.gibZeile(), tier.gibSpalte())).add(tier);
+        }
+
+        for(int farbe = 0; farbe < FARBEN; farbe++) {
+            int[] phase = phasen[farbe];
+            if(phase.length > 0) {
+                pool.invoke(new Kachelaufgabe(phase, 0, phase.length, feld, naechstesFeld,
+                                              saat, schritt));
+            }
+        }
+
+        tiere.clear();
+        for(List<Tier> liste : ueberlebende) {
+            tiere.addAll(liste);
+        }
+        for(Schrittkontext kontext : kontexte) {
+            tiere.addAll(kontext.gibNeueTiere());
+        }
+    }
+
+    /**
+     * Trage die Geburten und Tode des letzten Schrittes aller Kacheln
+     * in eine Statistik ein.
+     * @param stats die Statistik, deren Zaehler veraendert werden.
+     */
+    void uebertrageZaehler(FeldStatistik stats)
+    {
+        for(Schrittkontext kontext : kontexte) {
+            kontext.uebertrageZaehler(stats);
+        }
+    }
+
+    /**
+     * Lege fest, ob die Zeiten der Tiere in agiere gemessen werden.
+     * Jede Kachel misst dann in einer eigenen Schrittzeiten-Messung.
+     * @param messen soll gemessen werden?
+     */
+    void setzeZeitmessung(boolean messen)
+    {
+        if(!messen) {
+            zeiten = null;
+        }
+        else if(zeiten == null) {
+            zeiten = new Schrittzeiten[kontexte.length];
+            for(int kachel = 0; kachel < zeiten.length; kachel++) {
+                zeiten[kachel] = new Schrittzeiten();
+            }
+        }
+    }
+
+    /**
+     * Zaehle die Zeiten des letzten Schrittes aller Kacheln zu einer
+     * Messung hinzu; die Zeiten der Arten sind die Summe ueber alle
+     * Threads.
+     * @param ziel die Messung, die die Zeiten erhaelt.
+     */
+    void uebertrageZeiten(Schrittzeiten ziel)
+    {
+        if(zeiten != null) {
+            for(Schrittzeiten kachelzeiten : zeiten) {
+                ziel.uebernimm(kachelzeiten);
+            }
+        }
+    }
+
+    /**
+     * Beende die Threads.
+     */
+    void beenden()
+    {
+        pool.shutdown();
+    }
+
+    /**
+     * Lasse die Tiere einer Kachel agieren.
+     */
+    private void agiere(int kachel, Feld feld, Feld naechstesFeld, long saat, int schritt)
+    {
+        Schrittkontext kontext = kontexte[kachel];
+        kontext.beginneSchritt(feld, naechstesFeld, Zufall.ableiten(saat, schritt, kachel));
+        List<Tier> tiere = kacheltiere.get(kachel);
+        List<Tier> lebende = ueberlebende.get(kachel);
+        lebende.clear();
+        Schrittzeiten messung = zeiten != null ? zeiten[kachel] : null;
+        for(int i = 0; i < tiere.size(); i++) {
+            Tier tier = tiere.get(i);
+            boolean lebteVorher = tier.istLebendig();
+            if(messung == null) {
+                tier.agiere(kontext);
+            }
+            else {
+                messung.agiere(tier, kontext);
+            }
+            if(tier.istLebendig()) {
+                lebende.add(tier);
+            }
+            else if(lebteVorher) {
+                kontext.gestorben(tier);
+            }
+        }
+    }
+
+    /**
+     * @return die Nummer der Kachel, in der eine Zelle liegt.
+     */
+    private int kachel(int zeile, int spalte)
+    {
+        if(torus) {
+            return (int) ((long) zeile * kachelZeilen / tiefe) * kachelSpalten
+                   + (int) ((long) spalte * kachelSpalten / breite);
+        }
+        return (zeile / kachelgroesse) * kachelSpalten + spalte / kachelgroesse;
+    }
+
+    /**
+     * @return die groesste gerade Anzahl von Kacheln bis hoechstens
+     *         anzahl, oder 1, wenn nur eine Kachel Platz hat. Eine
+     *         einzelne Kachel grenzt ueber den Rand nur an sich selbst.
+     */
+    private static int geradeAnzahl(int anzahl)
+    {
+        return anzahl < 2 ? 1 : anzahl & ~1;
+    }
+
+    /**
+     * @return die Farbe einer Kachel (0 bis FARBEN-1).
+     */
+    private int farbe(int kachel)
+    {
+        int kachelZeile = kachel / kachelSpalten;
+        int kachelSpalte = kachel % kachelSpalten;
+        return (kachelZeile % 2) * 2 + kachelSpalte % 2;
+    }
+
+    /**
+     * Bearbeitet einen Bereich der Kacheln einer Phase und teilt ihn
+     * dazu so lange, bis jede Aufgabe nur noch eine Kachel hat.
+     */
+    private class Kachelaufgabe extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] phase;
+        private final int von, bis;
+        private final Feld feld, naechstesFeld;
+        private final long saat;
+        private final int schritt;
+
+        Kachelaufgabe(int[] phase, int von, int bis, Feld feld, Feld naechstesFeld,
+                      long saat, int schritt)
+        {
+            this.phase = phase;
+            this.von = von;
+            this.bis = bis;
+            this.feld = feld;
+            this.naechstesFeld = naechstesFeld;
+            this.saat = saat;
+            this.schritt = schritt;
+        }
+
+        protected void compute()
+        {
+            if(bis - von == 1) {
+                agiere(phase[von], feld, naechstesFeld, saat, schritt);
+            }
+            else {
+                int mitte = (von + bis) >>> 1;
+                invokeAll(new Kachelaufgabe(phase, von, mitte, feld, naechstesFeld, saat, schritt),
+                          new Kachelaufgabe(phase, mitte, bis, feld, naechstesFeld, saat, schritt));
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package simulation;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Die Artparameter aller Tierarten einer Simulation. Parameter sind
+ * unveraenderlich; mit und lade liefern jeweils neue Parameter.
+ *
+ * Eine Parameterdatei ist eine Properties-Datei mit Schluesseln der
+ * Form art.eigenschaft, etwa
+ * <pre>
+ *   hase.maxalter = 60
+ *   fuchs.saettigung = 6
+ * </pre>
+ * Nicht angegebene Eigenschaften behalten ihren Standardwert.
+ *
+ * @author marc
+ */
+public final class Parameter
+{
+    /** Die Parameter, mit denen die Simulation schon immer lief. */
+    public static final Parameter STANDARD = new Parameter(standardparameter());
+
+    // Die Artparameter, Index ist die Nummer der Art
+    private final Artparameter[] arten;
+
+    private Parameter(Artparameter[] arten)
+    {
+        for(int art = 0; art < Tierart.ANZAHL; art++) {
+            // ein Jaeger startet mit einem Futter-Level unter seiner Saettigung
+            if(Tierart.istJaeger(art) && arten[art].gibSaettigung() < 1) {
+                throw new IllegalArgumentException(Tierart.gibKurzname(art)
+                                                   + " jagt und braucht eine Saettigung von mindestens 1");
+            }
+        }
+        this.arten = arten;
+    }
+
+    /**
+     * @param art die Nummer der Art (siehe Tierart).
+     * @return die Parameter dieser Art.
+     */
+    public Artparameter gib(int art)
+    {
+        return arten[art];
+    }
+
+    /**
+     * @return die Wahrscheinlichkeit je Zelle beim Bevoelkern fuer
+     *         jede Art, Index ist die Nummer der Art.
+     */
+    public double[] gibStartWahrscheinlichkeiten()
+    {
+        double[] wahrscheinlichkeiten = new double[arten.length];
+        for(int art = 0; art < arten.length; art++) {
+            wahrscheinlichkeiten[art] = arten[art].gibStartWahrscheinlichkeit();
+        }
+        return wahrscheinlichkeiten;
+    }
+
+    /**
+     * @return die groesste Sichtweite aller Arten.
+     */
+    public int gibMaxSichtweite()
+    {
+        int max = 1;
+        for(Artparameter art : arten) {
+            max = Math.max(max, art.gibSichtweite());
+        }
+        return max;
+    }
+
+    /**
+     * Liefere eine Kopie mit einer geaenderten Eigenschaft.
+     * @param zuweisung eine Zuweisung der Form art.eigenschaft=wert,
+     *        etwa "hase.maxalter=60".
+     * @return die geaenderten Parameter.
+     * @throws IllegalArgumentException bei einer ungueltigen Zuweisung.
+     */
+    public Parameter mit(String zuweisung)
+    {
+        int gleich = zuweisung.indexOf('=');
+        if(gleich < 0) {
+            throw new IllegalArgumentException("Erwartet art.eigenschaft=wert: " + zuweisung);
+        }
+        return mit(zuweisung.substring(0, gleich).trim(), zuweisung.substring(gleich + 1));
+    }
+
+    /**
+     * Liefere eine Kopie mit einer geaenderten Eigenschaft.
+     * @param schluessel der Schluessel der Form art.eigenschaft.
+     * @param wert der neue Wert als Text.
+     * @return die geaenderten Parameter.
+     * @throws IllegalArgumentException bei einem ungueltigen Schluessel
+     *         oder Wert.
+     */
+    public Parameter mit(String schluessel, String wert)
+    {
+        int punkt = schluessel.indexOf('.');
+        int art = punkt < 0 ? -1 : gibArt(schluessel.substring(0, punkt));
+        if(art < 0) {
+            throw new IllegalArgumentException("Unbekannte Art in " + schluessel);
+        }
+        Artparameter[] neu = arten.clone();
+        neu[art] = arten[art].mit(schluessel.substring(punkt + 1).toLowerCase(), wert);
+        return new Parameter(neu);
+    }
+
+    /**
+     * Liefere eine Kopie mit allen Eigenschaften aus einer Datei.
+     * @param datei die Parameterdatei.
+     * @return die geaenderten Parameter.
+     * @throws IOException wenn die Datei nicht gelesen werden kann.
+     * @throws IllegalArgumentException bei einem ungueltigen Eintrag.
+     */
+    public Parameter lade(File datei) throws IOException
+    {
+        Properties eintraege = new Properties();
+        try (InputStream ein = new FileInputStream(datei)) {
+            eintraege.load(ein);
+        }
+        Parameter parameter = this;
+        for(String schluessel : eintraege.stringPropertyNames()) {
+            parameter = parameter.mit(schluessel, eintraege.getProperty(schluessel));
+        }
+        return parameter;
+    }
+
+    /**
+     * Liefere alle Eigenschaften als Zuweisungen, etwa um die Parameter
+     * an einen anderen Prozess zu schicken. Mit mit auf STANDARD
+     * angewandt, ergeben sie wieder diese Parameter.
+     * @return die Zuweisungen der Form art.eigenschaft=wert.
+     */
+    public String[] gibZuweisungen()
+    {
+        String[] namen = Artparameter.gibNamen();
+        String[] zuweisungen = new String[Tierart.ANZAHL * namen.length];
+        for(int art = 0; art < Tierart.ANZAHL; art++) {
+            String[] werte = arten[art].gibWerte();
+            for(int i = 0; i < namen.length; i++) {
+                zuweisungen[art * namen.length + i] = Tierart.gibKurzname(art) + "."
+                                                      + namen[i] + "=" + werte[i];
+            }
+        }
+        return zuweisungen;
+    }
+
+    public String toString()
+    {
+        StringBuilder text = new StringBuilder();
+        for(int art = 0; art < Tierart.ANZAHL; art++) {
+            text.append(Tierart.gibKurzname(art)).append(": ").append(arten[art]).append('\n');
+        }
+        return text.toString();
+    }
+
+    private static Artparameter[] standardparameter()
+    {
+        Artparameter[] arten = new Artparameter[Tierart.ANZAHL];
+        for(int art = 0; art < Tierart.ANZAHL; art++) {
+            arten[art] = Tierart.gibStandardparameter(art);
+        }
+        return arten;
+    }
+
+    /**
+     * @return die Nummer der Art mit diesem Kurznamen, ohne Beachtung
+     *         der Gross- und Kleinschreibung, oder -1.
+     */
+    private static int gibArt(String name)
+    {
+        for(int art = 0; art < Tierart.ANZAHL; art++) {
+            if(Tierart.gibKurzname(art).equalsIgnoreCase(name.trim())) {
+                return art;
+            }
+        }
+        return -1;
+    }
+}
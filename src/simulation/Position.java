@@ -9,6 +9,9 @@ package simulation;
  */
 public class Position
 {
+    // Markierung fuer eine fehlende Koordinate (siehe packe).
+    public static final long KEINE = -1L;
+
     // Zeilen- und Spaltenposition.
     private int zeile;
     private int spalte;
@@ -24,6 +27,44 @@ public class Position
         this.spalte = spalte;
     }
     
+    /**
+     * Repraesentiere eine gepackte Koordinate.
+     * @param koordinate die Koordinate, siehe packe.
+     */
+    public Position(long koordinate)
+    {
+        this(zeileVon(koordinate), spalteVon(koordinate));
+    }
+    
+    /**
+     * Packe Zeile und Spalte in einen long-Wert: die Zeile in die
+     * oberen, die Spalte in die unteren 32 Bits. So kann eine Position
+     * ohne ein Position-Objekt gespeichert und weitergegeben werden.
+     * @param zeile die Zeile (nicht negativ).
+     * @param spalte die Spalte (nicht negativ).
+     * @return die gepackte Koordinate.
+     */
+    public static long packe(int zeile, int spalte)
+    {
+        return ((long) zeile << 32) | spalte;
+    }
+    
+    /**
+     * @return die Zeile einer gepackten Koordinate.
+     */
+    public static int zeileVon(long koordinate)
+    {
+        return (int) (koordinate >>> 32);
+    }
+    
+    /**
+     * @return die Spalte einer gepackten Koordinate.
+     */
+    public static int spalteVon(long koordinate)
+    {
+        return (int) koordinate;
+    }
+    
     /**
      * Pr�fung auf Datengleichheit.
      */
@@ -49,15 +90,15 @@ public class Position
     }
     
     /**
-     * Benutze die 16 h�herwertigen Bits f�r den den Zeilenwert
-     * und die 16 niederwertigen Bits f�r den Spaltenwert.
-     * Au�er f�r sehr gro�e Felder sollte dies einen eindeutigen
-     * Hashwert f�r jedes Zeile-Spalte-Paar geben.
-     * @return einen Hash-Code f�r diese Position.
+     * Mische die gepackte Koordinate mit einer Fibonacci-Konstante
+     * und benutze die oberen 32 Bits. Anders als (zeile << 16) + spalte
+     * verteilt das auch Positionen in Feldern mit mehr als 65536
+     * Spalten gleichmaessig.
+     * @return einen Hash-Code fuer diese Position.
      */
     public int hashCode()
     {
-        return (zeile << 16) + spalte;
+        return (int) ((gibKoordinate() * 0x9E3779B97F4A7C15L) >>> 32);
     }
     
     /**
@@ -75,4 +116,12 @@ public class Position
     {
         return spalte;
     }
+    
+    /**
+     * @return Die gepackte Koordinate dieser Position (siehe packe).
+     */
+    public long gibKoordinate()
+    {
+        return packe(zeile, spalte);
+    }
 }
@@ -0,0 +1,71 @@
+package simulation;
+
+/**
+ * Haelt die letzten Messpunkte im Speicher, etwa fuer eine Anzeige
+ * des Verlaufs. Aeltere Messpunkte werden ueberschrieben.
+ *
+ * Der Puffer wird vom Schreibthread der Messreihe gefuellt und darf
+ * gleichzeitig von anderen Threads gelesen werden.
+ *
+ * @author marc
+ */
+public class Ringpuffer implements Messziel
+{
+    private final long[] werte;
+    private final int kapazitaet;
+    // Die Anzahl aller je aufgenommenen Zeilen
+    private long aufgenommen;
+
+    /**
+     * Erzeuge einen leeren Puffer.
+     * @param kapazitaet die Anzahl der Messpunkte, die behalten werden
+     *        (mindestens 1).
+     * @throws IllegalArgumentException bei einer Kapazitaet unter 1.
+     */
+    public Ringpuffer(int kapazitaet)
+    {
+        if(kapazitaet < 1) {
+            throw new IllegalArgumentException("Kapazitaet muss mindestens 1 sein: "
+                                               + kapazitaet);
+        }
+        this.kapazitaet = kapazitaet;
+        werte = new long[kapazitaet * Messpunkte.SPALTEN];
+    }
+
+    public synchronized void schreibe(Messpunkte block)
+    {
+        for(int zeile = 0; zeile < block.gibZeilen(); zeile++) {
+            int ziel = (int) (aufgenommen % kapazitaet) * Messpunkte.SPALTEN;
+            for(int spalte = 0; spalte < Messpunkte.SPALTEN; spalte++) {
+                werte[ziel + spalte] = block.gibWert(zeile, spalte);
+            }
+            aufgenommen++;
+        }
+    }
+
+    public void schliesse()
+    {
+    }
+
+    /**
+     * @return die Anzahl der gehaltenen Messpunkte.
+     */
+    public synchronized int gibGroesse()
+    {
+        return (int) Math.min(aufgenommen, kapazitaet);
+    }
+
+    /**
+     * Liefere einen Wert eines gehaltenen Messpunktes.
+     * @param zeile 0 fuer den aeltesten bis gibGroesse()-1 fuer den
+     *        neuesten Messpunkt.
+     * @param spalte die Spalte (siehe Messpunkte).
+     * @return den Wert.
+     */
+    public synchronized long gibWert(int zeile, int spalte)
+    {
+        long erste = aufgenommen - gibGroesse();
+        int index = (int) ((erste + zeile) % kapazitaet);
+        return werte[index * Messpunkte.SPALTEN + spalte];
+    }
+}
@@ -0,0 +1,183 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Alles, was ein Tier braucht, um in einem Simulationsschritt zu
+ * agieren: das aktuelle und das naechste Feld, die Liste fuer
+ * Neugeborene und einen Zufallsgenerator. Ausserdem zaehlt er die
+ * Geburten und Tode jeder Art, damit die FeldStatistik ohne Durchlauf
+ * des Feldes aktuell gehalten werden kann.
+ *
+ * Der Zufallsgenerator erhaelt zu Beginn jedes Schrittes eine neue
+ * Saat. Die Entscheidungen der Tiere haengen deshalb nur von dieser
+ * Saat ab und nicht davon, was in frueheren Schritten gezogen wurde.
+ *
+ * Laeuft ein Schritt parallel, hat jeder Teil des Feldes einen
+ * eigenen Kontext. Dann teilen sich gleichzeitig agierende Tiere
+ * weder den Zufallsgenerator noch die Liste der Neugeborenen, und
+ * ihre Eintraege im naechsten Feld werden in getrennten Abschnitten
+ * vermerkt (siehe Feld.besetze(Tier, int)).
+ *
+ * @author marc
+ */
+public class Schrittkontext
+{
+    // Der Abschnitt des naechsten Feldes, in dem Eintraege vermerkt werden
+    private final int abschnitt;
+    // Die Liste der in diesem Schritt geborenen Tiere
+    private final List<Tier> neueTiere;
+    // Die Geburten, Tode und gefressenen Tiere dieses Schrittes,
+    // Index ist die Art
+    private final int[] geburten;
+    private final int[] tode;
+    private final int[] gefressen;
+    // Der Zufallsgenerator fuer alle Entscheidungen der Tiere
+    private final Zufall rand;
+    // Das aktuell belegte Feld
+    private Feld aktuellesFeld;
+    // Das zu belegende Feld
+    private Feld naechstesFeld;
+    // Das Protokoll, in das Geburten und gefressene Tiere eingetragen
+    // werden, oder null
+    private Schrittprotokoll protokoll;
+
+    /**
+     * Erzeuge einen Kontext.
+     * @param abschnitt der Abschnitt des naechsten Feldes, in dem
+     *        platzierte Tiere vermerkt werden.
+     */
+    public Schrittkontext(int abschnitt)
+    {
+        this.abschnitt = abschnitt;
+        rand = new Zufall(0);
+        neueTiere = new ArrayList<Tier>();
+        geburten = new int[Tierart.ANZAHL];
+        tode = new int[Tierart.ANZAHL];
+        gefressen = new int[Tierart.ANZAHL];
+    }
+
+    /**
+     * Bereite den Kontext fuer einen neuen Schritt vor.
+     * @param aktuellesFeld Das aktuell belegte Feld.
+     * @param naechstesFeld Das zu belegende Feld.
+     * @param saat die Saat des Zufallsgenerators fuer diesen Schritt
+     *        (siehe Zufall.ableiten).
+     */
+    public void beginneSchritt(Feld aktuellesFeld, Feld naechstesFeld, long saat)
+    {
+        rand.setSeed(saat);
+        this.aktuellesFeld = aktuellesFeld;
+        this.naechstesFeld = naechstesFeld;
+        neueTiere.clear();
+        for(int art = 0; art < Tierart.ANZAHL; art++) {
+            geburten[art] = 0;
+            tode[art] = 0;
+            gefressen[art] = 0;
+        }
+    }
+
+    /**
+     * Lege fest, ob Geburten und gefressene Tiere in ein
+     * Schrittprotokoll eingetragen werden.
+     * @param protokoll das Protokoll, oder null.
+     */
+    void setzeProtokoll(Schrittprotokoll protokoll)
+    {
+        this.protokoll = protokoll;
+    }
+
+    /**
+     * @return das aktuell belegte Feld.
+     */
+    public Feld gibAktuellesFeld()
+    {
+        return aktuellesFeld;
+    }
+
+    /**
+     * @return das zu belegende Feld.
+     */
+    public Feld gibNaechstesFeld()
+    {
+        return naechstesFeld;
+    }
+
+    /**
+     * @return den Zufallsgenerator fuer die Tiere.
+     */
+    public Zufall gibZufall()
+    {
+        return rand;
+    }
+
+    /**
+     * Platziere ein Tier im naechsten Feld, wenn seine Position dort
+     * noch frei ist.
+     * @param tier das Tier, das platziert werden soll.
+     * @return true, wenn das Tier platziert wurde; false, wenn die
+     *         Position schon besetzt ist.
+     */
+    public boolean besetze(Tier tier)
+    {
+        return naechstesFeld.besetze(tier, abschnitt);
+    }
+
+    /**
+     * Nimm ein neugeborenes Tier in die Simulation auf.
+     * @param tier das neue Tier.
+     */
+    public void geboren(Tier tier)
+    {
+        neueTiere.add(tier);
+        geburten[tier.gibArt()]++;
+        if(protokoll != null) {
+            protokoll.geboren(tier);
+        }
+    }
+
+    /**
+     * Melde, dass ein Tier in diesem Schritt gestorben ist. Jedes Tier
+     * darf nur einmal gemeldet werden.
+     * @param tier das gestorbene Tier.
+     */
+    public void gestorben(Tier tier)
+    {
+        tode[tier.gibArt()]++;
+    }
+
+    /**
+     * Melde, dass ein Tier gefressen wurde. Es zaehlt als gestorben.
+     * @param beute das gefressene Tier.
+     * @param position die Position der Beute im aktuellen Feld; hat
+     *        sie schon agiert, steht sie selbst schon woanders.
+     */
+    public void gefressen(Tier beute, long position)
+    {
+        gestorben(beute);
+        gefressen[beute.gibArt()]++;
+        if(protokoll != null) {
+            protokoll.gefressen(position);
+        }
+    }
+
+    /**
+     * Trage die Geburten und Tode dieses Schrittes in eine Statistik ein.
+     * @param stats die Statistik, deren Zaehler veraendert werden.
+     */
+    public void uebertrageZaehler(FeldStatistik stats)
+    {
+        for(int art = 0; art < Tierart.ANZAHL; art++) {
+            stats.meldeSchritt(art, geburten[art], tode[art], gefressen[art]);
+        }
+    }
+
+    /**
+     * @return die in diesem Schritt geborenen Tiere.
+     */
+    public List<Tier> gibNeueTiere()
+    {
+        return neueTiere;
+    }
+}
@@ -0,0 +1,457 @@
+package simulation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Zeichnet auf, was in jedem Schritt eines Simulators geschieht, damit
+ * ein Lauf spaeter bis zu einem beliebigen Schritt wiedergegeben
+ * werden kann, ohne ihn neu zu berechnen (siehe Wiedergabe).
+ *
+ * Ein Protokoll ist ein Verzeichnis mit der Datei EREIGNISSE und in
+ * regelmaessigen Abstaenden einer Sicherung des ganzen Zustands, einem
+ * Schluesselbild (siehe gibSchluesselbild). Aufbau der Ereignisse
+ * (alle Zahlen big-endian, wie bei Sicherung):
+ * <pre>
+ *   int  KENNUNG, int VERSION
+ *   int  tiefe, int breite, long saat, int topologie, int abstand
+ *   int  erster Schritt       der Schritt des ersten Schluesselbildes
+ *   je Schritt: int schritt, int laenge, byte ereignisse[laenge]
+ * </pre>
+ * Die Ereignisse eines Schrittes stehen in der Reihenfolge, in der die
+ * Tiere agieren: fuer jedes Tier der Tierliste erst seine Geburten und
+ * die Beute, die es frisst, dann, ob es ueberlebt und wohin es zieht
+ * oder ob es stirbt. Alles andere, etwa das Alter und der Hunger,
+ * folgt daraus. Ein Ereignis ist ein Byte mit seiner Art in den oberen
+ * und der Richtung vom Tier aus in den unteren vier Bits; liegt die
+ * Zelle nicht neben dem Tier, folgen ihre Zeile und Spalte als int.
+ * (Version 1 hatte hier den Index zeile * breite + spalte, der fuer
+ * Felder mit mehr als Integer.MAX_VALUE Zellen ueberlief.)
+ *
+ * Die Ereignisse eines Schrittes werden in einem byte-Array gesammelt,
+ * am Ende des Schrittes in einen direkten Puffer kopiert und, wenn er
+ * halb voll ist, in einem Stueck in den FileChannel geschrieben. Ein
+ * Fehler beim Schreiben haelt die Simulation nicht an; er beendet die
+ * Aufzeichnung und wird von schliesse gemeldet.
+ *
+ * Aufgezeichnet wird nur der sequentielle Schritt des Simulators. Am
+ * Ende muss schliesse aufgerufen werden, sonst fehlen die letzten
+ * Schritte.
+ *
+ * @author marc
+ */
+public class Schrittprotokoll
+{
+    /** Der Name der Datei mit den Ereignissen im Verzeichnis. */
+    public static final String EREIGNISSE = "ereignisse.log";
+
+    // Die Kennung am Anfang der Ereignisse ("FUHP").
+    static final int KENNUNG = 0x46554850;
+    // Die aktuelle Version des Formats.
+    static final int VERSION = 2;
+    // Die Groesse des Kopfes in Bytes.
+    static final int KOPFGROESSE = 7 * 4 + 8;
+    // Die Groesse des Kopfes jedes Schrittes in Bytes.
+    static final int SCHRITTKOPF = 2 * 4;
+
+    // Die Arten der Ereignisse (obere vier Bits).
+    private static final int ZUG = 0x00;
+    private static final int GEBURT = 0x10;
+    private static final int FRESSEN = 0x20;
+    private static final int ART_MASKE = 0xF0;
+    // Zeile und Spalte stehen als int hinter dem Ereignis statt einer Richtung.
+    private static final int ZELLE = 0x09;
+    // Das Tier stirbt; es hat keine Zelle.
+    private static final int TOD = ZUG | 0x0A;
+
+    // Die Standardanzahl der Schritte zwischen zwei Schluesselbildern.
+    private static final int STANDARD_ABSTAND = 1000;
+    // Die Groesse des Puffers; ab der Haelfte wird er geschrieben.
+    private static final int PUFFERGROESSE = 1 << 20;
+
+    private final File verzeichnis;
+    private final int abstand;
+    private final FileChannel kanal;
+    private final ByteBuffer puffer;
+    // Die Ereignisse des aktuellen Schrittes und ihre Laenge
+    private byte[] ereignisse;
+    private int laenge;
+    // Der aktuelle Schritt
+    private int schritt;
+    // Die Abmessungen und die Topologie des aufgezeichneten Feldes
+    private int tiefe, breite;
+    private boolean torus;
+    // Die alte Position des Tieres, das gerade agiert
+    private int zeile, spalte;
+    private boolean begonnen;
+    // Der erste Fehler beim Schreiben, oder null
+    private IOException fehler;
+
+    /**
+     * Oeffne ein Protokoll mit einem Schluesselbild alle 1000 Schritte.
+     * @param verzeichnis das Verzeichnis des Protokolls.
+     * @throws IOException wenn das Verzeichnis nicht angelegt oder die
+     *         Ereignisse nicht geoeffnet werden koennen.
+     */
+    public Schrittprotokoll(File verzeichnis) throws IOException
+    {
+        this(verzeichnis, STANDARD_ABSTAND);
+    }
+
+    /**
+     * Oeffne ein Protokoll. Das Verzeichnis wird bei Bedarf angelegt;
+     * ein frueheres Protokoll darin wird ueberschrieben.
+     * @param verzeichnis das Verzeichnis des Protokolls.
+     * @param abstand die Anzahl der Schritte zwischen zwei
+     *        Schluesselbildern. Je kleiner, desto schneller die
+     *        Wiedergabe und desto groesser das Protokoll.
+     * @throws IOException wenn das Verzeichnis nicht angelegt oder die
+     *         Ereignisse nicht geoeffnet werden koennen.
+     */
+    public Schrittprotokoll(File verzeichnis, int abstand) throws IOException
+    {
+        if(abstand < 1) {
+            throw new IllegalArgumentException("Abstand muss mindestens 1 sein: " + abstand);
+        }
+        verzeichnis.mkdirs();
+        if(!verzeichnis.isDirectory()) {
+            throw new IOException("Kein Verzeichnis: " + verzeichnis);
+        }
+        // Schluesselbilder eines frueheren Protokolls passen nicht mehr
+        for(int schritt : Wiedergabe.gibSchluesselbilder(verzeichnis)) {
+            File datei = gibSchluesselbild(verzeichnis, schritt);
+            if(!datei.delete()) {
+                throw new IOException("Kann nicht geloescht werden: " + datei);
+            }
+        }
+        this.verzeichnis = verzeichnis;
+        this.abstand = abstand;
+        kanal = FileChannel.open(new File(verzeichnis, EREIGNISSE).toPath(),
+                                 StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                 StandardOpenOption.TRUNCATE_EXISTING);
+        puffer = ByteBuffer.allocateDirect(PUFFERGROESSE);
+        ereignisse = new byte[1 << 16];
+    }
+
+    /**
+     * @param verzeichnis das Verzeichnis eines Protokolls.
+     * @param schritt der Schritt.
+     * @return die Datei mit dem Schluesselbild dieses Schrittes.
+     */
+    static File gibSchluesselbild(File verzeichnis, int schritt)
+    {
+        return new File(verzeichnis, "schritt-" + schritt + ".sim");
+    }
+
+    /**
+     * Beginne die Aufzeichnung im aktuellen Zustand eines Simulators:
+     * schreibe den Kopf und das erste Schluesselbild.
+     * @param simulator der aufgezeichnete Simulator.
+     * @throws IOException wenn nicht geschrieben werden kann.
+     */
+    void beginne(Simulator simulator) throws IOException
+    {
+        if(begonnen) {
+            throw new IllegalStateException("Ein Protokoll zeichnet nur einen Simulator auf");
+        }
+        begonnen = true;
+        Feld feld = simulator.gibFeld();
+        tiefe = feld.gibTiefe();
+        breite = feld.gibBreite();
+        torus = feld.gibTopologie() == Topologie.TORUS;
+        puffer.putInt(KENNUNG);
+        puffer.putInt(VERSION);
+        puffer.putInt(tiefe);
+        puffer.putInt(breite);
+        puffer.putLong(simulator.gibSaat());
+        puffer.putInt(feld.gibTopologie().ordinal());
+        puffer.putInt(abstand);
+        puffer.putInt(simulator.gibSchritt());
+        leere();
+        simulator.speichere(gibSchluesselbild(verzeichnis, simulator.gibSchritt()));
+    }
+
+    /**
+     * Beginne die Ereignisse eines Schrittes.
+     * @param schritt die Nummer des Schrittes.
+     */
+    void beginneSchritt(int schritt)
+    {
+        this.schritt = schritt;
+        laenge = 0;
+    }
+
+    /**
+     * Ein Tier beginnt zu agieren.
+     */
+    void beginneTier(Tier tier)
+    {
+        zeile = tier.gibZeile();
+        spalte = tier.gibSpalte();
+    }
+
+    /**
+     * Das agierende Tier hat ein Junges bekommen.
+     * @param tier das neugeborene Tier.
+     */
+    void geboren(Tier tier)
+    {
+        schreibe(GEBURT, tier.gibKoordinate());
+    }
+
+    /**
+     * Das agierende Tier hat ein anderes gefressen.
+     * @param position die Position der Beute im aktuellen Feld.
+     */
+    void gefressen(long position)
+    {
+        schreibe(FRESSEN, position);
+    }
+
+    /**
+     * Das agierende Tier ist fertig: es ueberlebt an seiner neuen
+     * Position, oder es ist gestorben.
+     */
+    void beendeTier(Tier tier)
+    {
+        if(tier.istLebendig()) {
+            schreibe(ZUG, tier.gibKoordinate());
+        }
+        else {
+            if(laenge == ereignisse.length) {
+                vergroessere();
+            }
+            ereignisse[laenge++] = (byte) TOD;
+        }
+    }
+
+    /**
+     * Schliesse die Ereignisse eines Schrittes ab und schreibe ein
+     * Schluesselbild, wenn der Schritt eines bekommt. Der Puffer wird
+     * geschrieben, sobald er halb voll ist.
+     * @param simulator der Simulator nach dem Schritt.
+     */
+    void beendeSchritt(Simulator simulator)
+    {
+        if(fehler != null) {
+            // nach einem Fehler wird nichts mehr geschrieben
+            return;
+        }
+        try {
+            if(puffer.remaining() < SCHRITTKOPF + laenge) {
+                leere();
+            }
+            puffer.putInt(schritt);
+            puffer.putInt(laenge);
+            if(puffer.remaining() >= laenge) {
+                puffer.put(ereignisse, 0, laenge);
+            }
+            else {
+                // zu gross fuer den Puffer: direkt schreiben
+                leere();
+                ByteBuffer gross = ByteBuffer.wrap(ereignisse, 0, laenge);
+                while(gross.hasRemaining()) {
+                    kanal.write(gross);
+                }
+            }
+            if(puffer.position() >= PUFFERGROESSE / 2) {
+                leere();
+            }
+            if(simulator.gibSchritt() % abstand == 0) {
+                // die Ereignisse bis hier gehoeren vor das Schluesselbild
+                leere();
+                simulator.speichere(gibSchluesselbild(verzeichnis, simulator.gibSchritt()));
+            }
+        }
+        catch(IOException e) {
+            fehler = e;
+        }
+    }
+
+    /**
+     * Schreibe die restlichen Ereignisse und schliesse die Datei.
+     * @throws IOException wenn beim Schreiben ein Fehler aufgetreten ist.
+     */
+    public void schliesse() throws IOException
+    {
+        try {
+            if(fehler == null) {
+                leere();
+            }
+        }
+        finally {
+            kanal.close();
+        }
+        if(fehler != null) {
+            throw fehler;
+        }
+    }
+
+    /**
+     * Schreibe ein Ereignis mit einer Zelle, als Richtung vom agierenden
+     * Tier aus, wenn die Zelle daneben liegt.
+     */
+    private void schreibe(int art, long koordinate)
+    {
+        int neueZeile = Position.zeileVon(koordinate);
+        int neueSpalte = Position.spalteVon(koordinate);
+        int dz = neueZeile - zeile;
+        int ds = neueSpalte - spalte;
+        if(torus) {
+            // ueber den Rand ist der Weg kurz
+            if(dz > 1) {
+                dz -= tiefe;
+            }
+            else if(dz < -1) {
+                dz += tiefe;
+            }
+            if(ds > 1) {
+                ds -= breite;
+            }
+            else if(ds < -1) {
+                ds += breite;
+            }
+        }
+        if(laenge + 9 > ereignisse.length) {
+            vergroessere();
+        }
+        if(dz >= -1 && dz <= 1 && ds >= -1 && ds <= 1) {
+            ereignisse[laenge++] = (byte) (art | (dz + 1) * 3 + ds + 1);
+        }
+        else {
+            ereignisse[laenge] = (byte) (art | ZELLE);
+            schreibeInt(laenge + 1, neueZeile);
+            schreibeInt(laenge + 5, neueSpalte);
+            laenge += 9;
+        }
+    }
+
+    /**
+     * Schreibe ein int big-endian an eine Stelle der Ereignisse.
+     */
+    private void schreibeInt(int stelle, int wert)
+    {
+        ereignisse[stelle] = (byte) (wert >>> 24);
+        ereignisse[stelle + 1] = (byte) (wert >>> 16);
+        ereignisse[stelle + 2] = (byte) (wert >>> 8);
+        ereignisse[stelle + 3] = (byte) wert;
+    }
+
+    /**
+     * Fuehre die Ereignisse eines Schrittes aus, wie es die Tiere in
+     * agiere tun: die Tierliste und das Feld sind danach im Zustand
+     * nach dem Schritt, nur sind die Felder noch nicht getauscht.
+     * @param ereignisse die Ereignisse eines Schrittes.
+     * @param tiere die Tierliste vor dem Schritt.
+     * @param feld das Feld vor dem Schritt.
+     * @param naechstesFeld das leere Feld, das belegt wird.
+     * @param parameter die Eigenschaften der Tierarten.
+     * @throws IOException wenn die Ereignisse nicht zur Tierliste passen.
+     */
+    static void spieleAb(ByteBuffer ereignisse, List<Tier> tiere, Feld feld,
+                         Feld naechstesFeld, Parameter parameter) throws IOException
+    {
+        int tiefe = feld.gibTiefe();
+        int breite = feld.gibBreite();
+        boolean torus = feld.gibTopologie() == Topologie.TORUS;
+        List<Tier> neueTiere = new ArrayList<Tier>();
+        int anzahl = tiere.size();
+        int ueberlebende = 0;
+        try {
+            for(int i = 0; i < anzahl; i++) {
+                Tier tier = tiere.get(i);
+                int zeile = tier.gibZeile();
+                int spalte = tier.gibSpalte();
+                // wie zu Beginn von agiere; Hasen haben keinen Futter-Level
+                tier.setzeAlter(tier.gibAlter() + 1);
+                tier.setzeFutterLevel(tier.gibFutterLevel() - 1);
+                int ereignis = ereignisse.get() & 0xFF;
+                while(ereignis != TOD) {
+                    if((ereignis & ~ART_MASKE) > ZELLE || (ereignis & ART_MASKE) > FRESSEN) {
+                        throw new IOException("Unbekanntes Ereignis: " + ereignis);
+                    }
+                    long position;
+                    if((ereignis & ~ART_MASKE) == ZELLE) {
+                        int z = ereignisse.getInt();
+                        int s = ereignisse.getInt();
+                        if(z < 0 || z >= tiefe || s < 0 || s >= breite) {
+                            throw new IOException("Zelle ausserhalb des Feldes: " + z + "," + s);
+                        }
+                        position = Position.packe(z, s);
+                    }
+                    else {
+                        int richtung = ereignis & ~ART_MASKE;
+                        int z = zeile + richtung / 3 - 1;
+                        int s = spalte + richtung % 3 - 1;
+                        if(torus) {
+                            z = (z + tiefe) % tiefe;
+                            s = (s + breite) % breite;
+                        }
+                        position = Position.packe(z, s);
+                    }
+                    if((ereignis & ART_MASKE) == GEBURT) {
+                        Tier neu = Tierart.erzeuge(tier.gibArt(), false, null, parameter);
+                        neu.setzeKoordinate(position);
+                        naechstesFeld.besetze(neu);
+                        neueTiere.add(neu);
+                    }
+                    else if((ereignis & ART_MASKE) == FRESSEN) {
+                        Tier beute = feld.gibTierAn(position);
+                        if(beute == null) {
+                            throw new IOException("Keine Beute an " + new Position(position));
+                        }
+                        beute.setzeGestorben();
+                        naechstesFeld.entferne(beute);
+                        tier.setzeFutterLevel(parameter.gib(tier.gibArt()).gibSaettigung());
+                    }
+                    else {
+                        // das Tier ueberlebt den Schritt
+                        tier.setzeKoordinate(position);
+                        naechstesFeld.besetze(tier);
+                        tiere.set(ueberlebende++, tier);
+                        break;
+                    }
+                    ereignis = ereignisse.get() & 0xFF;
+                }
+                if(ereignis == TOD) {
+                    tier.setzeGestorben();
+                }
+            }
+        }
+        catch(BufferUnderflowException e) {
+            throw new IOException("Zu wenige Ereignisse fuer " + anzahl + " Tiere");
+        }
+        if(ereignisse.hasRemaining()) {
+            throw new IOException("Zu viele Ereignisse fuer " + anzahl + " Tiere");
+        }
+        tiere.subList(ueberlebende, anzahl).clear();
+        tiere.addAll(neueTiere);
+    }
+
+    /**
+     * Schreibe den Inhalt des Puffers in die Datei und leere ihn.
+     */
+    private void leere() throws IOException
+    {
+        puffer.flip();
+        while(puffer.hasRemaining()) {
+            kanal.write(puffer);
+        }
+        puffer.clear();
+    }
+
+    /**
+     * Verdopple das Array fuer die Ereignisse eines Schrittes.
+     */
+    private void vergroessere()
+    {
+        ereignisse = Arrays.copyOf(ereignisse, ereignisse.length * 2);
+    }
+}
@@ -0,0 +1,239 @@
+package simulation;
+
+import java.io.PrintStream;
+
+/**
+ * Misst, wofuer die Zeit eines Simulationsschrittes verbraucht wird:
+ * die Dauer jeder Phase des Schrittes (siehe PHASEN) und die Zeit, die
+ * die Tiere jeder Art in agiere verbringen. Alle Zeiten sind
+ * Nanosekunden, summiert seit dem letzten zuruecksetzen.
+ *
+ * Ein Simulator misst nur, wenn er eine Messung hat (siehe
+ * Simulator.setzeSchrittzeiten); ohne Messung kostet ihn das nur einen
+ * Vergleich je Phase und Tier. Mit Messung kommen je Tier zwei Aufrufe
+ * von System.nanoTime hinzu; die gemessenen Schritte werden dadurch
+ * etwas langsamer.
+ *
+ * Mit einem Berichtsintervall schreibt die Messung alle so viele
+ * Schritte eine Zusammenfassung und beginnt danach von vorn.
+ *
+ * Eine Messung darf nur von einem Thread zugleich benutzt werden. Im
+ * parallelen Schritt misst jede Kachel in einer eigenen Messung, die
+ * danach uebernommen wird; die Zeiten der Arten sind dann die Summe
+ * ueber alle Threads.
+ *
+ * @author marc
+ */
+public class Schrittzeiten
+{
+    // Die Phasen eines Schrittes
+    /** Das Erneuern des Belegungsindex (siehe Feld.erneuereIndex). */
+    public static final int INDEX = 0;
+    /** Alle Tiere agieren lassen. */
+    public static final int TIERE = 1;
+    /** Die Tierliste um die toten Tiere kuerzen (nur sequentiell). */
+    public static final int ENTFERNEN = 2;
+    /** Die Neugeborenen an die Tierliste anhaengen (nur sequentiell). */
+    public static final int NEUE_TIERE = 3;
+    /** Die Felder tauschen und das naechste Feld raeumen. */
+    public static final int RAEUMEN = 4;
+    /** Den Messpunkt an die Messreihe geben. */
+    public static final int MESSREIHE = 5;
+    /** Den Schritt im Schrittprotokoll abschliessen. */
+    public static final int PROTOKOLL = 6;
+    /** Den Zustand in der Ansicht zeigen. */
+    public static final int ANZEIGE = 7;
+    /** Die Anzahl der Phasen. */
+    public static final int PHASEN = 8;
+
+    private static final String[] PHASENNAMEN = {
+        "Index", "Tiere", "Entfernen", "Neue Tiere", "Raeumen", "Messreihe", "Protokoll", "Anzeige"
+    };
+
+    // Nach wie vielen Schritten berichtet wird (0 = nie)
+    private final int berichtsintervall;
+    // Wohin berichtet wird
+    private final PrintStream ausgabe;
+    // Die Zeit je Phase
+    private final long[] phasen;
+    // Die Zeit in agiere und die Anzahl der Aufrufe, Index ist die Art
+    private final long[] agiere;
+    private final long[] aufrufe;
+    // Die gemessenen Schritte und der erste davon
+    private int schritte;
+    private int ersterSchritt;
+
+    /**
+     * Erzeuge eine Messung ohne Bericht; die Zeiten werden nur ueber
+     * die gib-Methoden abgefragt.
+     */
+    public Schrittzeiten()
+    {
+        this(0, null);
+    }
+
+    /**
+     * Erzeuge eine Messung, die regelmaessig berichtet.
+     * @param berichtsintervall die Anzahl der Schritte zwischen zwei
+     *        Berichten; 0 berichtet nie.
+     * @param ausgabe wohin die Berichte geschrieben werden.
+     */
+    public Schrittzeiten(int berichtsintervall, PrintStream ausgabe)
+    {
+        if(berichtsintervall < 0 || (berichtsintervall > 0 && ausgabe == null)) {
+            throw new IllegalArgumentException("Ungueltiger Bericht: alle " + berichtsintervall
+                                               + " Schritte nach " + ausgabe);
+        }
+        this.berichtsintervall = berichtsintervall;
+        this.ausgabe = ausgabe;
+        phasen = new long[PHASEN];
+        agiere = new long[Tierart.ANZAHL];
+        aufrufe = new long[Tierart.ANZAHL];
+    }
+
+    /**
+     * Schliesse eine Phase ab.
+     * @param phase die Phase (siehe PHASEN).
+     * @param beginn der Beginn der Phase (System.nanoTime).
+     * @return das Ende der Phase, zugleich der Beginn der naechsten.
+     */
+    public long erfasse(int phase, long beginn)
+    {
+        long ende = System.nanoTime();
+        phasen[phase] += ende - beginn;
+        return ende;
+    }
+
+    /**
+     * Lasse ein Tier agieren und miss die Zeit dafuer.
+     * @param tier das Tier.
+     * @param kontext der Kontext des Schrittes.
+     */
+    public void agiere(Tier tier, Schrittkontext kontext)
+    {
+        int art = tier.gibArt();
+        long beginn = System.nanoTime();
+        tier.agiere(kontext);
+        agiere[art] += System.nanoTime() - beginn;
+        aufrufe[art]++;
+    }
+
+    /**
+     * Zaehle die Zeiten einer anderen Messung hinzu, etwa die einer
+     * Kachel im parallelen Schritt, und setze diese zurueck.
+     * @param andere die andere Messung.
+     */
+    public void uebernimm(Schrittzeiten andere)
+    {
+        for(int phase = 0; phase < PHASEN; phase++) {
+            phasen[phase] += andere.phasen[phase];
+        }
+        for(int art = 0; art < Tierart.ANZAHL; art++) {
+            agiere[art] += andere.agiere[art];
+            aufrufe[art] += andere.aufrufe[art];
+        }
+        andere.zuruecksetzen();
+    }
+
+    /**
+     * Melde, dass ein Schritt beendet ist. Ist das Berichtsintervall
+     * erreicht, wird die Zusammenfassung geschrieben und die Messung
+     * zurueckgesetzt.
+     * @param schritt die Nummer des Schrittes.
+     */
+    public void schrittBeendet(int schritt)
+    {
+        if(schritte == 0) {
+            ersterSchritt = schritt;
+        }
+        schritte++;
+        if(berichtsintervall > 0 && schritte >= berichtsintervall) {
+            ausgabe.println(gibZusammenfassung());
+            zuruecksetzen();
+        }
+    }
+
+    /**
+     * Vergiss alle gemessenen Zeiten.
+     */
+    public void zuruecksetzen()
+    {
+        for(int phase = 0; phase < PHASEN; phase++) {
+            phasen[phase] = 0;
+        }
+        for(int art = 0; art < Tierart.ANZAHL; art++) {
+            agiere[art] = 0;
+            aufrufe[art] = 0;
+        }
+        schritte = 0;
+    }
+
+    /**
+     * @return die Anzahl der gemessenen Schritte.
+     */
+    public int gibSchritte()
+    {
+        return schritte;
+    }
+
+    /**
+     * @param phase die Phase (siehe PHASEN).
+     * @return die Zeit der Phase in Nanosekunden.
+     */
+    public long gibZeit(int phase)
+    {
+        return phasen[phase];
+    }
+
+    /**
+     * @param art die Nummer der Art.
+     * @return die Zeit, die Tiere der Art in agiere verbracht haben,
+     *         in Nanosekunden.
+     */
+    public long gibAgiereZeit(int art)
+    {
+        return agiere[art];
+    }
+
+    /**
+     * @param art die Nummer der Art.
+     * @return wie oft Tiere der Art agiert haben.
+     */
+    public long gibAgiereAufrufe(int art)
+    {
+        return aufrufe[art];
+    }
+
+    /**
+     * @param phase die Phase (siehe PHASEN).
+     * @return den Namen der Phase.
+     */
+    public static String gibPhasenname(int phase)
+    {
+        return PHASENNAMEN[phase];
+    }
+
+    /**
+     * @return eine Zeile mit den mittleren Zeiten je Schritt in
+     *         Millisekunden und den mittleren Zeiten je Aufruf von
+     *         agiere in Nanosekunden.
+     */
+    public String gibZusammenfassung()
+    {
+        int geteilt = Math.max(schritte, 1);
+        StringBuilder zeile = new StringBuilder();
+        zeile.append("Schritte ").append(ersterSchritt).append('-')
+             .append(ersterSchritt + schritte - 1).append(", ms je Schritt:");
+        for(int phase = 0; phase < PHASEN; phase++) {
+            zeile.append(' ').append(PHASENNAMEN[phase]).append(' ')
+                 .append(String.format("%.3f", phasen[phase] / 1e6 / geteilt));
+        }
+        zeile.append("; agiere:");
+        for(int art = 0; art < Tierart.ANZAHL; art++) {
+            zeile.append(' ').append(Tierart.gibKurzname(art)).append(' ')
+                 .append(String.format("%.3f ms (%d ns je Tier)", agiere[art] / 1e6 / geteilt,
+                                       aufrufe[art] == 0 ? 0 : agiere[art] / aufrufe[art]));
+        }
+        return zeile.toString();
+    }
+}
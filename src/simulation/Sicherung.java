@@ -0,0 +1,333 @@
+package simulation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Schreibt und liest den Zustand eines Simulators in einem kompakten
+ * Binaerformat.
+ *
+ * Aufbau einer Datei (alle Zahlen big-endian):
+ * <pre>
+ *   int  KENNUNG, int VERSION
+ *   int  tiefe, int breite, int schritt, long saat, int anzahl
+ *   int  topologie            Nummer in Topologie (ab Version 2)
+ *   int  duenn                1 fuer ein DuennesFeld, sonst 0 (ab Version 3)
+ *   byte merkmale[anzahl]   Art (Bits 0-5), lebendig (Bit 6), im Feld (Bit 7)
+ *   int  alter[anzahl]
+ *   int  futterLevel[anzahl]  (0 fuer Hasen)
+ *   int  zelle[anzahl]        zeile * breite + spalte
+ * </pre>
+ * Hat das Feld mehr als Integer.MAX_VALUE Zellen, stehen die Zellen
+ * als long in der Datei (ab Version 3); kleinere Felder brauchen dafuer
+ * weiter nur vier Bytes je Tier.
+ * Die Tiere stehen in der Reihenfolge der Tierliste. Die Zellen des
+ * Feldes werden nicht einzeln gesichert: Ein Tier mit dem Merkmal
+ * "im Feld" steht in seiner Zelle, alle anderen Zellen sind leer.
+ * Die Datei waechst deshalb mit der Anzahl der Tiere und nicht mit
+ * der Groesse des Feldes.
+ *
+ * Den Zufallsgenerator muss man nicht sichern: Er erhaelt in jedem
+ * Schritt eine Saat, die nur von der Saat der Simulation und der
+ * Nummer des Schrittes abhaengt (siehe Zufall.ableiten).
+ *
+ * Geschrieben wird ueber einen FileChannel in eine temporaere Datei,
+ * die erst am Ende die alte Sicherung ersetzt. Gelesen wird ueber
+ * Speicherabbildungen der Datei, die fuer sehr grosse Dateien
+ * abschnittsweise angelegt werden.
+ *
+ * @author marc
+ */
+class Sicherung
+{
+    // Die Kennung am Anfang jeder Sicherung ("FUHA").
+    private static final int KENNUNG = 0x46554841;
+    // Die aktuelle Version des Formats.
+    private static final int VERSION = 3;
+    // Die Groesse des Kopfes in Bytes.
+    private static final int KOPFGROESSE = 8 * 4 + 8;
+    // Version 1 hatte noch keine Topologie; das Feld war begrenzt.
+    private static final int KOPFGROESSE_VERSION_1 = 6 * 4 + 8;
+    // Version 2 hatte noch keine Art des Feldes; es war nie duenn.
+    private static final int KOPFGROESSE_VERSION_2 = 7 * 4 + 8;
+    // Die Bytes je Tier ohne die Zelle: merkmale, alter, futterLevel
+    private static final int BYTES_JE_TIER = 1 + 2 * 4;
+
+    // Die Bits der Merkmale eines Tieres.
+    private static final int ART_MASKE = 0x3F;
+    private static final int LEBENDIG = 0x40;
+    private static final int IM_FELD = 0x80;
+
+    // Die Groesse des Puffers beim Schreiben.
+    private static final int PUFFERGROESSE = 1 << 20;
+    // Die hoechste Groesse einer einzelnen Speicherabbildung.
+    private static final int MAX_ABBILDUNG = 1 << 30;
+
+    private Sicherung()
+    {
+    }
+
+    /**
+     * Sichere den Zustand eines Simulators.
+     * @param simulator der zu sichernde Simulator.
+     * @param datei die Datei, die geschrieben oder ersetzt wird.
+     * @throws IOException wenn die Datei nicht geschrieben werden kann.
+     */
+    static void schreibe(Simulator simulator, File datei) throws IOException
+    {
+        List<Tier> tiere = simulator.gibTiere();
+        Feld feld = simulator.gibFeld();
+        int breite = feld.gibBreite();
+        boolean langeZellen = (long) feld.gibTiefe() * breite > Integer.MAX_VALUE;
+        Path ziel = datei.toPath();
+        Path temp = ziel.resolveSibling(ziel.getFileName() + ".tmp");
+
+        try(FileChannel kanal = FileChannel.open(temp, StandardOpenOption.CREATE,
+                                                 StandardOpenOption.WRITE,
+                                                 StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer puffer = ByteBuffer.allocateDirect(PUFFERGROESSE);
+            puffer.putInt(KENNUNG);
+            puffer.putInt(VERSION);
+            puffer.putInt(feld.gibTiefe());
+            puffer.putInt(breite);
+            puffer.putInt(simulator.gibSchritt());
+            puffer.putLong(simulator.gibSaat());
+            puffer.putInt(tiere.size());
+            puffer.putInt(feld.gibTopologie().ordinal());
+            puffer.putInt(feld.istDuenn() ? 1 : 0);
+
+            for(Tier tier : tiere) {
+                if(!puffer.hasRemaining()) {
+                    leere(kanal, puffer);
+                }
+                puffer.put(merkmale(tier, feld));
+            }
+            for(Tier tier : tiere) {
+                if(puffer.remaining() < 4) {
+                    leere(kanal, puffer);
+                }
+                puffer.putInt(tier.gibAlter());
+            }
+            for(Tier tier : tiere) {
+                if(puffer.remaining() < 4) {
+                    leere(kanal, puffer);
+                }
+                puffer.putInt(tier.gibFutterLevel());
+            }
+            for(Tier tier : tiere) {
+                if(puffer.remaining() < 8) {
+                    leere(kanal, puffer);
+                }
+                long zelle = (long) tier.gibZeile() * breite + tier.gibSpalte();
+                if(langeZellen) {
+                    puffer.putLong(zelle);
+                }
+                else {
+                    puffer.putInt((int) zelle);
+                }
+            }
+            leere(kanal, puffer);
+        }
+        Files.move(temp, ziel, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Lade einen gesicherten Simulator.
+     * @param datei die Datei mit der Sicherung.
+     * @param ansicht die Ansicht fuer den Simulator, oder null.
+     * @param parameter die Eigenschaften der Tierarten.
+     * @return einen Simulator im gesicherten Zustand.
+     * @throws IOException wenn die Datei nicht gelesen werden kann
+     *         oder keine gueltige Sicherung enthaelt.
+     */
+    static Simulator lies(File datei, SimulatorAnsicht ansicht, Parameter parameter)
+        throws IOException
+    {
+        try(FileChannel kanal = FileChannel.open(datei.toPath(), StandardOpenOption.READ)) {
+            if(kanal.size() < KOPFGROESSE_VERSION_1) {
+                throw new IOException("Keine Sicherung: " + datei);
+            }
+            MappedByteBuffer kopf = kanal.map(FileChannel.MapMode.READ_ONLY, 0,
+                                              Math.min(kanal.size(), KOPFGROESSE));
+            if(kopf.getInt() != KENNUNG) {
+                throw new IOException("Keine Sicherung: " + datei);
+            }
+            int version = kopf.getInt();
+            if(version < 1 || version > VERSION) {
+                throw new IOException("Version " + version + " der Sicherung wird nicht unterstuetzt");
+            }
+            int tiefe = kopf.getInt();
+            int breite = kopf.getInt();
+            int schritt = kopf.getInt();
+            long saat = kopf.getLong();
+            int anzahl = kopf.getInt();
+            int kopfgroesse = version == 1 ? KOPFGROESSE_VERSION_1
+                              : version == 2 ? KOPFGROESSE_VERSION_2 : KOPFGROESSE;
+            long zellen = (long) tiefe * breite;
+            // erst Version 3 sichert Zellen ueber Integer.MAX_VALUE als long
+            boolean langeZellen = version >= 3 && zellen > Integer.MAX_VALUE;
+            if(tiefe <= 0 || breite <= 0 || anzahl < 0
+               || kanal.size() != kopfgroesse
+                                  + (long) anzahl * (BYTES_JE_TIER + (langeZellen ? 8 : 4))) {
+                throw new IOException("Sicherung ist beschaedigt: " + datei);
+            }
+            Topologie topologie = Topologie.BEGRENZT;
+            if(version != 1) {
+                int nummer = kopf.getInt();
+                if(nummer < 0 || nummer >= Topologie.values().length) {
+                    throw new IOException("Sicherung ist beschaedigt: " + datei);
+                }
+                topologie = Topologie.values()[nummer];
+            }
+            boolean duenn = false;
+            if(version >= 3) {
+                int art = kopf.getInt();
+                if(art != 0 && art != 1) {
+                    throw new IOException("Sicherung ist beschaedigt: " + datei);
+                }
+                duenn = art == 1;
+            }
+            if(!duenn && zellen > Integer.MAX_VALUE) {
+                // ein Array fuer alle Zellen gibt es nur bis Integer.MAX_VALUE
+                throw new IOException("Sicherung ist beschaedigt: " + datei);
+            }
+
+            Simulator simulator = new Simulator(tiefe, breite, ansicht, saat, parameter,
+                                                false, duenn);
+            simulator.setzeTopologie(topologie);
+            List<Tier> tiere = simulator.gibTiere();
+            Leser leser = new Leser(kanal, kopfgroesse);
+            byte[] merkmale = new byte[anzahl];
+            for(int i = 0; i < anzahl; i++) {
+                merkmale[i] = leser.liesByte();
+                tiere.add(erzeuge(merkmale[i] & ART_MASKE, parameter));
+            }
+            for(int i = 0; i < anzahl; i++) {
+                tiere.get(i).setzeAlter(leser.liesInt());
+            }
+            for(int i = 0; i < anzahl; i++) {
+                tiere.get(i).setzeFutterLevel(leser.liesInt());
+            }
+            Feld feld = simulator.gibFeld();
+            for(int i = 0; i < anzahl; i++) {
+                long zelle = langeZellen ? leser.liesLong() : leser.liesInt();
+                if(zelle < 0 || zelle >= zellen) {
+                    throw new IOException("Sicherung ist beschaedigt: " + datei);
+                }
+                Tier tier = tiere.get(i);
+                tier.setzePosition((int) (zelle / breite), (int) (zelle % breite));
+                if((merkmale[i] & LEBENDIG) == 0) {
+                    tier.setzeGestorben();
+                }
+                if((merkmale[i] & IM_FELD) != 0) {
+                    feld.platziere(tier);
+                }
+            }
+            simulator.wiederhergestellt(schritt);
+            return simulator;
+        }
+    }
+
+    /**
+     * @return die Merkmale eines Tieres fuer die Sicherung.
+     */
+    private static byte merkmale(Tier tier, Feld feld)
+    {
+        int merkmale = tier.gibArt();
+        if(tier.istLebendig()) {
+            merkmale |= LEBENDIG;
+        }
+        if(feld.gibTierAn(tier.gibKoordinate()) == tier) {
+            merkmale |= IM_FELD;
+        }
+        return (byte) merkmale;
+    }
+
+    /**
+     * Erzeuge ein neugeborenes Tier einer Art.
+     */
+    private static Tier erzeuge(int art, Parameter parameter) throws IOException
+    {
+        if(art >= Tierart.ANZAHL) {
+            throw new IOException("Unbekannte Tierart in der Sicherung: " + art);
+        }
+        return Tierart.erzeuge(art, false, null, parameter);
+    }
+
+    /**
+     * Schreibe den Inhalt des Puffers in den Kanal und leere ihn.
+     */
+    private static void leere(FileChannel kanal, ByteBuffer puffer) throws IOException
+    {
+        puffer.flip();
+        while(puffer.hasRemaining()) {
+            kanal.write(puffer);
+        }
+        puffer.clear();
+    }
+
+    /**
+     * Liest eine Datei der Reihe nach ueber Speicherabbildungen von
+     * hoechstens MAX_ABBILDUNG Bytes. Reicht der Rest einer Abbildung
+     * fuer eine Zahl nicht mehr aus, beginnt die naechste Abbildung an
+     * der aktuellen Position; so liegt keine Zahl auf einer Grenze.
+     */
+    private static class Leser
+    {
+        private final FileChannel kanal;
+        // Die Position des Anfangs der aktuellen Abbildung in der Datei
+        private long anfang;
+        private MappedByteBuffer abbildung;
+
+        Leser(FileChannel kanal, long position) throws IOException
+        {
+            this.kanal = kanal;
+            anfang = position;
+            abbildung = bilde(position);
+        }
+
+        byte liesByte() throws IOException
+        {
+            sichere(1);
+            return abbildung.get();
+        }
+
+        int liesInt() throws IOException
+        {
+            sichere(4);
+            return abbildung.getInt();
+        }
+
+        long liesLong() throws IOException
+        {
+            sichere(8);
+            return abbildung.getLong();
+        }
+
+        /**
+         * Bilde den Rest der Datei ab der aktuellen Position neu ab,
+         * wenn die aktuelle Abbildung keine bytes Bytes mehr hat.
+         */
+        private void sichere(int bytes) throws IOException
+        {
+            if(abbildung.remaining() < bytes) {
+                anfang += abbildung.position();
+                abbildung = bilde(anfang);
+            }
+        }
+
+        private MappedByteBuffer bilde(long position) throws IOException
+        {
+            long laenge = Math.min(kanal.size() - position, MAX_ABBILDUNG);
+            return kanal.map(FileChannel.MapMode.READ_ONLY, position, laenge);
+        }
+    }
+}
@@ -4,6 +4,11 @@
  */
 package simulation;
 
+import java.awt.GraphicsEnvironment;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
 /**
  *
  * @author marc
@@ -13,8 +18,244 @@ public class Simulation {
     /**
      * @param args the command line arguments
      */
-    public static void main(String[] args) {
-     Simulator sim = new Simulator(100,200);
+    public static void main(String[] args) throws IOException, InterruptedException {
+     boolean kompakt = false;
+     Massenphasen massenphasen = null;
+     boolean duenn = false;
+     int threads = 0;
+     Long saat = null;
+     String laden = null;
+     String speichern = null;
+     String messung = null;
+     String protokoll = null;
+     String wiedergabe = null;
+     int bisSchritt = -1;
+     int zeitbericht = 0;
+     int laeufe = 0;
+     int vergleiche = 0;
+     int streifen = 0;
+     Topologie topologie = null;
+     Parameter parameter = Parameter.STANDARD;
+     for(int i = 0; i < args.length; i++) {
+         if(args[i].equals("-kompakt")) {
+             kompakt = true;
+         }
+         else if(args[i].equals("-massenphasen")) {
+             // mit -kompakt: Alter und Hunger in einem Durchlauf, skalar
+             // oder vektor (braucht --add-modules jdk.incubator.vector)
+             massenphasen = args[++i].equals("vektor") ? Massenphasen.vektor() : Massenphasen.skalar();
+         }
+         else if(args[i].equals("-duenn")) {
+             // nur Speicher fuer die Umgebung der Tiere belegen
+             duenn = true;
+         }
+         else if(args[i].equals("-threads")) {
+             threads = Integer.parseInt(args[++i]);
+         }
+         else if(args[i].equals("-saat")) {
+             saat = Long.valueOf(args[++i]);
+         }
+         else if(args[i].equals("-laden")) {
+             laden = args[++i];
+         }
+         else if(args[i].equals("-speichern")) {
+             speichern = args[++i];
+         }
+         else if(args[i].equals("-messung")) {
+             messung = args[++i];
+         }
+         else if(args[i].equals("-protokoll")) {
+             // jeden Schritt in ein Verzeichnis aufzeichnen
+             protokoll = args[++i];
+         }
+         else if(args[i].equals("-wiedergabe")) {
+             // einen aufgezeichneten Lauf ab dem Schritt -schritt n
+             // fortsetzen, ohne Angabe ab dem letzten
+             wiedergabe = args[++i];
+         }
+         else if(args[i].equals("-schritt")) {
+             bisSchritt = Integer.parseInt(args[++i]);
+         }
+         else if(args[i].equals("-zeiten")) {
+             // alle n Schritte die Zeiten je Phase und Art ausgeben
+             zeitbericht = Integer.parseInt(args[++i]);
+         }
+         else if(args[i].equals("-torus")) {
+             // die Raender des Feldes verbinden
+             topologie = Topologie.TORUS;
+         }
+         else if(args[i].equals("-streifen")) {
+             // das Feld auf n Prozesse in waagerechten Streifen verteilen
+             streifen = Integer.parseInt(args[++i]);
+         }
+         else if(args[i].equals("-vergleiche")) {
+             // Simulator und KompaktSimulator fuer n Saaten Schritt
+             // fuer Schritt vergleichen
+             vergleiche = Integer.parseInt(args[++i]);
+         }
+         else if(args[i].equals("-laeufe")) {
+             laeufe = Integer.parseInt(args[++i]);
+         }
+         else if(args[i].equals("-parameter")) {
+             // Eigenschaften der Tierarten aus einer Properties-Datei
+             parameter = parameter.lade(new File(args[++i]));
+         }
+         else if(args[i].equals("-setze")) {
+             // eine einzelne Eigenschaft, etwa -setze hase.maxalter=60
+             parameter = parameter.mit(args[++i]);
+         }
+     }
+     if(saat == null) {
+         saat = new Random().nextLong();
+     }
+     if(vergleiche > 0) {
+         // mit den Saaten saat, saat+1, ...; beendet sich mit 1, wenn
+         // ein Lauf abweicht
+         boolean gleich = true;
+         for(long s = saat; s < saat + vergleiche; s++) {
+             KompaktSimulator vergleich = new KompaktSimulator(100, 200, s, parameter);
+             Simulator sim = new Simulator(100, 200, new LeereAnsicht(), s, parameter);
+             sim.setzeAnzeigeIntervall(0);
+             if(topologie != null) {
+                 vergleich.setzeTopologie(topologie);
+                 sim.setzeTopologie(topologie);
+             }
+             int abweichung = vergleich.vergleiche(sim, 500);
+             if(abweichung < 0) {
+                 System.out.println("Saat: " + s + ", gleich bis Schritt " + vergleich.gibSchritt());
+             }
+             else {
+                 System.out.println("Saat: " + s + ", verschieden nach Schritt " + abweichung);
+                 gleich = false;
+             }
+         }
+         if(!gleich) {
+             System.exit(1);
+         }
+         return;
+     }
+     if(laeufe > 0) {
+         // viele Laeufe ohne Ansicht mit den Saaten saat, saat+1, ...;
+         // -threads gibt hier die Anzahl der gleichzeitigen Laeufe an
+         Ensemble ensemble = new Ensemble(100, 200, 500, threads > 0 ? threads
+                                             : Runtime.getRuntime().availableProcessors(),
+                                          parameter);
+         if(topologie != null) {
+             ensemble.setzeTopologie(topologie);
+         }
+         Ensemblestatistik statistik = new Ensemblestatistik(new Ergebnisziel() {
+             public void uebernimm(Laufergebnis ergebnis)
+             {
+                 StringBuilder zeile = new StringBuilder();
+                 zeile.append("Lauf: ").append(ergebnis.gibLauf())
+                      .append(", Saat: ").append(ergebnis.gibSaat())
+                      .append(", Schritt: ").append(ergebnis.gibSchritte()).append(',');
+                 for(int art = 0; art < Tierart.ANZAHL; art++) {
+                     zeile.append(' ').append(Tierart.gibKurzname(art))
+                          .append(": ").append(ergebnis.gibAnzahl(art));
+                 }
+                 System.out.println(zeile);
+             }
+         });
+         long start = System.nanoTime();
+         ensemble.simuliere(saat, laeufe, statistik);
+         long dauer = System.nanoTime() - start;
+         StringBuilder mittel = new StringBuilder("Mittel:");
+         for(int art = 0; art < Tierart.ANZAHL; art++) {
+             mittel.append(' ').append(Tierart.gibKurzname(art))
+                   .append(": ").append(String.format("%.1f", statistik.gibMittel(art)));
+         }
+         System.out.println(mittel + ", ueberlebt: " + statistik.gibUeberlebt() + "/" + statistik.gibLaeufe());
+         System.out.println("Schritte/s: " + (long) (statistik.gibSchritte() * 1e9 / dauer) + ", Saat: " + saat);
+         return;
+     }
+     if(streifen > 0) {
+         // verlaeuft wie -threads, aber mit einem Prozess je Streifen
+         if(topologie != null) {
+             throw new IllegalArgumentException("-streifen gibt es nur fuer ein begrenztes Feld");
+         }
+         VerteilteSimulation sim = new VerteilteSimulation(100, 200, saat, parameter, streifen);
+         sim.starteProzesse();
+         sim.verbinde();
+         long start = System.nanoTime();
+         sim.simuliere(500);
+         long dauer = System.nanoTime() - start;
+         System.out.println("Schritt: " + sim.gibSchritt() + ", Population: " + sim.gibBewohnerInfo());
+         System.out.println("Schritte/s: " + (long) (sim.gibSchritt() * 1e9 / dauer) + ", Saat: " + saat);
+         sim.beenden();
+         return;
+     }
+     if(kompakt) {
+         // Simulator ohne Tier-Objekte und ohne Ansicht
+         KompaktSimulator sim = new KompaktSimulator(100,200, saat, parameter);
+         if(topologie != null) {
+             sim.setzeTopologie(topologie);
+         }
+         if(massenphasen != null) {
+             sim.setzeMassenphasen(massenphasen);
+             System.out.println("Massenphasen: " + massenphasen.gibName());
+         }
+         long start = System.nanoTime();
+         sim.simuliere(500);
+         long dauer = System.nanoTime() - start;
+         System.out.println("Schritt: " + sim.gibSchritt() + ", Population: " + sim.gibBewohnerInfo());
+         System.out.println("Schritte/s: " + (long) (sim.gibSchritt() * 1e9 / dauer) + ", Saat: " + saat);
+         return;
+     }
+     Simulator sim;
+     if(laden != null) {
+         // eine gesicherte Simulation fortsetzen
+         sim = Simulator.lade(new File(laden), null, parameter);
+         saat = sim.gibSaat();
+     }
+     else if(wiedergabe != null) {
+         Wiedergabe lauf = new Wiedergabe(new File(wiedergabe), parameter);
+         sim = lauf.suche(bisSchritt >= 0 ? bisSchritt : lauf.gibLetztenSchritt(), null);
+         lauf.schliesse();
+         saat = sim.gibSaat();
+     }
+     else {
+         sim = duenn ? Simulator.erzeugeDuenn(100,200, null, saat, parameter)
+                     : new Simulator(100,200, null, saat, parameter);
+     }
+     if(topologie != null) {
+         // eine geladene Simulation behaelt sonst ihre Topologie
+         sim.setzeTopologie(topologie);
+     }
+     sim.setzeParallelitaet(threads);
+     Messreihe messreihe = null;
+     if(messung != null) {
+         // Messpunkte als CSV, oder binaer fuer andere Endungen
+         File datei = new File(messung);
+         messreihe = new Messreihe(messung.endsWith(".csv") ? new CsvMessziel(datei)
+                                                            : new BinaerMessziel(datei));
+         sim.setzeMessreihe(messreihe);
+     }
+     Schrittprotokoll schrittprotokoll = null;
+     if(protokoll != null) {
+         schrittprotokoll = new Schrittprotokoll(new File(protokoll));
+         sim.setzeProtokoll(schrittprotokoll);
+     }
+     if(zeitbericht > 0) {
+         sim.setzeSchrittzeiten(new Schrittzeiten(zeitbericht, System.out));
+     }
+     int ersterSchritt = sim.gibSchritt();
+     long start = System.nanoTime();
      sim.starteLangeSimulation();
+     if(GraphicsEnvironment.isHeadless()) {
+         // ohne Fenster das Ergebnis auf der Konsole ausgeben
+         long dauer = System.nanoTime() - start;
+         System.out.println("Schritt: " + sim.gibSchritt() + ", Population: " + sim.gibBewohnerInfo());
+         System.out.println("Schritte/s: " + (long) ((sim.gibSchritt() - ersterSchritt) * 1e9 / dauer) + ", Saat: " + saat);
+     }
+     if(messreihe != null) {
+         messreihe.schliesse();
+     }
+     if(schrittprotokoll != null) {
+         schrittprotokoll.schliesse();
+     }
+     if(speichern != null) {
+         sim.speichere(new File(speichern));
+     }
     }
 }
@@ -1,9 +1,11 @@
 package simulation;
 
 import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import javax.swing.*;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Eine grafische Ansicht des Simulationsfeldes.
@@ -12,11 +14,19 @@ import java.util.Map;
  * vorgebene Hintergrundfarbe.
  * Die Farben f�r die verschiedenen Tierarten k�nnen mit
  * der Methode setzeFarbe definiert werden.
+ *
+ * Die Simulation uebergibt in zeigeStatus nur eine Momentaufnahme des
+ * Feldes; gezeichnet wird spaeter im Event-Dispatch-Thread von Swing.
+ * Zeichnet die Oberflaeche langsamer, als neue Aufnahmen kommen, wird
+ * nur die jeweils neueste gezeichnet, und die Simulation laeuft
+ * unabhaengig von der Geschwindigkeit der Anzeige weiter. Wie oft
+ * hoechstens eine Aufnahme kommt, legt der Simulator fest (siehe
+ * Simulator.setzeBildrate).
  * 
  * @author David J. Barnes und Michael K�lling
  * @version 2006.03.30
  */
-public class Simulationsansicht extends JFrame
+public class Simulationsansicht extends JFrame implements SimulatorAnsicht
 {
     private static final long serialVersionUID = 20060330L;
     
@@ -31,12 +41,17 @@ public class Simulationsansicht extends JFrame
     private JLabel schrittLabel, population;
     private Feldansicht feldansicht;
     
-    // Eine Map f�r die Farben der Simulationsteilnehmer
-    // (Abbildung Tierklasse -> Farbe)
-    private Map<Class, Color> farben;
-    // Ein Statistik-Objekt zur Berechnung und Speicherung
-    // von Simulationsdaten
-    private FeldStatistik stats;
+    // Die Farben der Simulationsteilnehmer, Index ist die Nummer der Art
+    private Color[] artFarben;
+
+    // Drei Momentaufnahmen: eine fuellt die Simulation, eine zeichnet
+    // die Oberflaeche, und in der Mitte liegt die neueste fertige.
+    private Momentaufnahme aufnahme;
+    private final AtomicReference<Momentaufnahme> neueste;
+    private Momentaufnahme zeichnung;
+    // Ist das Zeichnen der neuesten Aufnahme schon veranlasst?
+    private final AtomicBoolean zeichnenVeranlasst;
+    private final Runnable zeichner;
 
     /**
      * Erzeuge eine Ansicht mit der gegebenen Breite und H�he.
@@ -45,8 +60,20 @@ public class Simulationsansicht extends JFrame
      */
     public Simulationsansicht(int hoehe, int breite)
     {
-        stats = new FeldStatistik();
-        farben = new LinkedHashMap<Class, Color>();
+        artFarben = new Color[Tierart.ANZAHL];
+        for(int art = 0; art < artFarben.length; art++) {
+            artFarben[art] = UNDEF_FARBE;
+        }
+        aufnahme = new Momentaufnahme(hoehe, breite);
+        neueste = new AtomicReference<Momentaufnahme>(new Momentaufnahme(hoehe, breite));
+        zeichnung = new Momentaufnahme(hoehe, breite);
+        zeichnenVeranlasst = new AtomicBoolean();
+        zeichner = new Runnable() {
+            public void run()
+            {
+                zeichneNeuesteAufnahme();
+            }
+        };
 
         setTitle("Simulation von F�chsen und Hasen");
         schrittLabel = new JLabel(SCHRITT_PREFIX, JLabel.CENTER);
@@ -69,68 +96,56 @@ public class Simulationsansicht extends JFrame
      * @param tierklasse Das Klassenobjekt der Tierklasse.
      * @param farbe Die zu benutzende Farbe f�r die Tierklasse. 
      */
-    public void setzeFarbe(Class tierklasse, Color farbe)
+    public void setzeFarbe(Class<? extends Tier> tierklasse, Color farbe)
     {
-        farben.put(tierklasse, farbe);
+        int art = Tierart.gibArt(tierklasse);
+        if(art >= 0) {
+            artFarben[art] = farbe;
+            feldansicht.farbenGeaendert();
+        }
     }
 
     /**
-     * @return die definierte Farbe f�r die gegebene Tierklasse.
+     * Zeige den aktuellen Zustand des Feldes. Der Zustand wird nur
+     * aufgenommen; gezeichnet wird er im Event-Dispatch-Thread.
+     * @param schritt welcher Iterationsschritt ist dies.
+     * @param feld das Feld, das angezeigt werden soll.
+     * @param stats die aktuellen Zaehlerstaende der Tierarten.
      */
-    private Color gibFarbe(Class tierklasse)
+    public void zeigeStatus(int schritt, Feld feld, FeldStatistik stats)
     {
-        Color farbe = farben.get(tierklasse);
-        if(farbe == null) {
-            // f�r die gegebene Klasse ist keine Farbe definiert
-            return UNDEF_FARBE;
-        }
-        else {
-            return farbe;
+        aufnahme.erfasse(schritt, feld, stats);
+        aufnahme = neueste.getAndSet(aufnahme);
+        if(zeichnenVeranlasst.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(zeichner);
         }
     }
 
     /**
-     * Zeige den aktuellen Zustand des Feldes.
-     * @param schritt welcher Iterationsschritt ist dies.
-     * @param feld das Feld, das angezeigt werden soll.
+     * Zeichne die neueste Momentaufnahme, falls sie noch nicht
+     * gezeichnet wurde. Laeuft im Event-Dispatch-Thread.
      */
-    public void zeigeStatus(int schritt, Feld feld)
+    private void zeichneNeuesteAufnahme()
     {
+        zeichnenVeranlasst.set(false);
+        if(!neueste.get().istNeu()) {
+            return;
+        }
+        // nur die Simulation ersetzt die mittlere Aufnahme, und zwar
+        // immer durch eine neue
+        zeichnung = neueste.getAndSet(zeichnung);
+
         if(!isVisible())
             setVisible(true);
 
-        schrittLabel.setText(SCHRITT_PREFIX + schritt);
-        stats.zuruecksetzen();
+        schrittLabel.setText(SCHRITT_PREFIX + zeichnung.gibSchritt());
         
-        feldansicht.zeichnenVorbereiten();
-            
-        for(int zeile = 0; zeile < feld.gibTiefe(); zeile++) {
-            for(int spalte = 0; spalte < feld.gibBreite(); spalte++) {
-                Tier tier = feld.gibTierAn(zeile, spalte);
-                if(tier != null) {
-                    stats.erhoeheZaehler(tier.getClass());
-                    feldansicht.zeichneMarkierung(spalte, zeile, gibFarbe(tier.getClass()));
-                }
-                else {
-                    feldansicht.zeichneMarkierung(spalte, zeile, LEER_FARBE);
-                }
-            }
-        }
-        stats.zaehlungBeendet();
+        feldansicht.zeichne(zeichnung);
 
-        population.setText(POPULATION_PREFIX + stats.gibBewohnerInfo(feld));
-        feldansicht.repaint();
+        population.setText(POPULATION_PREFIX + zeichnung.gibPopulation());
+        zeichnung.gezeichnet();
     }
 
-    /**
-     * Entscheide, ob die Simulation weiterlaufen soll.
-     * @return true wenn noch mehr als eine Spezies lebendig ist.
-     */
-    public boolean istAktiv(Feld feld)
-    {
-        return stats.istAktiv(feld);
-    }
-    
     /**
      * Liefere eine grafische Ansicht eines rechteckigen Feldes.
      * Dies ist eine geschachtelte Klasse (eine Klasse, die
@@ -139,6 +154,11 @@ public class Simulationsansicht extends JFrame
      * definiert. Diese Komponente zeigt das Feld an.
      * Dies ist fortgeschrittene GUI-Technik - Sie k�nnen sie
      * f�r Ihr Projekt ignorieren, wenn Sie wollen.
+     *
+     * Das Feld wird mit einem Pixel je Zelle in ein Bild geschrieben,
+     * direkt in dessen int-Array, und beim Anzeigen einmal auf die
+     * Groesse der Komponente skaliert. Geschrieben werden nur die
+     * Zellen, deren Art sich seit dem letzten Bild geaendert hat.
      */
     private class Feldansicht extends JPanel
     {
@@ -146,10 +166,13 @@ public class Simulationsansicht extends JFrame
         private final int DEHN_FAKTOR = 6;
 
         private int feldBreite, feldHoehe;
-        private int xFaktor, yFaktor;
-        Dimension groesse;
-        private Graphics g;
-        private Image feldImage;
+        private BufferedImage feldImage;
+        // Die Pixel von feldImage, eine Zelle je Pixel
+        private int[] pixel;
+        // Die Art je Zelle im Bild, wie in Momentaufnahme
+        private byte[] gezeichneteArten;
+        // Muessen alle Zellen neu geschrieben werden?
+        private boolean alleNeu;
 
         /**
          * Erzeuge eine neue Komponente zur Feldansicht.
@@ -158,7 +181,10 @@ public class Simulationsansicht extends JFrame
         {
             feldHoehe = hoehe;
             feldBreite = breite;
-            groesse = new Dimension(0, 0);
+            feldImage = new BufferedImage(breite, hoehe, BufferedImage.TYPE_INT_RGB);
+            pixel = ((DataBufferInt) feldImage.getRaster().getDataBuffer()).getData();
+            gezeichneteArten = new byte[hoehe * breite];
+            alleNeu = true;
         }
 
         /**
@@ -170,58 +196,66 @@ public class Simulationsansicht extends JFrame
             return new Dimension(feldBreite * DEHN_FAKTOR,
                                  feldHoehe * DEHN_FAKTOR);
         }
-        
+
         /**
-         * Bereite eine neue Zeichenrunde vor. Da die Komponente
-         * in der Gr��e ge�ndert werden kann, muss der Ma�stab neu
-         * berechnet werden.
+         * Beim naechsten Bild alle Zellen neu schreiben, weil sich
+         * die Farben geaendert haben.
          */
-        public void zeichnenVorbereiten()
+        public void farbenGeaendert()
         {
-            if(! groesse.equals(getSize())) {  // Gr��e wurde ge�ndert...
-                groesse = getSize();
-                feldImage = feldansicht.createImage(groesse.width, groesse.height);
-                g = feldImage.getGraphics();
-
-                xFaktor = groesse.width / feldBreite;
-                if(xFaktor < 1) {
-                    xFaktor = DEHN_FAKTOR;
-                }
-                yFaktor = groesse.height / feldHoehe;
-                if(yFaktor < 1) {
-                    yFaktor = DEHN_FAKTOR;
-                }
-            }
+            alleNeu = true;
         }
-        
+
         /**
-         * Zeichne an der gegebenen Position ein Rechteck mit
-         * der gegebenen Farbe.
+         * Schreibe eine Momentaufnahme in das Bild und veranlasse das
+         * Anzeigen der geaenderten Zeilen.
          */
-        public void zeichneMarkierung(int x, int y, Color farbe)
+        public void zeichne(Momentaufnahme aufnahme)
         {
-            g.setColor(farbe);
-            g.fillRect(x * xFaktor, y * yFaktor, xFaktor-1, yFaktor-1);
+            int[] farbwerte = new int[artFarben.length + 1];
+            farbwerte[0] = LEER_FARBE.getRGB();
+            for(int art = 0; art < artFarben.length; art++) {
+                farbwerte[art + 1] = artFarben[art].getRGB();
+            }
+
+            byte[] arten = aufnahme.gibArten();
+            // die erste und letzte geaenderte Zelle
+            int erste = -1;
+            int letzte = -1;
+            for(int zelle = 0; zelle < arten.length; zelle++) {
+                byte art = arten[zelle];
+                if(alleNeu || art != gezeichneteArten[zelle]) {
+                    gezeichneteArten[zelle] = art;
+                    pixel[zelle] = farbwerte[art];
+                    if(erste < 0) {
+                        erste = zelle;
+                    }
+                    letzte = zelle;
+                }
+            }
+            alleNeu = false;
+
+            if(erste >= 0) {
+                // nur die Zeilen mit Aenderungen neu anzeigen
+                Dimension groesse = getSize();
+                int ersteZeile = erste / feldBreite;
+                int letzteZeile = letzte / feldBreite;
+                int y = (int) ((long) ersteZeile * groesse.height / feldHoehe);
+                int bis = (int) (((long) letzteZeile + 1) * groesse.height / feldHoehe);
+                repaint(0, y, groesse.width, bis - y + 1);
+            }
         }
 
         /**
          * Die Komponente f�r die Feldansicht muss erneut angezeigt
-         * werden. Kopiere das interne Image in die Anzeige.
+         * werden. Das Bild wird dabei auf die Groesse der Komponente
+         * skaliert.
          * Der Name der Methode ist durch die GUI-Verwaltung festgelegt.
          */
         public void paintComponent(Graphics g)
         {
-            if(feldImage != null) {
-                Dimension aktuelleGroesse = getSize();
-                if(groesse.equals(aktuelleGroesse)) {
-                	g.drawImage(feldImage, 0, 0, null);
-                }
-                else {
-                    // Gr��e des aktuellen Images anpassen.
-                    g.drawImage(feldImage, 0, 0, aktuelleGroesse.width,
-                    		    aktuelleGroesse.height, null);
-                }
-            }
+            Dimension groesse = getSize();
+            g.drawImage(feldImage, 0, 0, groesse.width, groesse.height, null);
         }
     }
 }
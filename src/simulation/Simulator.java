@@ -1,11 +1,13 @@
 package simulation;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Random;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.Collections;
-import java.awt.Color;
+import java.awt.GraphicsEnvironment;
 
 /**
  * Ein einfacher J�ger-Beute-Simulator, basierend auf einem
@@ -21,25 +23,45 @@ public class Simulator
     private static final int STANDARD_BREITE = 50;
     // Die Standardtiefe f�r ein Feld.
     private static final int STANDARD_TIEFE = 50;
-    // Die Wahrscheinlichkeit f�r die Geburt eines Fuchses an
-    // einer beliebigen Position im Feld.
-    private static final double FUCHSGEBURT_WAHRSCHEINLICH = 0.02;
-    // Die Wahrscheinlichkeit f�r die Geburt eines Fuchses an
-    // einer beliebigen Position im Feld.
-    private static final double HASENGEBURT_WAHRSCHEINLICH = 0.08;    
+    // Die Standardkantenlaenge einer Kachel im parallelen Schritt.
+    private static final int STANDARD_KACHELGROESSE = 32;
+    // Die Standardanzahl der Bilder je Sekunde fuer die Ansicht.
+    private static final int STANDARD_BILDRATE = 30;
 
     // Die Liste der Tiere im Feld
     private List<Tier> tiere;
-    // Die Liste der gerade geborenen Tiere
-    private List<Tier> neueTiere;
+    // Der Kontext fuer den sequentiellen Schritt
+    private Schrittkontext kontext;
+    // Der parallele Schritt, oder null, wenn sequentiell simuliert wird
+    private ParallelerSchritt parallelerSchritt;
     // Der aktuelle Zustand des Feldes
     private Feld feld;
     // Zweites Feld, mit dem der n�chste Schritt erzeugt wird
     private Feld naechstesFeld;
     // Der aktuelle Schritt der Simulation
     private int schritt;
-    // Eine grafische Ansicht der Simulation
-    private Simulationsansicht ansicht;
+    // Eine Ansicht der Simulation
+    private SimulatorAnsicht ansicht;
+    // Nach wie vielen Schritten die Ansicht aktualisiert wird (0 = nie)
+    private int anzeigeIntervall;
+    // Der kleinste Abstand zweier Anzeigen in Nanosekunden (0 = beliebig)
+    private long bildabstand;
+    // Wann und welcher Schritt zuletzt angezeigt wurde
+    private long letzteAnzeige;
+    private int angezeigterSchritt;
+    // Die Anzahl der lebenden Tiere jeder Art; nach jedem Schritt um
+    // dessen Geburten und Tode veraendert
+    private FeldStatistik stats;
+    // Die Messreihe, die nach jedem Schritt einen Messpunkt erhaelt, oder null
+    private Messreihe messreihe;
+    // Die Messung der Zeiten je Phase und Art, oder null
+    private Schrittzeiten zeiten;
+    // Das Protokoll, in das jeder Schritt eingetragen wird, oder null
+    private Schrittprotokoll protokoll;
+    // Die Saat, aus der alle Zufallszahlen der Simulation abgeleitet werden
+    private long saat;
+    // Die Eigenschaften der Tierarten
+    private final Parameter parameter;
     
     /**
      * Erzeuge ein Simulationsfeld mit einer Standardgr��e.
@@ -55,6 +77,92 @@ public class Simulator
      * @param breite die Breite des Feldes (muss gr��er als Null sein).
      */
     public Simulator(int tiefe, int breite)
+    {
+        this(tiefe, breite, null);
+    }
+    
+    /**
+     * Erzeuge ein Simulationsfeld mit der gegebenen Gr��e und Ansicht.
+     * @param tiefe die Tiefe des Feldes (muss gr��er als Null sein).
+     * @param breite die Breite des Feldes (muss gr��er als Null sein).
+     * @param ansicht die Ansicht der Simulation, oder null fuer die
+     *        Standardansicht: ein Fenster, oder eine leere Ansicht,
+     *        wenn die JVM ohne Bildschirm laeuft.
+     */
+    public Simulator(int tiefe, int breite, SimulatorAnsicht ansicht)
+    {
+        this(tiefe, breite, ansicht, new Random().nextLong());
+    }
+    
+    /**
+     * Erzeuge ein Simulationsfeld mit der gegebenen Groesse, Ansicht
+     * und Saat. Zwei Simulatoren mit derselben Saat und denselben
+     * Einstellungen durchlaufen genau dieselben Zustaende; im
+     * parallelen Schritt auch bei verschiedener Anzahl an Threads.
+     * @param tiefe die Tiefe des Feldes (muss groesser als Null sein).
+     * @param breite die Breite des Feldes (muss groesser als Null sein).
+     * @param ansicht die Ansicht der Simulation, oder null fuer die
+     *        Standardansicht.
+     * @param saat die Saat fuer alle Zufallszahlen der Simulation.
+     */
+    public Simulator(int tiefe, int breite, SimulatorAnsicht ansicht, long saat)
+    {
+        this(tiefe, breite, ansicht, saat, Parameter.STANDARD);
+    }
+    
+    /**
+     * Erzeuge ein Simulationsfeld mit der gegebenen Groesse, Ansicht,
+     * Saat und eigenen Eigenschaften der Tierarten.
+     * @param tiefe die Tiefe des Feldes (muss groesser als Null sein).
+     * @param breite die Breite des Feldes (muss groesser als Null sein).
+     * @param ansicht die Ansicht der Simulation, oder null fuer die
+     *        Standardansicht.
+     * @param saat die Saat fuer alle Zufallszahlen der Simulation.
+     * @param parameter die Eigenschaften der Tierarten.
+     */
+    public Simulator(int tiefe, int breite, SimulatorAnsicht ansicht, long saat,
+                     Parameter parameter)
+    {
+        this(tiefe, breite, ansicht, saat, parameter, true, false);
+    }
+    
+    /**
+     * Erzeuge ein Simulationsfeld, dessen Speicher mit der Anzahl der
+     * Tiere waechst statt mit der Flaeche (siehe DuennesFeld). Das
+     * lohnt sich nur fuer sehr grosse, duenn besiedelte Felder, und nur
+     * so sind Felder mit mehr als Integer.MAX_VALUE Zellen moeglich.
+     * Ein duennes Feld wird nur sequentiell simuliert und anders
+     * bevoelkert; es verlaeuft deshalb nicht wie ein gewoehnliches
+     * Feld mit derselben Saat.
+     * @param tiefe die Tiefe des Feldes (muss groesser als Null sein).
+     * @param breite die Breite des Feldes (muss groesser als Null sein).
+     * @param ansicht die Ansicht der Simulation, oder null fuer die
+     *        Standardansicht.
+     * @param saat die Saat fuer alle Zufallszahlen der Simulation.
+     * @param parameter die Eigenschaften der Tierarten.
+     * @return den neuen Simulator.
+     */
+    public static Simulator erzeugeDuenn(int tiefe, int breite, SimulatorAnsicht ansicht,
+                                         long saat, Parameter parameter)
+    {
+        return new Simulator(tiefe, breite, ansicht, saat, parameter, true, true);
+    }
+    
+    /**
+     * Erzeuge ein Simulationsfeld, wahlweise ohne es zu bevoelkern,
+     * etwa um danach einen gesicherten Zustand zu laden.
+     * @param tiefe die Tiefe des Feldes (muss groesser als Null sein).
+     * @param breite die Breite des Feldes (muss groesser als Null sein).
+     * @param ansicht die Ansicht der Simulation, oder null fuer die
+     *        Standardansicht.
+     * @param saat die Saat fuer alle Zufallszahlen der Simulation.
+     * @param parameter die Eigenschaften der Tierarten.
+     * @param bevoelkern soll das Feld bevoelkert werden?
+     * @param duenn soll das Feld nur Speicher fuer die Umgebung der
+     *        Tiere belegen (siehe erzeugeDuenn)?
+     */
+    Simulator(int tiefe, int breite, SimulatorAnsicht ansicht, long saat,
+              Parameter parameter, boolean bevoelkern, boolean duenn)
     {
         if(breite <= 0 || tiefe <= 0) {
             System.out.println("Abmessungen m�ssen gr��er als Null sein.");
@@ -62,18 +170,35 @@ public class Simulator
             tiefe = STANDARD_TIEFE;
             breite = STANDARD_BREITE;
         }
+        this.saat = saat;
+        this.parameter = parameter;
         tiere = new ArrayList<Tier>();
-        neueTiere = new ArrayList<Tier>();
-        feld = new Feld(tiefe, breite);
-        naechstesFeld = new Feld(tiefe, breite);
+        kontext = new Schrittkontext(0);
+        feld = Feld.erzeuge(tiefe, breite, duenn);
+        naechstesFeld = Feld.erzeuge(tiefe, breite, duenn);
+
+        stats = new FeldStatistik();
+        anzeigeIntervall = 1;
+        setzeBildrate(STANDARD_BILDRATE);
 
         // Eine Ansicht der Zust�nde aller Positionen im Feld erzeugen.
-        ansicht = new Simulationsansicht(tiefe, breite);
-        ansicht.setzeFarbe(Fuchs.class, Color.blue);
-        ansicht.setzeFarbe(Hase.class, Color.orange);
+        if(ansicht == null) {
+            if(GraphicsEnvironment.isHeadless()) {
+                ansicht = new LeereAnsicht();
+            }
+            else {
+                ansicht = new Simulationsansicht(tiefe, breite);
+            }
+        }
+        this.ansicht = ansicht;
+        for(int art = 0; art < Tierart.ANZAHL; art++) {
+            ansicht.setzeFarbe(Tierart.gibKlasse(art), Tierart.gibFarbe(art));
+        }
         
         // Einen g�ltigen Startzustand einnehmen.
-        zuruecksetzen();
+        if(bevoelkern) {
+            zuruecksetzen();
+        }
     }
     
     /**
@@ -93,9 +218,14 @@ public class Simulator
      */
     public void simuliere(int schritte)
     {
-        for(int schritt = 1; schritt <= schritte && ansicht.istAktiv(feld); schritt++) {
+        for(int schritt = 1; schritt <= schritte && istAktiv(); schritt++) {
             simuliereEinenSchritt();
         }
+        // Den letzten Zustand zeigen, auch wenn er wegen der Bildrate
+        // uebersprungen wurde.
+        if(anzeigeIntervall > 0 && angezeigterSchritt != schritt) {
+            zeigeStatus();
+        }
     }
     
     /**
@@ -105,29 +235,464 @@ public class Simulator
      */
     public void simuliereEinenSchritt()
     {
+        long beginn = System.nanoTime();
+        Schrittzeiten zeiten = this.zeiten;
+        // der Beginn der aktuellen Phase, nur mit Messung
+        long t = beginn;
         schritt++;
-        neueTiere.clear();
-        
-        // alle Tiere agieren lassen
-        for(Iterator<Tier> iter = tiere.iterator(); iter.hasNext(); ) {
-            Tier tier = iter.next();
-            tier.agiere(feld, naechstesFeld, neueTiere);
+        stats.beginneSchritt();
+        if(parameter.gibMaxSichtweite() > 1) {
+            // fuer die Suche nach Beute im Umkreis
+            feld.erneuereIndex();
+            if(zeiten != null) {
+                t = zeiten.erfasse(Schrittzeiten.INDEX, t);
+            }
+        }
+        if(parallelerSchritt != null) {
+            parallelerSchritt.simuliere(tiere, feld, naechstesFeld, saat, schritt);
+            parallelerSchritt.uebertrageZaehler(stats);
+            if(zeiten != null) {
+                parallelerSchritt.uebertrageZeiten(zeiten);
+                t = zeiten.erfasse(Schrittzeiten.TIERE, t);
+            }
+        }
+        else {
+            Schrittprotokoll protokoll = this.protokoll;
+            kontext.beginneSchritt(feld, naechstesFeld, Zufall.ableiten(saat, schritt, 0));
+            if(protokoll != null) {
+                protokoll.beginneSchritt(schritt);
+            }
+            
+            // alle Tiere agieren lassen; die Ueberlebenden ruecken in
+            // einem Durchlauf nach vorn, statt dass jedes tote Tier
+            // einzeln aus der Mitte der Liste entfernt wird
+            int anzahl = tiere.size();
+            int ueberlebende = 0;
+            for(int i = 0; i < anzahl; i++) {
+                Tier tier = tiere.get(i);
+                boolean lebteVorher = tier.istLebendig();
+                if(protokoll != null) {
+                    protokoll.beginneTier(tier);
+                }
+                if(zeiten == null) {
+                    tier.agiere(kontext);
+                }
+                else {
+                    zeiten.agiere(tier, kontext);
+                }
+                if(protokoll != null) {
+                    protokoll.beendeTier(tier);
+                }
+                if(tier.istLebendig()) {
+                    if(ueberlebende != i) {
+                        tiere.set(ueberlebende, tier);
+                    }
+                    ueberlebende++;
+                }
+                // gefressene Tiere hat der Jaeger schon gemeldet
+                else if(lebteVorher) {
+                    kontext.gestorben(tier);
+                }
+            }
+            if(zeiten != null) {
+                t = zeiten.erfasse(Schrittzeiten.TIERE, t);
+            }
             // Tote Tiere aus der Simulation entfernen.
-            if(!tier.istLebendig()) {
-                iter.remove();
+            tiere.subList(ueberlebende, anzahl).clear();
+            if(zeiten != null) {
+                t = zeiten.erfasse(Schrittzeiten.ENTFERNEN, t);
+            }
+            // Neu geborene Tiere in die Liste der Tiere einf�gen.
+            tiere.addAll(kontext.gibNeueTiere());
+            kontext.uebertrageZaehler(stats);
+            if(zeiten != null) {
+                t = zeiten.erfasse(Schrittzeiten.NEUE_TIERE, t);
             }
         }
-        // Neu geborene Tiere in die Liste der Tiere einf�gen.
-        tiere.addAll(neueTiere);
         
         // feld und n�chstesFeld am Ende des Schritts austauschen.
         Feld temp = feld;
         feld = naechstesFeld;
         naechstesFeld = temp;
         naechstesFeld.raeumen();
+        if(zeiten != null) {
+            t = zeiten.erfasse(Schrittzeiten.RAEUMEN, t);
+        }
+        if(protokoll != null) {
+            protokoll.beendeSchritt(this);
+            if(zeiten != null) {
+                t = zeiten.erfasse(Schrittzeiten.PROTOKOLL, t);
+            }
+        }
+        if(messreihe != null) {
+            messreihe.erfasse(schritt, System.nanoTime() - beginn, stats);
+            if(zeiten != null) {
+                t = zeiten.erfasse(Schrittzeiten.MESSREIHE, t);
+            }
+        }
 
-        // Das neue Feld in der Ansicht anzeigen.
-        ansicht.zeigeStatus(schritt, feld);
+        // Das neue Feld in der Ansicht anzeigen, falls gewuenscht und
+        // seit der letzten Anzeige genug Zeit vergangen ist.
+        if(anzeigeIntervall > 0 && schritt % anzeigeIntervall == 0
+           && System.nanoTime() - letzteAnzeige >= bildabstand) {
+            zeigeStatus();
+            if(zeiten != null) {
+                zeiten.erfasse(Schrittzeiten.ANZEIGE, t);
+            }
+        }
+        if(zeiten != null) {
+            zeiten.schrittBeendet(schritt);
+        }
+    }
+    
+    /**
+     * Zeige den aktuellen Zustand in der Ansicht, unabhaengig vom
+     * Anzeigeintervall.
+     */
+    public void zeigeStatus()
+    {
+        letzteAnzeige = System.nanoTime();
+        angezeigterSchritt = schritt;
+        ansicht.zeigeStatus(schritt, feld, stats);
+    }
+    
+    /**
+     * Lege fest, wie oft die Ansicht aktualisiert wird. Ohne Anzeige
+     * wird ein Schritt nicht durch das Zeichnen des Feldes gebremst.
+     * @param anzeigeIntervall Anzahl der Schritte zwischen zwei
+     *        Anzeigen; 0 zeigt nur noch auf Anforderung an.
+     */
+    public void setzeAnzeigeIntervall(int anzeigeIntervall)
+    {
+        this.anzeigeIntervall = anzeigeIntervall;
+    }
+    
+    /**
+     * Lege fest, wie oft die Ansicht hoechstens je Sekunde aktualisiert
+     * wird. Schritte dazwischen werden nicht angezeigt; mehr Bilder
+     * kann ohnehin niemand sehen, und jedes Bild kostet eine Kopie des
+     * Feldes.
+     * @param bilderJeSekunde die hoechste Bildrate; 0 begrenzt nur
+     *        durch das Anzeigeintervall.
+     */
+    public void setzeBildrate(int bilderJeSekunde)
+    {
+        if(bilderJeSekunde > 0) {
+            bildabstand = 1000000000L / bilderJeSekunde;
+        }
+        else {
+            bildabstand = 0;
+        }
+    }
+    
+    /**
+     * Lege fest, wohin nach jedem Schritt ein Messpunkt mit Schritt,
+     * Dauer, Anzahlen, Geburten, Toden und gefressenen Tieren geht.
+     * Die Messreihe wird vom Simulator nicht geschlossen.
+     * @param messreihe die Messreihe, oder null fuer keine Messung.
+     */
+    public void setzeMessreihe(Messreihe messreihe)
+    {
+        this.messreihe = messreihe;
+    }
+    
+    /**
+     * Lege fest, ob jeder Schritt in ein Schrittprotokoll eingetragen
+     * wird, damit er spaeter mit einer Wiedergabe wiederhergestellt
+     * werden kann. Das Protokoll beginnt mit einem Schluesselbild des
+     * aktuellen Zustands. Es wird vom Simulator nicht geschlossen.
+     * Waehrend der Aufzeichnung kann nur sequentiell simuliert werden;
+     * Topologie und Anfangszustand bleiben fest.
+     * @param protokoll ein neues Protokoll, oder null, um die
+     *        Aufzeichnung zu beenden.
+     * @throws IllegalArgumentException wenn parallel simuliert wird.
+     * @throws IOException wenn das Protokoll nicht geschrieben werden kann.
+     */
+    public void setzeProtokoll(Schrittprotokoll protokoll) throws IOException
+    {
+        if(protokoll != null && parallelerSchritt != null) {
+            throw new IllegalArgumentException(
+                "Ein Schrittprotokoll gibt es nur fuer den sequentiellen Schritt");
+        }
+        if(protokoll != null) {
+            protokoll.beginne(this);
+        }
+        this.protokoll = protokoll;
+        kontext.setzeProtokoll(protokoll);
+    }
+    
+    /**
+     * Lege fest, ob die Zeiten jeder Phase eines Schrittes und die
+     * Zeiten der Tiere jeder Art in agiere gemessen werden (siehe
+     * Schrittzeiten). Ohne Messung kostet das einen Schritt nahezu
+     * nichts.
+     * @param zeiten die Messung, oder null fuer keine Messung.
+     */
+    public void setzeSchrittzeiten(Schrittzeiten zeiten)
+    {
+        this.zeiten = zeiten;
+        if(parallelerSchritt != null) {
+            parallelerSchritt.setzeZeitmessung(zeiten != null);
+        }
+    }
+    
+    /**
+     * @return die Messung der Schrittzeiten, oder null.
+     */
+    public Schrittzeiten gibSchrittzeiten()
+    {
+        return zeiten;
+    }
+    
+    /**
+     * Lasse die Tiere parallel agieren, mit der Standardkachelgroesse.
+     * @param threads die Anzahl der Threads, oder 0 fuer den
+     *        sequentiellen Schritt.
+     * @see #setzeParallelitaet(int, int)
+     */
+    public void setzeParallelitaet(int threads)
+    {
+        setzeParallelitaet(threads, gibStandardKachelgroesse(parameter));
+    }
+    
+    /**
+     * @param parameter die Eigenschaften der Tierarten.
+     * @return die Kantenlaenge der Kacheln, mit der setzeParallelitaet
+     *         ohne Angabe arbeitet: STANDARD_KACHELGROESSE, aber groesser
+     *         als die Sichtweite jeder Art.
+     */
+    static int gibStandardKachelgroesse(Parameter parameter)
+    {
+        return Math.max(STANDARD_KACHELGROESSE, parameter.gibMaxSichtweite() + 1);
+    }
+    
+    /**
+     * Lasse die Tiere parallel agieren. Das Feld wird dazu in
+     * Kacheln geteilt, die in vier Phasen auf einem ForkJoinPool
+     * bearbeitet werden (siehe ParallelerSchritt). Das Ergebnis eines
+     * Schrittes haengt nicht von der Anzahl der Threads ab; es weicht
+     * aber von dem des sequentiellen Schrittes ab, weil die Tiere in
+     * anderer Reihenfolge agieren.
+     * @param threads die Anzahl der Threads, oder 0 fuer den
+     *        sequentiellen Schritt.
+     * @param kachelgroesse die Kantenlaenge einer Kachel (mindestens 3
+     *        und groesser als die Sichtweite jeder Art).
+     * @throws IllegalArgumentException wenn das Feld duenn ist (siehe
+     *         erzeugeDuenn) oder die Kacheln zu klein sind.
+     */
+    public void setzeParallelitaet(int threads, int kachelgroesse)
+    {
+        if(threads > 0 && protokoll != null) {
+            throw new IllegalArgumentException(
+                "Ein Schrittprotokoll gibt es nur fuer den sequentiellen Schritt");
+        }
+        if(threads > 0 && feld.istDuenn()) {
+            throw new IllegalArgumentException(
+                "Ein duennes Feld wird nur sequentiell simuliert");
+        }
+        if(threads > 0 && kachelgroesse <= parameter.gibMaxSichtweite()) {
+            throw new IllegalArgumentException("Kachelgroesse " + kachelgroesse
+                + " muss groesser als die Sichtweite " + parameter.gibMaxSichtweite() + " sein");
+        }
+        if(parallelerSchritt != null) {
+            parallelerSchritt.beenden();
+            parallelerSchritt = null;
+        }
+        int abschnitte = 1;
+        if(threads > 0) {
+            parallelerSchritt = new ParallelerSchritt(feld.gibTiefe(), feld.gibBreite(),
+                                                      kachelgroesse, threads,
+                                                      feld.gibTopologie());
+            abschnitte = parallelerSchritt.gibAnzahlKacheln();
+            parallelerSchritt.setzeZeitmessung(zeiten != null);
+        }
+        feld.setzeAbschnitte(abschnitte);
+        naechstesFeld.setzeAbschnitte(abschnitte);
+    }
+    
+    /**
+     * Lege fest, ob das Feld an seinen Raendern endet oder ein Torus
+     * ist (siehe Topologie). Die Tiere bleiben, wo sie sind; die neue
+     * Topologie gilt ab dem naechsten Schritt.
+     * @param topologie die neue Topologie.
+     */
+    public void setzeTopologie(Topologie topologie)
+    {
+        if(protokoll != null && topologie != feld.gibTopologie()) {
+            throw new IllegalStateException(
+                "Die Topologie kann waehrend eines Schrittprotokolls nicht wechseln");
+        }
+        feld.setzeTopologie(topologie);
+        naechstesFeld.setzeTopologie(topologie);
+        if(parallelerSchritt != null) {
+            // die Kacheln haengen von der Topologie ab
+            setzeParallelitaet(parallelerSchritt.gibThreads(),
+                               parallelerSchritt.gibKachelgroesse());
+        }
+    }
+    
+    /**
+     * @return wie die Raender des Feldes verbunden sind.
+     */
+    public Topologie gibTopologie()
+    {
+        return feld.gibTopologie();
+    }
+    
+    /**
+     * Entscheide, ob die Simulation weiterlaufen soll.
+     * @return true wenn noch mehr als eine Spezies lebendig ist.
+     */
+    public boolean istAktiv()
+    {
+        return stats.istAktiv();
+    }
+    
+    /**
+     * Liefere den aktuellen Schritt der Simulation.
+     * @return die Anzahl der bisher ausgefuehrten Schritte.
+     */
+    public int gibSchritt()
+    {
+        return schritt;
+    }
+    
+    /**
+     * Liefere die Anzahl der lebenden Tiere einer Art.
+     * @param art die Nummer der Art (siehe Tierart).
+     * @return die Anzahl nach dem letzten Schritt.
+     */
+    public int gibAnzahl(int art)
+    {
+        return stats.gibAnzahl(art);
+    }
+    
+    /**
+     * Liefere das aktuelle Feld. Es wird im naechsten Schritt geraeumt
+     * und wiederverwendet und darf nur gelesen werden.
+     * @return das Feld mit dem aktuellen Zustand.
+     */
+    public Feld gibFeld()
+    {
+        return feld;
+    }
+    
+    /**
+     * Liefere die Liste der Tiere in der Reihenfolge, in der sie
+     * agieren. Sie darf nur gelesen werden, ausser beim Laden einer
+     * Sicherung.
+     * @return die Tiere der Simulation.
+     */
+    List<Tier> gibTiere()
+    {
+        return tiere;
+    }
+    
+    /**
+     * Sichere den gesamten Zustand der Simulation in einer Datei (siehe
+     * Sicherung). Mit derselben Schrittart fortgesetzt, verlaeuft eine
+     * geladene Simulation genau wie das Original.
+     * @param datei die Datei, die geschrieben oder ersetzt wird.
+     * @throws IOException wenn die Datei nicht geschrieben werden kann.
+     */
+    public void speichere(File datei) throws IOException
+    {
+        Sicherung.schreibe(this, datei);
+    }
+    
+    /**
+     * Lade eine mit speichere gesicherte Simulation.
+     * @param datei die Datei mit der Sicherung.
+     * @param ansicht die Ansicht der Simulation, oder null fuer die
+     *        Standardansicht.
+     * @return ein Simulator im gesicherten Zustand.
+     * @throws IOException wenn die Datei nicht gelesen werden kann
+     *         oder keine gueltige Sicherung enthaelt.
+     */
+    public static Simulator lade(File datei, SimulatorAnsicht ansicht) throws IOException
+    {
+        return lade(datei, ansicht, Parameter.STANDARD);
+    }
+    
+    /**
+     * Lade eine mit speichere gesicherte Simulation mit eigenen
+     * Eigenschaften der Tierarten. Die Parameter werden nicht mit
+     * gesichert; genau wie das Original verlaeuft die Simulation nur
+     * mit denselben Parametern.
+     * @param datei die Datei mit der Sicherung.
+     * @param ansicht die Ansicht der Simulation, oder null fuer die
+     *        Standardansicht.
+     * @param parameter die Eigenschaften der Tierarten.
+     * @return ein Simulator im gesicherten Zustand.
+     * @throws IOException wenn die Datei nicht gelesen werden kann
+     *         oder keine gueltige Sicherung enthaelt.
+     */
+    public static Simulator lade(File datei, SimulatorAnsicht ansicht, Parameter parameter)
+        throws IOException
+    {
+        return Sicherung.lies(datei, ansicht, parameter);
+    }
+    
+    /**
+     * Fuehre einen aufgezeichneten Schritt aus, statt ihn zu berechnen
+     * (siehe Wiedergabe).
+     * @param ereignisse die Ereignisse des Schrittes aus dem
+     *        Schrittprotokoll.
+     * @throws IOException wenn die Ereignisse nicht zum Zustand passen.
+     */
+    void spieleAb(ByteBuffer ereignisse) throws IOException
+    {
+        schritt++;
+        Schrittprotokoll.spieleAb(ereignisse, tiere, feld, naechstesFeld, parameter);
+        Feld temp = feld;
+        feld = naechstesFeld;
+        naechstesFeld = temp;
+        naechstesFeld.raeumen();
+    }
+    
+    /**
+     * Schliesse das Laden einer Sicherung ab, nachdem die Tiere in die
+     * Liste und das Feld eingetragen wurden: setze den Schritt und die
+     * Zaehler und zeige den Zustand an.
+     * @param schritt der Schritt, in dem gesichert wurde.
+     */
+    void wiederhergestellt(int schritt)
+    {
+        this.schritt = schritt;
+        stats.zuruecksetzen();
+        for(Tier tier : tiere) {
+            if(tier.istLebendig()) {
+                stats.erhoeheZaehler(tier.gibArt());
+            }
+        }
+        zeigeStatus();
+    }
+    
+    /**
+     * Liefere die Saat der Simulation, etwa um einen Lauf zu
+     * wiederholen.
+     * @return die Saat, aus der alle Zufallszahlen abgeleitet werden.
+     */
+    public long gibSaat()
+    {
+        return saat;
+    }
+    
+    /**
+     * @return die Eigenschaften der Tierarten dieser Simulation.
+     */
+    public Parameter gibParameter()
+    {
+        return parameter;
+    }
+    
+    /**
+     * Liefere Informationen ueber die Bewohner des Feldes.
+     * @return eine Beschreibung, welche Tiere das Feld bev�lkern.
+     */
+    public String gibBewohnerInfo()
+    {
+        return stats.gibBewohnerInfo();
     }
         
     /**
@@ -135,42 +700,110 @@ public class Simulator
      */
     public void zuruecksetzen()
     {
+        zuruecksetzen(parameter.gibStartWahrscheinlichkeiten());
+    }
+    
+    /**
+     * Setze die Simulation an den Anfang zurueck und bevoelkere das
+     * Feld mit einer anderen Dichte als ueblich, etwa fuer Messungen.
+     * @param geburt die Wahrscheinlichkeit je Art fuer ein Tier je
+     *        Zelle, die keine Art davor in der Startreihenfolge belegt
+     *        hat (siehe Tierart.waehleStartart).
+     */
+    void zuruecksetzen(double[] geburt)
+    {
+        if(protokoll != null) {
+            throw new IllegalStateException(
+                "Waehrend eines Schrittprotokolls kann nicht zurueckgesetzt werden");
+        }
         schritt = 0;
         tiere.clear();
-        neueTiere.clear();
         feld.raeumen();
         naechstesFeld.raeumen();
-        bevoelkere(feld);
+        stats.zuruecksetzen();
+        bevoelkere(feld, geburt);
         
         // Zeige den Startzustand in der Ansicht.
-        ansicht.zeigeStatus(schritt, feld);
+        zeigeStatus();
     }
     
     /**
-     * Bev�lkere das Feld mit F�chsen und Hasen.
+     * Bevoelkere das Feld mit Tieren aller Arten (siehe Tierart).
+     * Die Zufallszahlen dafuer kommen aus dem Strom von Schritt 0.
      * @param feld Das zu bev�lkernde Feld.
+     * @param geburt die Wahrscheinlichkeit je Art (siehe zuruecksetzen).
      */
-    private void bevoelkere(Feld feld)
+    private void bevoelkere(Feld feld, double[] geburt)
     {
-        Random rand = new Random();
+        Random rand = new Zufall(Zufall.ableiten(saat, 0, 0));
         feld.raeumen();
+        if(feld.istDuenn()) {
+            bevoelkereDuenn(feld, geburt, rand);
+            return;
+        }
         for(int zeile = 0; zeile < feld.gibTiefe(); zeile++) {
             for(int spalte = 0; spalte < feld.gibBreite(); spalte++) {
-                if(rand.nextDouble() <= FUCHSGEBURT_WAHRSCHEINLICH) {
-                    Fuchs fuchs = new Fuchs(true);
-                    fuchs.setzePosition(zeile, spalte);
-                    tiere.add(fuchs);
-                    feld.platziere(fuchs);
-                }
-                else if(rand.nextDouble() <= HASENGEBURT_WAHRSCHEINLICH) {
-                    Hase hase = new Hase(true);
-                    hase.setzePosition(zeile, spalte);
-                    tiere.add(hase);
-                    feld.platziere(hase);
+                int art = Tierart.waehleStartart(rand, geburt);
+                if(art >= 0) {
+                    siedleAn(feld, Tierart.erzeuge(art, true, rand, parameter), zeile, spalte);
                 }
                 // ansonsten die Position leer lassen
             }
         }
-        Collections.shuffle(tiere);
+        Collections.shuffle(tiere, rand);
+    }
+    
+    /**
+     * Bevoelkere ein duennes Feld mit derselben Verteilung wie
+     * bevoelkere, aber ohne jede Zelle anzusehen: der Abstand bis zur
+     * naechsten belegten Zelle ist geometrisch verteilt und wird direkt
+     * gezogen. Der Aufwand haengt so nur von der Anzahl der Tiere ab.
+     */
+    private void bevoelkereDuenn(Feld feld, double[] geburt, Random rand)
+    {
+        // belegung[i]: die Wahrscheinlichkeit, dass eine der ersten
+        // i + 1 Arten der Startreihenfolge eine Zelle belegt
+        double[] belegung = new double[Tierart.ANZAHL];
+        double bisher = 0;
+        for(int i = 0; i < Tierart.ANZAHL; i++) {
+            bisher += (1 - bisher) * geburt[Tierart.gibStartreihenfolge(i)];
+            belegung[i] = bisher;
+        }
+        double gesamt = belegung[Tierart.ANZAHL - 1];
+        if(gesamt <= 0) {
+            return;
+        }
+        double logFrei = Math.log(1 - gesamt);
+        long zellen = (long) feld.gibTiefe() * feld.gibBreite();
+        long zelle = -1;
+        while(true) {
+            // bei sehr kleiner Belegung kann der Sprung ueberlaufen
+            zelle += 1 + (long) (Math.log(1 - rand.nextDouble()) / logFrei);
+            if(zelle < 0 || zelle >= zellen) {
+                break;
+            }
+            int zeile = (int) (zelle / feld.gibBreite());
+            int spalte = (int) (zelle % feld.gibBreite());
+            // die Art einer belegten Zelle, die letzte ohne Vergleich
+            double wurf = rand.nextDouble() * gesamt;
+            int i = 0;
+            while(i < Tierart.ANZAHL - 1 && wurf >= belegung[i]) {
+                i++;
+            }
+            siedleAn(feld, Tierart.erzeuge(Tierart.gibStartreihenfolge(i), true, rand, parameter),
+                     zeile, spalte);
+        }
+        Collections.shuffle(tiere, rand);
+    }
+    
+    /**
+     * Setze ein neues Tier beim Bevoelkern an eine Position und zaehle es.
+     */
+    private void siedleAn(Feld feld, Tier tier, int zeile, int spalte)
+    {
+        tier.setzePosition(zeile, spalte);
+        tiere.add(tier);
+        feld.platziere(tier);
+        stats.erhoeheZaehler(tier.gibArt());
     }
 }
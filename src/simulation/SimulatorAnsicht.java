@@ -0,0 +1,28 @@
+package simulation;
+
+import java.awt.Color;
+
+/**
+ * Eine Ansicht des Simulationsfeldes. Der Simulator meldet seinen
+ * Zustand nur ueber diese Schnittstelle, er kennt keine konkrete
+ * (grafische) Ansicht.
+ * 
+ * @author marc
+ */
+public interface SimulatorAnsicht
+{
+    /**
+     * Definiere eine Farbe fuer die gegebene Tierklasse.
+     * @param tierklasse Das Klassenobjekt der Tierklasse.
+     * @param farbe Die zu benutzende Farbe fuer die Tierklasse.
+     */
+    void setzeFarbe(Class<? extends Tier> tierklasse, Color farbe);
+
+    /**
+     * Zeige den aktuellen Zustand des Feldes.
+     * @param schritt welcher Iterationsschritt ist dies.
+     * @param feld das Feld, das angezeigt werden soll.
+     * @param stats die aktuellen Zaehlerstaende der Tierarten.
+     */
+    void zeigeStatus(int schritt, Feld feld, FeldStatistik stats);
+}
@@ -0,0 +1,697 @@
+package simulation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Ein waagerechter Streifen des Feldes in einer VerteiltenSimulation:
+ * die Zeilen von bis bis (ausschliesslich) mit ihren Tieren. Jeder
+ * Streifen laeuft in einem eigenen Prozess (siehe Streifenprozess) und
+ * kennt nur seine eigenen Tiere.
+ *
+ * Ein Streifen besteht aus ganzen Kachelzeilen des ParallelenSchritts
+ * und wird genau wie dort simuliert: Kacheln in vier Farben, Tiere
+ * einer Kachel in der Reihenfolge der Tierliste, Zufallszahlen aus dem
+ * Strom der Kachel. Der Ablauf ist deshalb derselbe wie bei einem
+ * Simulator mit setzeParallelitaet und derselben Kachelgroesse.
+ *
+ * Die lokalen Felder reichen ueber die eigenen Zeilen hinaus um einen
+ * Saum von gibSaum Zeilen in die Nachbarstreifen; dort stehen
+ * Stellvertreter fuer die Tiere der Nachbarn. An jeder Grenze zu einem
+ * Nachbarn gibt es ein Band aus dem Saum und ebenso vielen eigenen
+ * Zeilen. Nach jeder der vier Phasen tauschen die Nachbarn aus, was sich
+ * in ihrem Band geaendert hat: welche Tiere im aktuellen Feld gestorben
+ * sind und welche Zellen im naechsten Feld neu belegt oder frei
+ * geworden sind. Weil in einer Phase an einer Grenze nur die Kacheln
+ * einer Seite agieren, aendert jede Zelle ihren Inhalt dabei hoechstens
+ * auf einer Seite. Am Ende des Schrittes wandern die Tiere, die jetzt
+ * in den Zeilen eines Nachbarn stehen, mit Alter und Futter-Level zu
+ * ihm und ersetzen dort ihre Stellvertreter.
+ *
+ * Ein Tier in einem Nachbarstreifen, das ein eigenes Tier frisst oder
+ * ueber die Grenze zieht, muss dasselbe Objekt sein wie das im
+ * aktuellen Feld. Jede geaenderte Zelle wird deshalb mit der Zelle
+ * geschickt, in der ihr Tier im aktuellen Feld stand; der Empfaenger
+ * setzt seinen Stellvertreter aus dieser Zelle um.
+ *
+ * @author marc
+ */
+class Streifen
+{
+    // Die Anzahl der Farben (und damit der Phasen) der Kacheln.
+    private static final int FARBEN = 4;
+
+    private final int tiefe, breite;
+    private final long saat;
+    private final Parameter parameter;
+    private final int kachelgroesse, kachelSpalten;
+    // Die eigenen Zeilen, im ganzen Feld gezaehlt
+    private final int von, bis;
+    // Die Zeile im ganzen Feld, mit der die lokalen Felder beginnen
+    private final int versatz;
+    // Die lokalen Felder: die eigenen Zeilen und der Saum
+    private Feld feld;
+    private Feld naechstesFeld;
+    // Die eigenen Tiere in der Reihenfolge, in der sie agieren
+    private final List<Tier> tiere;
+    // Die Nummer der ersten eigenen Kachel im ganzen Feld
+    private final int ersteKachel;
+    // Die Tiere jeder eigenen Kachel zu Beginn des Schrittes
+    private final List<List<Tier>> kacheltiere;
+    // Die ueberlebenden Tiere jeder eigenen Kachel
+    private final List<List<Tier>> ueberlebende;
+    // Ein Kontext je eigener Kachel
+    private final Schrittkontext[] kontexte;
+    // Die eigenen Kacheln jeder Farbe
+    private final int[][] phasen;
+    // Die Grenzen zu den Nachbarn, oder null am Rand des Feldes
+    private final Grenze oben, unten;
+    // Die eigenen Tiere jeder Art und die Geburten und Tode im letzten Schritt
+    private final FeldStatistik stats;
+
+    /**
+     * Erzeuge einen leeren Streifen.
+     * @param tiefe die Tiefe des ganzen Feldes.
+     * @param breite die Breite des ganzen Feldes.
+     * @param saat die Saat der Simulation.
+     * @param parameter die Eigenschaften der Tierarten.
+     * @param kachelgroesse die Kantenlaenge einer Kachel.
+     * @param von die erste eigene Zeile.
+     * @param bis die Zeile nach der letzten eigenen Zeile.
+     * @param nachOben die Verbindung zum oberen Nachbarn, oder null.
+     * @param nachUnten die Verbindung zum unteren Nachbarn, oder null.
+     */
+    Streifen(int tiefe, int breite, long saat, Parameter parameter, int kachelgroesse,
+             int von, int bis, Kanal nachOben, Kanal nachUnten)
+    {
+        this.tiefe = tiefe;
+        this.breite = breite;
+        this.saat = saat;
+        this.parameter = parameter;
+        this.kachelgroesse = kachelgroesse;
+        this.von = von;
+        this.bis = bis;
+        kachelSpalten = (breite + kachelgroesse - 1) / kachelgroesse;
+        int saum = gibSaum(parameter);
+        versatz = Math.max(von - saum, 0);
+        int ende = Math.min(bis + saum, tiefe);
+        feld = new Feld(ende - versatz, breite);
+        naechstesFeld = new Feld(ende - versatz, breite);
+        tiere = new ArrayList<Tier>();
+        stats = new FeldStatistik();
+
+        ersteKachel = (von / kachelgroesse) * kachelSpalten;
+        int kacheln = ((bis + kachelgroesse - 1) / kachelgroesse - von / kachelgroesse)
+                      * kachelSpalten;
+        kacheltiere = new ArrayList<List<Tier>>(kacheln);
+        ueberlebende = new ArrayList<List<Tier>>(kacheln);
+        kontexte = new Schrittkontext[kacheln];
+        for(int kachel = 0; kachel < kacheln; kachel++) {
+            kacheltiere.add(new ArrayList<Tier>());
+            ueberlebende.add(new ArrayList<Tier>());
+            kontexte[kachel] = new Schrittkontext(0);
+        }
+        int[] anzahl = new int[FARBEN];
+        for(int kachel = 0; kachel < kacheln; kachel++) {
+            anzahl[farbe(kachel)]++;
+        }
+        phasen = new int[FARBEN][];
+        for(int farbe = 0; farbe < FARBEN; farbe++) {
+            phasen[farbe] = new int[anzahl[farbe]];
+            anzahl[farbe] = 0;
+        }
+        for(int kachel = 0; kachel < kacheln; kachel++) {
+            int farbe = farbe(kachel);
+            phasen[farbe][anzahl[farbe]++] = kachel;
+        }
+
+        oben = nachOben != null ? new Grenze(nachOben, von, saum) : null;
+        unten = nachUnten != null ? new Grenze(nachUnten, bis, saum) : null;
+    }
+
+    /**
+     * @param parameter die Eigenschaften der Tierarten.
+     * @return wie viele Zeilen eines Nachbarstreifens ein Streifen
+     *         kennen muss: so weit, wie ein Jaeger sieht, und
+     *         mindestens die zwei Zeilen, in die ein Tier schreiben kann.
+     */
+    static int gibSaum(Parameter parameter)
+    {
+        return Math.max(2, parameter.gibMaxSichtweite());
+    }
+
+    /**
+     * Teile ein Feld in Streifen aus ganzen Kachelzeilen, die moeglichst
+     * gleich hoch sind. Jeder Streifen muss so hoch wie der Saum sein,
+     * damit der Saum eines Nachbarn nicht ueber ihn hinausreicht, und
+     * ein Streifen mit zwei Nachbarn noch zwei Zeilen mehr: was der
+     * eine Nachbar in seine Zeilen schreibt, darf nicht im Saum des
+     * anderen liegen.
+     * @param tiefe die Tiefe des Feldes.
+     * @param kachelgroesse die Kantenlaenge einer Kachel.
+     * @param anzahl die Anzahl der Streifen.
+     * @param parameter die Eigenschaften der Tierarten.
+     * @return die Grenzen der Streifen: Streifen i hat die Zeilen von
+     *         grenzen[i] bis grenzen[i + 1] (ausschliesslich).
+     * @throws IllegalArgumentException wenn die Kacheln zu klein sind
+     *         oder das Feld nicht fuer so viele Streifen reicht.
+     */
+    static int[] teile(int tiefe, int kachelgroesse, int anzahl, Parameter parameter)
+    {
+        if(kachelgroesse < 3 || kachelgroesse <= parameter.gibMaxSichtweite()) {
+            throw new IllegalArgumentException("Kachelgroesse " + kachelgroesse
+                + " muss mindestens 3 und groesser als die Sichtweite "
+                + parameter.gibMaxSichtweite() + " sein");
+        }
+        int kachelZeilen = (tiefe + kachelgroesse - 1) / kachelgroesse;
+        if(anzahl < 1 || anzahl > kachelZeilen) {
+            throw new IllegalArgumentException("Ein Feld mit " + kachelZeilen
+                                               + " Kachelzeilen hat keine " + anzahl + " Streifen");
+        }
+        int[] grenzen = new int[anzahl + 1];
+        for(int i = 0; i <= anzahl; i++) {
+            grenzen[i] = Math.min((int) ((long) i * kachelZeilen / anzahl) * kachelgroesse, tiefe);
+        }
+        int saum = gibSaum(parameter);
+        for(int i = 0; i < anzahl && anzahl > 1; i++) {
+            int noetig = i > 0 && i < anzahl - 1 ? saum + 2 : saum;
+            if(grenzen[i + 1] - grenzen[i] < noetig) {
+                throw new IllegalArgumentException("Streifen " + i + " hat nur "
+                    + (grenzen[i + 1] - grenzen[i]) + " Zeilen, gebraucht werden " + noetig);
+            }
+        }
+        return grenzen;
+    }
+
+    /**
+     * Bevoelkere den Streifen genau so, wie Simulator.bevoelkere das
+     * ganze Feld bevoelkert. Dazu werden die Zufallszahlen fuer alle
+     * Zellen des Feldes gezogen und das Mischen der Tierliste mit je
+     * einem int fuer jedes Tier des Feldes nachgespielt; behalten werden
+     * nur die eigenen Tiere und die Stellvertreter im Saum.
+     */
+    void bevoelkere()
+    {
+        Random rand = new Zufall(Zufall.ableiten(saat, 0, 0));
+        double[] geburt = parameter.gibStartWahrscheinlichkeiten();
+        int ende = versatz + feld.gibTiefe();
+        List<Tier> eigene = new ArrayList<Tier>();
+        // die eigenen Tiere sind im ganzen Feld die Tiere ab ersterEigener
+        int ersterEigener = 0;
+        int anzahl = 0;
+        for(int zeile = 0; zeile < tiefe; zeile++) {
+            if(zeile == von) {
+                ersterEigener = anzahl;
+            }
+            for(int spalte = 0; spalte < breite; spalte++) {
+                int art = Tierart.waehleStartart(rand, geburt);
+                if(art < 0) {
+                    continue;
+                }
+                Tier tier = Tierart.erzeuge(art, true, rand, parameter);
+                anzahl++;
+                if(zeile >= versatz && zeile < ende) {
+                    tier.setzePosition(zeile - versatz, spalte);
+                    feld.platziere(tier);
+                }
+                if(zeile >= von && zeile < bis) {
+                    eigene.add(tier);
+                    stats.erhoeheZaehler(tier.gibArt());
+                }
+            }
+        }
+
+        // wie Collections.shuffle auf der Tierliste des ganzen Feldes
+        int[] reihenfolge = new int[anzahl];
+        for(int i = 0; i < anzahl; i++) {
+            reihenfolge[i] = i;
+        }
+        for(int i = anzahl; i > 1; i--) {
+            int j = rand.nextInt(i);
+            int tausch = reihenfolge[i - 1];
+            reihenfolge[i - 1] = reihenfolge[j];
+            reihenfolge[j] = tausch;
+        }
+        tiere.clear();
+        for(int i = 0; i < anzahl; i++) {
+            int eigener = reihenfolge[i] - ersterEigener;
+            if(eigener >= 0 && eigener < eigene.size()) {
+                tiere.add(eigene.get(eigener));
+            }
+        }
+    }
+
+    /**
+     * Fuehre einen Schritt aus, gemeinsam mit den Nachbarn, die
+     * denselben Schritt ausfuehren.
+     * @param schritt die Nummer des Schrittes.
+     * @throws IOException wenn die Verbindung zu einem Nachbarn
+     *         gestoert ist.
+     */
+    void simuliereSchritt(int schritt) throws IOException
+    {
+        stats.beginneSchritt();
+        if(parameter.gibMaxSichtweite() > 1) {
+            feld.erneuereIndex();
+        }
+        if(oben != null) {
+            oben.neuerSchritt();
+        }
+        if(unten != null) {
+            unten.neuerSchritt();
+        }
+        for(List<Tier> liste : kacheltiere) {
+            liste.clear();
+        }
+        for(Tier tier : tiere) {
+            kacheltiere.get(kachel(tier)).add(tier);
+        }
+
+        for(int farbe = 0; farbe < FARBEN; farbe++) {
+            for(int kachel : phasen[farbe]) {
+                agiere(kachel, schritt);
+            }
+            // auch ohne eigene Kachel dieser Farbe, damit die Nachbarn nicht warten
+            tausche();
+        }
+        wandere();
+        for(Schrittkontext kontext : kontexte) {
+            kontext.uebertrageZaehler(stats);
+        }
+
+        Feld temp = feld;
+        feld = naechstesFeld;
+        naechstesFeld = temp;
+        naechstesFeld.raeumen();
+    }
+
+    /**
+     * @return die Anzahl der eigenen Tiere jeder Art und die Geburten
+     *         und Tode des letzten Schrittes.
+     */
+    FeldStatistik gibStatistik()
+    {
+        return stats;
+    }
+
+    /**
+     * Lasse die Tiere einer eigenen Kachel agieren, wie
+     * ParallelerSchritt.agiere.
+     */
+    private void agiere(int kachel, int schritt)
+    {
+        Schrittkontext kontext = kontexte[kachel];
+        kontext.beginneSchritt(feld, naechstesFeld,
+                               Zufall.ableiten(saat, schritt, ersteKachel + kachel));
+        List<Tier> kachelliste = kacheltiere.get(kachel);
+        List<Tier> lebende = ueberlebende.get(kachel);
+        lebende.clear();
+        for(int i = 0; i < kachelliste.size(); i++) {
+            Tier tier = kachelliste.get(i);
+            boolean lebteVorher = tier.istLebendig();
+            tier.agiere(kontext);
+            if(tier.istLebendig()) {
+                lebende.add(tier);
+            }
+            else if(lebteVorher) {
+                kontext.gestorben(tier);
+            }
+        }
+    }
+
+    /**
+     * Tausche mit beiden Nachbarn die Aenderungen in den Baendern aus.
+     */
+    private void tausche() throws IOException
+    {
+        if(oben != null) {
+            oben.schreibeAenderungen();
+        }
+        if(unten != null) {
+            unten.schreibeAenderungen();
+        }
+        tauscheNachrichten();
+        if(oben != null) {
+            oben.uebernimmAenderungen();
+        }
+        if(unten != null) {
+            unten.uebernimmAenderungen();
+        }
+        // erst jetzt, denn die Baender koennen sich ueberlappen
+        if(oben != null) {
+            oben.merkeStand();
+        }
+        if(unten != null) {
+            unten.merkeStand();
+        }
+    }
+
+    /**
+     * Schicke die Tiere, die jetzt in den Zeilen eines Nachbarn stehen,
+     * zu ihm, und nimm die Tiere der Nachbarn auf. Die neue Tierliste
+     * ist wie beim ParallelenSchritt nach Kacheln geordnet: erst die
+     * Ueberlebenden von oben, die eigenen und die von unten, dann ebenso
+     * die Neugeborenen. Tote Tiere tun im naechsten Schritt nichts mehr
+     * und werden gleich weggelassen.
+     */
+    private void wandere() throws IOException
+    {
+        if(oben != null) {
+            oben.beginneWanderung();
+        }
+        if(unten != null) {
+            unten.beginneWanderung();
+        }
+        List<Tier> bleibende = new ArrayList<Tier>();
+        for(List<Tier> lebende : ueberlebende) {
+            for(Tier tier : lebende) {
+                verteile(tier, bleibende);
+            }
+        }
+        if(oben != null) {
+            oben.naechsteListe();
+        }
+        if(unten != null) {
+            unten.naechsteListe();
+        }
+        List<Tier> neugeborene = new ArrayList<Tier>();
+        for(Schrittkontext kontext : kontexte) {
+            for(Tier tier : kontext.gibNeueTiere()) {
+                verteile(tier, neugeborene);
+            }
+        }
+        if(oben != null) {
+            oben.beendeWanderung();
+        }
+        if(unten != null) {
+            unten.beendeWanderung();
+        }
+        tauscheNachrichten();
+
+        tiere.clear();
+        if(oben != null) {
+            oben.empfangeTiere(tiere);
+        }
+        tiere.addAll(bleibende);
+        if(unten != null) {
+            unten.empfangeTiere(tiere);
+        }
+        if(oben != null) {
+            oben.empfangeTiere(tiere);
+        }
+        tiere.addAll(neugeborene);
+        if(unten != null) {
+            unten.empfangeTiere(tiere);
+        }
+    }
+
+    /**
+     * Behalte ein lebendes Tier in den eigenen Zeilen oder schicke es
+     * zu dem Nachbarn, in dessen Zeilen es steht.
+     */
+    private void verteile(Tier tier, List<Tier> bleibende)
+    {
+        if(!tier.istLebendig()) {
+            return;
+        }
+        int zeile = tier.gibZeile() + versatz;
+        if(zeile < von) {
+            oben.schreibeTier(tier);
+        }
+        else if(zeile >= bis) {
+            unten.schreibeTier(tier);
+        }
+        else {
+            bleibende.add(tier);
+        }
+    }
+
+    /**
+     * Schicke die vorbereiteten Nachrichten an beide Nachbarn und
+     * empfange ihre. Von zwei Nachbarn schickt immer der obere zuerst;
+     * so wartet nie ein Streifen auf einen, der selbst wartet.
+     */
+    private void tauscheNachrichten() throws IOException
+    {
+        if(oben != null) {
+            oben.kanal.empfange();
+            oben.kanal.sende();
+        }
+        if(unten != null) {
+            unten.kanal.sende();
+            unten.kanal.empfange();
+        }
+    }
+
+    /**
+     * @return die Nummer der eigenen Kachel, in der ein eigenes Tier steht.
+     */
+    private int kachel(Tier tier)
+    {
+        return ((tier.gibZeile() + versatz) / kachelgroesse) * kachelSpalten
+               + tier.gibSpalte() / kachelgroesse - ersteKachel;
+    }
+
+    /**
+     * @return die Farbe einer eigenen Kachel (0 bis FARBEN-1), wie im
+     *         ParallelenSchritt aus ihrer Lage im ganzen Feld.
+     */
+    private int farbe(int kachel)
+    {
+        int kachelZeile = (ersteKachel + kachel) / kachelSpalten;
+        int kachelSpalte = kachel % kachelSpalten;
+        return (kachelZeile % 2) * 2 + kachelSpalte % 2;
+    }
+
+    /**
+     * Die Grenze zu einem Nachbarn mit ihrem Band: den Zeilen von
+     * grenze - saum bis grenze + saum (ausschliesslich), gezaehlt im
+     * ganzen Feld. Die Zellen des Bandes haben einen Index
+     * (zeile - erste) * breite + spalte.
+     */
+    private class Grenze
+    {
+        private final Kanal kanal;
+        private final int erste, letzte;
+        // Der Inhalt des naechsten Feldes beim letzten Austausch
+        private final Tier[] vorher;
+        // Ist das tote Tier in dieser Zelle des aktuellen Feldes schon bekannt?
+        private final boolean[] totGemeldet;
+        // Die Stelle und die Anzahl der Tiere beim Wandern
+        private int stelle;
+        private int anzahl;
+
+        Grenze(Kanal kanal, int grenze, int saum)
+        {
+            this.kanal = kanal;
+            erste = grenze - saum;
+            letzte = grenze + saum;
+            vorher = new Tier[(letzte - erste) * breite];
+            totGemeldet = new boolean[vorher.length];
+        }
+
+        /**
+         * Vergiss den Stand des letzten Schrittes; das naechste Feld
+         * ist zu Beginn eines Schrittes leer.
+         */
+        void neuerSchritt()
+        {
+            Arrays.fill(vorher, null);
+            Arrays.fill(totGemeldet, false);
+        }
+
+        /**
+         * Schreibe die Aenderungen im Band seit dem letzten Austausch
+         * in eine Nachricht: erst die neu gestorbenen Tiere im aktuellen
+         * Feld, dann die geaenderten Zellen im naechsten Feld.
+         */
+        void schreibeAenderungen()
+        {
+            kanal.beginne();
+            int tote = kanal.reserviereInt();
+            int anzahlTote = 0;
+            for(int zeile = erste; zeile < letzte; zeile++) {
+                for(int spalte = 0; spalte < breite; spalte++) {
+                    int index = (zeile - erste) * breite + spalte;
+                    Tier tier = feld.gibTierAn(zeile - versatz, spalte);
+                    if(tier != null && !tier.istLebendig() && !totGemeldet[index]) {
+                        totGemeldet[index] = true;
+                        kanal.schreibeInt(zeile);
+                        kanal.schreibeInt(spalte);
+                        anzahlTote++;
+                    }
+                }
+            }
+            kanal.setzeInt(tote, anzahlTote);
+
+            int aenderungen = kanal.reserviereInt();
+            int anzahlAenderungen = 0;
+            for(int zeile = erste; zeile < letzte; zeile++) {
+                for(int spalte = 0; spalte < breite; spalte++) {
+                    Tier tier = naechstesFeld.gibTierAn(zeile - versatz, spalte);
+                    if(tier == vorher[(zeile - erste) * breite + spalte]) {
+                        continue;
+                    }
+                    kanal.schreibeInt(zeile);
+                    kanal.schreibeInt(spalte);
+                    if(tier == null) {
+                        kanal.schreibeByte(-1);
+                    }
+                    else {
+                        kanal.schreibeByte(tier.gibArt());
+                        kanal.schreibeLong(herkunft(tier));
+                    }
+                    anzahlAenderungen++;
+                }
+            }
+            kanal.setzeInt(aenderungen, anzahlAenderungen);
+        }
+
+        /**
+         * Uebernimm die empfangenen Aenderungen des Nachbarn.
+         */
+        void uebernimmAenderungen()
+        {
+            int tote = kanal.liesInt();
+            for(int i = 0; i < tote; i++) {
+                int zeile = kanal.liesInt();
+                int spalte = kanal.liesInt();
+                Tier tier = feld.gibTierAn(zeile - versatz, spalte);
+                if(tier != null) {
+                    tier.setzeGestorben();
+                }
+                totGemeldet[(zeile - erste) * breite + spalte] = true;
+            }
+            int aenderungen = kanal.liesInt();
+            for(int i = 0; i < aenderungen; i++) {
+                int zeile = kanal.liesInt() - versatz;
+                int spalte = kanal.liesInt();
+                int art = kanal.liesByte();
+                Tier alt = naechstesFeld.gibTierAn(zeile, spalte);
+                if(alt != null) {
+                    naechstesFeld.entferne(alt);
+                }
+                if(art >= 0) {
+                    Tier tier = stellvertreter(art, kanal.liesLong());
+                    tier.setzePosition(zeile, spalte);
+                    naechstesFeld.platziere(tier);
+                }
+            }
+        }
+
+        /**
+         * Merke den Inhalt des naechsten Feldes im Band fuer den
+         * naechsten Austausch.
+         */
+        void merkeStand()
+        {
+            for(int zeile = erste; zeile < letzte; zeile++) {
+                for(int spalte = 0; spalte < breite; spalte++) {
+                    vorher[(zeile - erste) * breite + spalte] =
+                        naechstesFeld.gibTierAn(zeile - versatz, spalte);
+                }
+            }
+        }
+
+        /**
+         * Beginne eine Liste wandernder Tiere. Eine Nachricht hat zwei
+         * Listen: die Ueberlebenden und die Neugeborenen.
+         */
+        void beginneWanderung()
+        {
+            kanal.beginne();
+            stelle = kanal.reserviereInt();
+            anzahl = 0;
+        }
+
+        /**
+         * Schliesse die Liste der Ueberlebenden ab und beginne die der
+         * Neugeborenen.
+         */
+        void naechsteListe()
+        {
+            kanal.setzeInt(stelle, anzahl);
+            stelle = kanal.reserviereInt();
+            anzahl = 0;
+        }
+
+        void beendeWanderung()
+        {
+            kanal.setzeInt(stelle, anzahl);
+        }
+
+        /**
+         * Schreibe ein Tier, das zum Nachbarn wandert.
+         */
+        void schreibeTier(Tier tier)
+        {
+            kanal.schreibeInt(tier.gibZeile() + versatz);
+            kanal.schreibeInt(tier.gibSpalte());
+            kanal.schreibeByte(tier.gibArt());
+            kanal.schreibeInt(tier.gibAlter());
+            kanal.schreibeInt(tier.gibFutterLevel());
+            anzahl++;
+        }
+
+        /**
+         * Lies die naechste Liste gewanderter Tiere, setze jedes an die
+         * Stelle seines Stellvertreters und haenge es an eine Liste an.
+         */
+        void empfangeTiere(List<Tier> ziel)
+        {
+            int tiereInListe = kanal.liesInt();
+            for(int i = 0; i < tiereInListe; i++) {
+                int zeile = kanal.liesInt() - versatz;
+                int spalte = kanal.liesInt();
+                Tier tier = Tierart.erzeuge(kanal.liesByte(), false, null, parameter);
+                tier.setzeAlter(kanal.liesInt());
+                tier.setzeFutterLevel(kanal.liesInt());
+                tier.setzePosition(zeile, spalte);
+                naechstesFeld.platziere(tier);
+                ziel.add(tier);
+            }
+        }
+
+        /**
+         * @return die Zelle im ganzen Feld, in der ein eigenes Tier im
+         *         aktuellen Feld stand, oder Position.KEINE fuer ein
+         *         neugeborenes. Ein Tier zieht hoechstens eine Zelle weit.
+         */
+        private long herkunft(Tier tier)
+        {
+            int zeile = tier.gibZeile();
+            int spalte = tier.gibSpalte();
+            for(int z = Math.max(zeile - 1, 0); z <= Math.min(zeile + 1, feld.gibTiefe() - 1); z++) {
+                for(int s = Math.max(spalte - 1, 0); s <= Math.min(spalte + 1, breite - 1); s++) {
+                    if(feld.gibTierAn(z, s) == tier) {
+                        return Position.packe(z + versatz, s);
+                    }
+                }
+            }
+            return Position.KEINE;
+        }
+
+        /**
+         * @return den Stellvertreter aus dem aktuellen Feld, der aus der
+         *         Zelle herkunft gezogen ist, oder einen neuen, wenn
+         *         die Zelle ausserhalb des lokalen Feldes liegt oder das
+         *         Tier neugeboren ist.
+         */
+        private Tier stellvertreter(int art, long herkunft)
+        {
+            if(herkunft != Position.KEINE) {
+                int zeile = Position.zeileVon(herkunft) - versatz;
+                if(zeile >= 0 && zeile < feld.gibTiefe()) {
+                    Tier tier = feld.gibTierAn(zeile, Position.spalteVon(herkunft));
+                    if(tier != null) {
+                        return tier;
+                    }
+                }
+            }
+            return Tierart.erzeuge(art, false, null, parameter);
+        }
+    }
+}
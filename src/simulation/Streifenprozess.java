@@ -0,0 +1,123 @@
+package simulation;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Ein Prozess, der einen Streifen einer VerteiltenSimulation rechnet.
+ * Er wird mit dem Rechner und dem Port der VerteiltenSimulation
+ * gestartet, etwa
+ * <pre>
+ *   java -cp Simulation.jar simulation.Streifenprozess rechner 4711
+ * </pre>
+ * und erhaelt von ihr seinen Streifen, die Parameter und die Adresse
+ * seines oberen Nachbarn. Mit den Nachbarn ist er direkt verbunden;
+ * der VerteiltenSimulation meldet er nur die Zaehler jedes Schrittes.
+ * Den Port fuer den unteren Nachbarn oeffnet er nur an der Adresse,
+ * von der aus er die VerteilteSimulation erreicht; unter dieser
+ * Adresse gibt sie ihn dem Nachbarn weiter.
+ *
+ * Ablauf der Nachrichten mit der VerteiltenSimulation:
+ * <pre>
+ *   an sie:  int port                 Port fuer den unteren Nachbarn
+ *   von ihr: int index, int anzahl, int tiefe, int breite, long saat,
+ *            int kachelgroesse, int von, int bis,
+ *            int n, Text zuweisung[n], Text rechner, int port
+ *                                     der Streifen und der obere Nachbar
+ *   an sie:  int anzahl[art]          nach dem Bevoelkern
+ *   von ihr: int schritt              0 beendet den Prozess
+ *   an sie:  int geburten, tode, gefressen [art]
+ * </pre>
+ *
+ * @author marc
+ */
+public class Streifenprozess
+{
+    private Streifenprozess()
+    {
+    }
+
+    /**
+     * @param args der Rechner und der Port der VerteiltenSimulation.
+     * @throws IOException wenn eine Verbindung gestoert ist.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if(args.length != 2) {
+            System.err.println("Aufruf: Streifenprozess rechner port");
+            System.exit(2);
+        }
+        SocketChannel verbindung = SocketChannel.open(
+            new InetSocketAddress(args[0], Integer.parseInt(args[1])));
+        Kanal koordinator = new Kanal(verbindung);
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(
+            ((InetSocketAddress) verbindung.getLocalAddress()).getAddress(), 0));
+        koordinator.beginne();
+        koordinator.schreibeInt(server.socket().getLocalPort());
+        koordinator.sende();
+
+        koordinator.empfange();
+        int index = koordinator.liesInt();
+        int anzahl = koordinator.liesInt();
+        int tiefe = koordinator.liesInt();
+        int breite = koordinator.liesInt();
+        long saat = koordinator.liesLong();
+        int kachelgroesse = koordinator.liesInt();
+        int von = koordinator.liesInt();
+        int bis = koordinator.liesInt();
+        Parameter parameter = Parameter.STANDARD;
+        int zuweisungen = koordinator.liesInt();
+        for(int i = 0; i < zuweisungen; i++) {
+            parameter = parameter.mit(koordinator.liesText());
+        }
+        String obenRechner = koordinator.liesText();
+        int obenPort = koordinator.liesInt();
+
+        // der obere Nachbar wartet schon an seinem Port
+        Kanal oben = null;
+        if(index > 0) {
+            oben = new Kanal(SocketChannel.open(new InetSocketAddress(obenRechner, obenPort)));
+        }
+        Kanal unten = null;
+        if(index < anzahl - 1) {
+            unten = new Kanal(server.accept());
+        }
+        server.close();
+
+        Streifen streifen = new Streifen(tiefe, breite, saat, parameter, kachelgroesse,
+                                         von, bis, oben, unten);
+        streifen.bevoelkere();
+        FeldStatistik stats = streifen.gibStatistik();
+        koordinator.beginne();
+        for(int art = 0; art < Tierart.ANZAHL; art++) {
+            koordinator.schreibeInt(stats.gibAnzahl(art));
+        }
+        koordinator.sende();
+
+        while(true) {
+            koordinator.empfange();
+            int schritt = koordinator.liesInt();
+            if(schritt == 0) {
+                break;
+            }
+            streifen.simuliereSchritt(schritt);
+            koordinator.beginne();
+            for(int art = 0; art < Tierart.ANZAHL; art++) {
+                koordinator.schreibeInt(stats.gibGeburten(art));
+                koordinator.schreibeInt(stats.gibTode(art));
+                koordinator.schreibeInt(stats.gibGefressen(art));
+            }
+            koordinator.sende();
+        }
+        if(oben != null) {
+            oben.schliesse();
+        }
+        if(unten != null) {
+            unten.schliesse();
+        }
+        koordinator.schliesse();
+    }
+}
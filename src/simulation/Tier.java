@@ -1,7 +1,5 @@
 package simulation;
 
-import java.util.List;
-
 /**
  * Tier ist eine abstrakte Superklasse f�r Tiere. 
  * Sie verwaltet Eigenschaften, die alle Tiere gemein haben,
@@ -16,14 +14,18 @@ public abstract class Tier
     private int alter;
     // Ist dieses Tier noch lebendig?
     private boolean lebendig;
-    // Die Position dieses Tieres.
-    private Position position;
+    // Die Position dieses Tieres als gepackte Koordinate.
+    private long koordinate;
+    // Die Nummer der Art dieses Tieres (siehe Tierart).
+    private final byte art;
 
     /**
      * Erzeuge ein Tier mit Alter Null (ein Neugeborenes).
+     * @param art die Nummer der Art (siehe Tierart).
      */
-    public Tier()
+    public Tier(int art)
     {
+        this.art = (byte) art;
         alter = 0;
         lebendig = true;
     }
@@ -31,12 +33,40 @@ public abstract class Tier
     /**
      * Lasse dieses Tier agieren - es soll das tun, was
      * es tun muss oder m�chte.
-     * @param aktuellesFeld Das aktuell belegte Feld.
-     * @param naechstesFeld Das zu belegende Feld.
-     * @param neueTiere Liste, in die neue Tiere einzuf�gen sind.
+     * @param kontext Der Kontext des Schrittes mit dem aktuell
+     *        belegten und dem zu belegenden Feld, der Liste fuer neue
+     *        Tiere und dem Zufallsgenerator.
+     */
+    abstract public void agiere(Schrittkontext kontext);
+    
+    /**
+     * Liefere die Art dieses Tieres. Die Nummer steht in einem Feld,
+     * damit haeufig durchlaufener Code ohne instanceof und ohne
+     * Aufruf einer ueberschriebenen Methode nach der Art fragen kann.
+     * @return die Nummer der Art (siehe Tierart).
      */
-    abstract public void agiere(Feld aktuellesFeld, 
-                             Feld naechstesFeld, List<Tier> neueTiere);
+    public final int gibArt()
+    {
+        return art;
+    }
+    
+    /**
+     * @return den Futter-Level dieses Tieres; 0 fuer Tiere, die nicht
+     *         jagen.
+     */
+    int gibFutterLevel()
+    {
+        return 0;
+    }
+    
+    /**
+     * Setze den Futter-Level dieses Tieres, etwa beim Laden. Tiere,
+     * die nicht jagen, ignorieren ihn.
+     * @param futterLevel der neue Futter-Level.
+     */
+    void setzeFutterLevel(int futterLevel)
+    {
+    }
     
     /**
      * Pr�fe, ob dieses Tier noch lebendig ist.
@@ -74,12 +104,38 @@ public abstract class Tier
     }
     
     /**
-     * Liefere die Position dieses Tieres.
+     * Liefere die Position dieses Tieres. Dabei wird jedes Mal ein
+     * neues Position-Objekt erzeugt; in haeufig durchlaufenem Code
+     * besser gibZeile und gibSpalte benutzen.
      * @return die Position dieses Tieres.
      */
     public Position gibPosition()
     {
-        return position;
+        return new Position(koordinate);
+    }
+
+    /**
+     * @return die Zeile der Position dieses Tieres.
+     */
+    public int gibZeile()
+    {
+        return Position.zeileVon(koordinate);
+    }
+
+    /**
+     * @return die Spalte der Position dieses Tieres.
+     */
+    public int gibSpalte()
+    {
+        return Position.spalteVon(koordinate);
+    }
+
+    /**
+     * @return die Position dieses Tieres als gepackte Koordinate.
+     */
+    public long gibKoordinate()
+    {
+        return koordinate;
     }
 
     /**
@@ -89,7 +145,7 @@ public abstract class Tier
      */
     public void setzePosition(int zeile, int spalte)
     {
-        this.position = new Position(zeile, spalte);
+        this.koordinate = Position.packe(zeile, spalte);
     }
 
     /**
@@ -98,6 +154,28 @@ public abstract class Tier
      */
     public void setzePosition(Position position)
     {
-        this.position = position;
+        this.koordinate = position.gibKoordinate();
+    }
+
+    /**
+     * Setze die Position dieses Tieres.
+     * @param koordinate die gepackte Koordinate der Position.
+     */
+    public void setzeKoordinate(long koordinate)
+    {
+        this.koordinate = koordinate;
+    }
+
+    /**
+     * Ziehe auf eine Position im naechsten Feld, wenn sie dort noch
+     * frei ist.
+     * @param kontext der Kontext des Schrittes.
+     * @param koordinate die gepackte Koordinate der neuen Position.
+     * @return true, wenn das Tier dort platziert wurde.
+     */
+    protected boolean zieheNach(Schrittkontext kontext, long koordinate)
+    {
+        setzeKoordinate(koordinate);
+        return kontext.besetze(this);
     }
 }
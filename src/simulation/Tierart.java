@@ -0,0 +1,232 @@
+package simulation;
+
+import java.awt.Color;
+import java.util.Random;
+
+/**
+ * Das Verzeichnis der Tierarten der Simulation. Jede Art hat eine
+ * kleine Nummer, die als Index in Arrays dient, die fuer jede Art
+ * einen Eintrag haben, etwa die Zaehler der FeldStatistik oder die
+ * Farben der Ansicht. Jedes Tier kennt die Nummer seiner Art (siehe
+ * Tier.gibArt).
+ *
+ * Eine Art ist eine Zeile in ARTEN: ihre Klasse, ihre Farbe, ihre
+ * Standardparameter (darin die Wahrscheinlichkeit, mit der sie eine
+ * Zelle beim Bevoelkern belegt) und ein Erzeuger fuer ihre Tiere. Wer
+ * wen frisst, steht in NAHRUNGSKETTE, in welcher Reihenfolge beim
+ * Bevoelkern gewuerfelt wird, in BEVOELKERUNG. Simulator, Streifen,
+ * Parameter und KompaktSimulator lesen nur diese Tabellen; fuer eine
+ * neue Art sind also ausser ihrer Klasse nur hier Eintraege noetig.
+ * Der KompaktSimulator spielt eine Art, die etwas frisst, wie einen
+ * Fuchs und jede andere wie einen Hasen.
+ *
+ * @author marc
+ */
+public final class Tierart
+{
+    /**
+     * Erzeugt die Tiere einer Art.
+     */
+    public interface Erzeuger
+    {
+        /**
+         * @param zufaelligesAlter soll das Tier ein zufaelliges Alter
+         *        haben?
+         * @param rand der Zufallsgenerator dafuer, oder null ohne
+         *        zufaelliges Alter.
+         * @param parameter die Eigenschaften der Art.
+         * @return das neue Tier.
+         */
+        Tier erzeuge(boolean zufaelligesAlter, Random rand, Artparameter parameter);
+    }
+
+    // Die Nummern der Arten, Index in ARTEN.
+    public static final int HASE = 0;
+    public static final int FUCHS = 1;
+
+    // Eine Zeile je Art, in der Reihenfolge ihrer Nummern.
+    private static final Tierart[] ARTEN = {
+        new Tierart(Hase.class, Color.orange, Artparameter.STANDARD_HASE, new Erzeuger() {
+            public Tier erzeuge(boolean zufaelligesAlter, Random rand, Artparameter parameter)
+            {
+                return new Hase(zufaelligesAlter, rand, parameter);
+            }
+        }),
+        new Tierart(Fuchs.class, Color.blue, Artparameter.STANDARD_FUCHS, new Erzeuger() {
+            public Tier erzeuge(boolean zufaelligesAlter, Random rand, Artparameter parameter)
+            {
+                return new Fuchs(zufaelligesAlter, rand, parameter);
+            }
+        })
+    };
+    // Die Anzahl der Arten.
+    public static final int ANZAHL = ARTEN.length;
+    // Wer wen frisst, als Paare { Jaeger, Beute }.
+    private static final int[][] NAHRUNGSKETTE = { { FUCHS, HASE } };
+    // Die Matrix dazu: BEUTE[jaeger * ANZAHL + beute]
+    private static final boolean[] BEUTE = erzeugeBeutematrix();
+    // Die Reihenfolge, in der beim Bevoelkern fuer jede Zelle
+    // gewuerfelt wird; jede Art kommt nur in Zellen, die keine Art
+    // davor belegt hat.
+    private static final int[] BEVOELKERUNG = { FUCHS, HASE };
+
+    // Die Klasse der Tiere dieser Art.
+    private final Class<? extends Tier> klasse;
+    // Die Standardfarbe in der Ansicht.
+    private final Color farbe;
+    // Die Eigenschaften, mit denen die Simulation schon immer lief.
+    private final Artparameter standard;
+    // Erzeugt die Tiere.
+    private final Erzeuger erzeuger;
+
+    private Tierart(Class<? extends Tier> klasse, Color farbe, Artparameter standard,
+                    Erzeuger erzeuger)
+    {
+        this.klasse = klasse;
+        this.farbe = farbe;
+        this.standard = standard;
+        this.erzeuger = erzeuger;
+    }
+
+    /**
+     * @param klasse die Klasse eines Tieres.
+     * @return die Nummer ihrer Art, oder -1, wenn die Klasse keine
+     *         Art der Simulation ist.
+     */
+    public static int gibArt(Class<? extends Tier> klasse)
+    {
+        for(int art = 0; art < ANZAHL; art++) {
+            if(ARTEN[art].klasse == klasse) {
+                return art;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param art die Nummer einer Art.
+     * @return die Klasse der Tiere dieser Art.
+     */
+    public static Class<? extends Tier> gibKlasse(int art)
+    {
+        return ARTEN[art].klasse;
+    }
+
+    /**
+     * @param art die Nummer einer Art.
+     * @return den Namen der Art (den Namen ihrer Klasse).
+     */
+    public static String gibName(int art)
+    {
+        return ARTEN[art].klasse.getName();
+    }
+
+    /**
+     * @param art die Nummer einer Art.
+     * @return den Namen der Art ohne Paket, etwa "Hase".
+     */
+    public static String gibKurzname(int art)
+    {
+        return ARTEN[art].klasse.getSimpleName();
+    }
+
+    /**
+     * @param art die Nummer einer Art.
+     * @return die Farbe, in der die Ansicht diese Art zeigt.
+     */
+    public static Color gibFarbe(int art)
+    {
+        return ARTEN[art].farbe;
+    }
+
+    /**
+     * @param art die Nummer einer Art.
+     * @return die Standardparameter der Art (siehe Parameter.STANDARD).
+     */
+    public static Artparameter gibStandardparameter(int art)
+    {
+        return ARTEN[art].standard;
+    }
+
+    /**
+     * Entscheide, ob Tiere einer Art Tiere einer anderen fressen.
+     * @param jaeger die Nummer der fressenden Art.
+     * @param beute die Nummer der moeglichen Beute.
+     * @return true, wenn jaeger beute frisst.
+     */
+    public static boolean frisst(int jaeger, int beute)
+    {
+        return BEUTE[jaeger * ANZAHL + beute];
+    }
+
+    /**
+     * @param art die Nummer einer Art.
+     * @return true, wenn die Art irgendeine Art frisst. Jaeger hungern
+     *         und brauchen eine Saettigung (siehe Artparameter).
+     */
+    public static boolean istJaeger(int art)
+    {
+        for(int beute = 0; beute < ANZAHL; beute++) {
+            if(frisst(art, beute)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param i die Stelle, 0 bis ANZAHL - 1.
+     * @return die Art, fuer die beim Bevoelkern einer Zelle an der
+     *         Stelle i gewuerfelt wird.
+     */
+    public static int gibStartreihenfolge(int i)
+    {
+        return BEVOELKERUNG[i];
+    }
+
+    /**
+     * Wuerfle beim Bevoelkern die Art fuer eine Zelle: fuer jede Art in
+     * der Startreihenfolge eine Zufallszahl, bis eine Art ihre
+     * Wahrscheinlichkeit trifft.
+     * @param rand der Zufallsgenerator.
+     * @param wahrscheinlichkeiten die Wahrscheinlichkeit je Art, Index
+     *        ist die Nummer der Art.
+     * @return die Nummer der Art, oder -1 fuer eine leere Zelle.
+     */
+    public static int waehleStartart(Random rand, double[] wahrscheinlichkeiten)
+    {
+        for(int art : BEVOELKERUNG) {
+            if(rand.nextDouble() <= wahrscheinlichkeiten[art]) {
+                return art;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Erzeuge ein Tier einer Art.
+     * @param art die Nummer der Art.
+     * @param zufaelligesAlter soll das Tier ein zufaelliges Alter haben?
+     * @param rand der Zufallsgenerator dafuer, oder null ohne
+     *        zufaelliges Alter.
+     * @param parameter die Eigenschaften der Tierarten.
+     * @return das neue Tier.
+     */
+    public static Tier erzeuge(int art, boolean zufaelligesAlter, Random rand,
+                               Parameter parameter)
+    {
+        if(art < 0 || art >= ANZAHL) {
+            throw new IllegalArgumentException("Unbekannte Tierart: " + art);
+        }
+        return ARTEN[art].erzeuger.erzeuge(zufaelligesAlter, rand, parameter.gib(art));
+    }
+
+    private static boolean[] erzeugeBeutematrix()
+    {
+        boolean[] matrix = new boolean[ANZAHL * ANZAHL];
+        for(int[] paar : NAHRUNGSKETTE) {
+            matrix[paar[0] * ANZAHL + paar[1]] = true;
+        }
+        return matrix;
+    }
+}
@@ -0,0 +1,292 @@
+package simulation;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Ein Tierbestand speichert alle Tiere einer Simulation in parallelen
+ * Arrays von primitiven Werten statt als einzelne Hase- und
+ * Fuchs-Objekte. Ein Tier ist hier nur ein Index in diese Arrays;
+ * seine Position ist der Index seiner Zelle im Feld
+ * (zeile * breite + spalte).
+ *
+ * Tiere, die waehrend eines Schrittes sterben, werden nur markiert
+ * und am Ende des Schrittes mit verdichte() in einem Durchlauf
+ * entfernt. Die Reihenfolge der uebrigen Tiere bleibt dabei erhalten.
+ *
+ * @author marc
+ */
+public class Tierbestand
+{
+    // Markierung fuer Tiere, die am Ende des Schrittes entfernt werden.
+    public static final byte ENTFERNT = -1;
+
+    private static final int START_KAPAZITAET = 1024;
+
+    // Die Anzahl der belegten Eintraege in den Arrays.
+    private int anzahl;
+    // Die Eigenschaften der Tiere, je ein Eintrag pro Tier.
+    private byte[] art;
+    private boolean[] lebendig;
+    private int[] alter;
+    private int[] futterLevel;
+    private int[] zelle;
+    // Stirbt das Tier in diesem Schritt an Alter oder Hunger (siehe altere)?
+    private boolean[] faellig;
+    // Die Anzahl der lebendigen Tiere jeder Art.
+    private final int[] lebende;
+
+    /**
+     * Erzeuge einen leeren Tierbestand.
+     */
+    public Tierbestand()
+    {
+        art = new byte[START_KAPAZITAET];
+        lebendig = new boolean[START_KAPAZITAET];
+        alter = new int[START_KAPAZITAET];
+        futterLevel = new int[START_KAPAZITAET];
+        zelle = new int[START_KAPAZITAET];
+        faellig = new boolean[START_KAPAZITAET];
+        lebende = new int[Tierart.ANZAHL];
+    }
+
+    /**
+     * Fuege ein lebendiges Tier am Ende des Bestandes an.
+     * @param tierart die Nummer der Art (siehe Tierart).
+     * @param alter das Alter des Tieres.
+     * @param futterLevel der Futter-Level des Tieres (nur fuer Jaeger).
+     * @param zelle der Index der Zelle, in der das Tier steht.
+     * @return der Index des neuen Tieres.
+     */
+    public int hinzufuegen(byte tierart, int alter, int futterLevel, int zelle)
+    {
+        if(anzahl == art.length) {
+            vergroessern();
+        }
+        int index = anzahl++;
+        this.art[index] = tierart;
+        this.lebendig[index] = true;
+        this.alter[index] = alter;
+        this.futterLevel[index] = futterLevel;
+        this.zelle[index] = zelle;
+        lebende[tierart]++;
+        return index;
+    }
+
+    /**
+     * Entferne alle Tiere aus dem Bestand.
+     */
+    public void leeren()
+    {
+        anzahl = 0;
+        Arrays.fill(lebende, 0);
+    }
+
+    /**
+     * @return die Anzahl der Tiere im Bestand.
+     */
+    public int gibAnzahl()
+    {
+        return anzahl;
+    }
+
+    /**
+     * @param tierart die Nummer der Art (siehe Tierart).
+     * @return die Anzahl der lebendigen Tiere dieser Art.
+     */
+    public int gibAnzahlLebende(byte tierart)
+    {
+        return lebende[tierart];
+    }
+
+    /**
+     * @return die Nummer der Art des Tieres oder ENTFERNT.
+     */
+    public byte gibArt(int tier)
+    {
+        return art[tier];
+    }
+
+    /**
+     * Markiere das Tier, damit es beim naechsten Verdichten
+     * entfernt wird.
+     */
+    public void entferne(int tier)
+    {
+        art[tier] = ENTFERNT;
+    }
+
+    /**
+     * @return true wenn das Tier noch lebendig ist.
+     */
+    public boolean istLebendig(int tier)
+    {
+        return lebendig[tier];
+    }
+
+    /**
+     * Signalisiere dem Tier, dass es gestorben ist.
+     */
+    public void setzeGestorben(int tier)
+    {
+        if(lebendig[tier]) {
+            lebendig[tier] = false;
+            lebende[art[tier]]--;
+        }
+    }
+
+    /**
+     * @return das Alter des Tieres.
+     */
+    public int gibAlter(int tier)
+    {
+        return alter[tier];
+    }
+
+    /**
+     * Setze das Alter des Tieres.
+     */
+    public void setzeAlter(int tier, int alter)
+    {
+        this.alter[tier] = alter;
+    }
+
+    /**
+     * @return den Futter-Level des Tieres.
+     */
+    public int gibFutterLevel(int tier)
+    {
+        return futterLevel[tier];
+    }
+
+    /**
+     * Setze den Futter-Level des Tieres.
+     */
+    public void setzeFutterLevel(int tier, int futterLevel)
+    {
+        this.futterLevel[tier] = futterLevel;
+    }
+
+    /**
+     * @return den Index der Zelle, in der das Tier steht.
+     */
+    public int gibZelle(int tier)
+    {
+        return zelle[tier];
+    }
+
+    /**
+     * Setze die Zelle, in der das Tier steht.
+     */
+    public void setzeZelle(int tier, int zelle)
+    {
+        this.zelle[tier] = zelle;
+    }
+
+    /**
+     * Lasse alle Tiere in einem Durchlauf altern und die Jaeger
+     * hungern (siehe Massenphasen.altere). Ob ein Tier daran stirbt,
+     * liefert danach istFaellig.
+     * @param phasen die skalare oder die Vektor-Variante.
+     * @param maxAlter das hoechste Alter je Art.
+     * @param hunger um wie viel der Futter-Level je Art sinkt.
+     */
+    public void altere(Massenphasen phasen, int[] maxAlter, int[] hunger)
+    {
+        phasen.altere(art, alter, futterLevel, faellig, anzahl, maxAlter, hunger);
+    }
+
+    /**
+     * @return true, wenn das Tier beim letzten altere zu alt oder zu
+     *         hungrig geworden ist.
+     */
+    public boolean istFaellig(int tier)
+    {
+        return faellig[tier];
+    }
+
+    /**
+     * Entferne alle markierten Tiere in einem Durchlauf. Die
+     * verbleibenden Tiere ruecken nach vorne; Eintraege im gegebenen
+     * Gitter, die auf ein verschobenes Tier zeigen, werden angepasst.
+     * @param gitter das Gitter (Zelle -> Tierindex), in dem die Tiere
+     *               fuer den naechsten Schritt eingetragen sind.
+     */
+    public void verdichte(int[] gitter)
+    {
+        int ziel = 0;
+        for(int tier = 0; tier < anzahl; tier++) {
+            if(art[tier] == ENTFERNT) {
+                continue;
+            }
+            if(ziel != tier) {
+                kopiere(tier, ziel);
+                // nur umtragen, wenn das Tier nicht ueberschrieben wurde
+                if(gitter[zelle[ziel]] == tier) {
+                    gitter[zelle[ziel]] = ziel;
+                }
+            }
+            ziel++;
+        }
+        anzahl = ziel;
+    }
+
+    /**
+     * Bringe die Tiere in eine zufaellige Reihenfolge.
+     * @param rand der zu benutzende Zufallsgenerator.
+     */
+    public void mischen(Random rand)
+    {
+        for(int tier = anzahl - 1; tier > 0; tier--) {
+            tausche(tier, rand.nextInt(tier + 1));
+        }
+    }
+
+    /**
+     * Kopiere alle Eigenschaften eines Tieres an einen anderen Index.
+     */
+    private void kopiere(int von, int nach)
+    {
+        art[nach] = art[von];
+        lebendig[nach] = lebendig[von];
+        alter[nach] = alter[von];
+        futterLevel[nach] = futterLevel[von];
+        zelle[nach] = zelle[von];
+    }
+
+    /**
+     * Vertausche die Eigenschaften zweier Tiere.
+     */
+    private void tausche(int a, int b)
+    {
+        byte artA = art[a];
+        art[a] = art[b];
+        art[b] = artA;
+        boolean lebendigA = lebendig[a];
+        lebendig[a] = lebendig[b];
+        lebendig[b] = lebendigA;
+        int alterA = alter[a];
+        alter[a] = alter[b];
+        alter[b] = alterA;
+        int futterA = futterLevel[a];
+        futterLevel[a] = futterLevel[b];
+        futterLevel[b] = futterA;
+        int zelleA = zelle[a];
+        zelle[a] = zelle[b];
+        zelle[b] = zelleA;
+    }
+
+    /**
+     * Verdopple die Kapazitaet aller Arrays.
+     */
+    private void vergroessern()
+    {
+        int kapazitaet = art.length * 2;
+        art = Arrays.copyOf(art, kapazitaet);
+        lebendig = Arrays.copyOf(lebendig, kapazitaet);
+        alter = Arrays.copyOf(alter, kapazitaet);
+        futterLevel = Arrays.copyOf(futterLevel, kapazitaet);
+        zelle = Arrays.copyOf(zelle, kapazitaet);
+        faellig = Arrays.copyOf(faellig, kapazitaet);
+    }
+}
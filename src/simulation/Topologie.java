@@ -0,0 +1,24 @@
+package simulation;
+
+/**
+ * Wie die Raender eines Feldes mit ihren Nachbarn verbunden sind
+ * (siehe Feld.setzeTopologie).
+ *
+ * @author marc
+ */
+public enum Topologie
+{
+    /**
+     * Das Feld endet an seinen Raendern. Zellen am Rand haben weniger
+     * Nachbarn, und ein Tier, das hinaus will, bleibt stehen.
+     */
+    BEGRENZT,
+
+    /**
+     * Gegenueberliegende Raender sind verbunden wie bei einem Torus:
+     * Wer das Feld rechts verlaesst, kommt links wieder herein. Jede
+     * Zelle hat genau acht Nachbarn, und der Rand ist kein besonderer
+     * Ort.
+     */
+    TORUS
+}
@@ -0,0 +1,369 @@
+package simulation;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Eine Simulation, deren Feld in waagerechte Streifen geteilt ist, die
+ * in getrennten Prozessen gerechnet werden, auf diesem Rechner oder auf
+ * anderen (siehe Streifenprozess). So ist die Groesse des Feldes nicht
+ * mehr durch den Speicher einer einzigen JVM begrenzt.
+ *
+ * Die Streifen sind ganze Kachelzeilen des ParallelenSchritts und
+ * tauschen in jedem Schritt nur die Raender ihrer Felder und die
+ * wandernden Tiere direkt mit ihren Nachbarn aus (siehe Streifen).
+ * Mit derselben Saat, denselben Parametern und derselben Kachelgroesse
+ * ergibt sich genau derselbe Ablauf wie bei einem Simulator mit
+ * setzeParallelitaet, unabhaengig von der Anzahl der Streifen. Das Feld
+ * ist immer begrenzt.
+ *
+ * Die VerteilteSimulation selbst haelt keine Tiere, nur die Zaehler
+ * jeder Art, und gibt jeden Schritt einzeln frei. Benutzt wird sie so:
+ * <pre>
+ *   VerteilteSimulation sim = new VerteilteSimulation(1000, 2000, saat, parameter, 4);
+ *   sim.starteProzesse();   // oder Streifenprozesse mit gibPort von Hand starten
+ *   sim.verbinde();
+ *   sim.simuliere(500);
+ *   sim.beenden();
+ * </pre>
+ * Ohne Angabe einer Adresse ist der Port nur auf diesem Rechner
+ * erreichbar. Sollen sich Streifenprozesse von anderen Rechnern
+ * melden, muss die Adresse, an der sie den Port erreichen, dem
+ * Konstruktor uebergeben werden.
+ *
+ * @author marc
+ */
+public class VerteilteSimulation
+{
+    // Wie lange verbinde hoechstens zwischen zwei Streifenprozessen wartet
+    private static final long WARTEZEIT = 60000;
+
+    private final int tiefe, breite;
+    private final long saat;
+    private final Parameter parameter;
+    private final int kachelgroesse;
+    // Die Grenzen der Streifen (siehe Streifen.teile)
+    private final int[] grenzen;
+    // Der Port, an dem sich die Streifenprozesse melden
+    private final ServerSocketChannel server;
+    // Die Verbindungen zu den Streifenprozessen, nach Streifen geordnet
+    private Kanal[] streifen;
+    // Die mit starteProzesse gestarteten Prozesse
+    private final List<Process> prozesse;
+    // Die Anzahl der lebenden Tiere jeder Art
+    private final FeldStatistik stats;
+    private int schritt;
+
+    /**
+     * Erzeuge eine verteilte Simulation mit der Kachelgroesse, die
+     * Simulator.setzeParallelitaet ohne Angabe benutzt.
+     * @param tiefe die Tiefe des Feldes.
+     * @param breite die Breite des Feldes.
+     * @param saat die Saat, aus der alle Zufallszahlen abgeleitet werden.
+     * @param parameter die Eigenschaften der Tierarten.
+     * @param anzahl die Anzahl der Streifen.
+     * @throws IOException wenn kein Port geoeffnet werden kann.
+     */
+    public VerteilteSimulation(int tiefe, int breite, long saat, Parameter parameter,
+                               int anzahl) throws IOException
+    {
+        this(tiefe, breite, saat, parameter, anzahl,
+             Simulator.gibStandardKachelgroesse(parameter));
+    }
+
+    /**
+     * Erzeuge eine verteilte Simulation, deren Streifenprozesse alle
+     * auf diesem Rechner laufen.
+     * @param tiefe die Tiefe des Feldes.
+     * @param breite die Breite des Feldes.
+     * @param saat die Saat, aus der alle Zufallszahlen abgeleitet werden.
+     * @param parameter die Eigenschaften der Tierarten.
+     * @param anzahl die Anzahl der Streifen.
+     * @param kachelgroesse die Kantenlaenge einer Kachel (mindestens 3
+     *        und groesser als die Sichtweite jeder Art).
+     * @throws IllegalArgumentException wenn das Feld nicht in so viele
+     *         Streifen geteilt werden kann (siehe Streifen.teile).
+     * @throws IOException wenn kein Port geoeffnet werden kann.
+     */
+    public VerteilteSimulation(int tiefe, int breite, long saat, Parameter parameter,
+                               int anzahl, int kachelgroesse) throws IOException
+    {
+        this(tiefe, breite, saat, parameter, anzahl, kachelgroesse,
+             InetAddress.getLoopbackAddress());
+    }
+
+    /**
+     * Erzeuge eine verteilte Simulation und oeffne einen Port, an dem
+     * sich die Streifenprozesse melden.
+     * @param tiefe die Tiefe des Feldes.
+     * @param breite die Breite des Feldes.
+     * @param saat die Saat, aus der alle Zufallszahlen abgeleitet werden.
+     * @param parameter die Eigenschaften der Tierarten.
+     * @param anzahl die Anzahl der Streifen.
+     * @param kachelgroesse die Kantenlaenge einer Kachel (mindestens 3
+     *        und groesser als die Sichtweite jeder Art).
+     * @param adresse die Adresse dieses Rechners, an der der Port
+     *        geoeffnet wird; die Loopback-Adresse, wenn alle
+     *        Streifenprozesse auf diesem Rechner laufen.
+     * @throws IllegalArgumentException wenn das Feld nicht in so viele
+     *         Streifen geteilt werden kann (siehe Streifen.teile).
+     * @throws IOException wenn kein Port geoeffnet werden kann.
+     */
+    public VerteilteSimulation(int tiefe, int breite, long saat, Parameter parameter,
+                               int anzahl, int kachelgroesse, InetAddress adresse)
+        throws IOException
+    {
+        if(tiefe <= 0 || breite <= 0) {
+            throw new IllegalArgumentException("Ungueltige Abmessungen: " + tiefe + "x" + breite);
+        }
+        this.tiefe = tiefe;
+        this.breite = breite;
+        this.saat = saat;
+        this.parameter = parameter;
+        this.kachelgroesse = kachelgroesse;
+        grenzen = Streifen.teile(tiefe, kachelgroesse, anzahl, parameter);
+        prozesse = new ArrayList<Process>();
+        stats = new FeldStatistik();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(adresse, 0));
+    }
+
+    /**
+     * @return den Port, an dem sich die Streifenprozesse melden.
+     */
+    public int gibPort()
+    {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * @return die Anzahl der Streifen.
+     */
+    public int gibAnzahlStreifen()
+    {
+        return grenzen.length - 1;
+    }
+
+    /**
+     * Starte fuer jeden Streifen einen Streifenprozess auf diesem
+     * Rechner, mit derselben JVM und demselben Klassenpfad. Die
+     * Ausgaben der Prozesse erscheinen in der eigenen Ausgabe.
+     * @throws IOException wenn ein Prozess nicht gestartet werden kann.
+     */
+    public void starteProzesse() throws IOException
+    {
+        InetAddress adresse = ((InetSocketAddress) server.getLocalAddress()).getAddress();
+        if(adresse.isAnyLocalAddress()) {
+            adresse = InetAddress.getLoopbackAddress();
+        }
+        String java = new File(new File(System.getProperty("java.home"), "bin"), "java").getPath();
+        for(int i = 0; i < gibAnzahlStreifen(); i++) {
+            ProcessBuilder prozess = new ProcessBuilder(java, "-cp",
+                                                        System.getProperty("java.class.path"),
+                                                        Streifenprozess.class.getName(),
+                                                        adresse.getHostAddress(),
+                                                        String.valueOf(gibPort()));
+            prozesse.add(prozess.inheritIO().start());
+        }
+    }
+
+    /**
+     * Warte, bis sich fuer jeden Streifen ein Streifenprozess gemeldet
+     * hat, teile ihnen ihre Streifen zu und warte, bis alle ihren
+     * Streifen bevoelkert haben. Die Streifen werden in der
+     * Reihenfolge der Meldungen vergeben.
+     * @throws IOException wenn sich zu lange kein Prozess meldet, ein
+     *         gestarteter Prozess endet oder eine Verbindung gestoert ist.
+     */
+    public void verbinde() throws IOException
+    {
+        int anzahl = gibAnzahlStreifen();
+        streifen = new Kanal[anzahl];
+        int[] ports = new int[anzahl];
+        server.configureBlocking(false);
+        try(Selector auswahl = Selector.open()) {
+            server.register(auswahl, SelectionKey.OP_ACCEPT);
+            for(int i = 0; i < anzahl; i++) {
+                SocketChannel verbindung = server.accept();
+                long beginn = System.currentTimeMillis();
+                while(verbindung == null) {
+                    pruefeProzesse();
+                    if(System.currentTimeMillis() - beginn > WARTEZEIT) {
+                        throw new IOException("Nur " + i + " von " + anzahl
+                                              + " Streifenprozessen haben sich gemeldet");
+                    }
+                    auswahl.select(1000);
+                    auswahl.selectedKeys().clear();
+                    verbindung = server.accept();
+                }
+                streifen[i] = new Kanal(verbindung);
+                streifen[i].empfange();
+                ports[i] = streifen[i].liesInt();
+            }
+        }
+
+        String[] zuweisungen = parameter.gibZuweisungen();
+        for(int i = 0; i < anzahl; i++) {
+            Kanal kanal = streifen[i];
+            kanal.beginne();
+            kanal.schreibeInt(i);
+            kanal.schreibeInt(anzahl);
+            kanal.schreibeInt(tiefe);
+            kanal.schreibeInt(breite);
+            kanal.schreibeLong(saat);
+            kanal.schreibeInt(kachelgroesse);
+            kanal.schreibeInt(grenzen[i]);
+            kanal.schreibeInt(grenzen[i + 1]);
+            kanal.schreibeInt(zuweisungen.length);
+            for(String zuweisung : zuweisungen) {
+                kanal.schreibeText(zuweisung);
+            }
+            // der obere Nachbar ist unter der Adresse erreichbar, unter
+            // der er sich hier gemeldet hat
+            if(i > 0) {
+                InetSocketAddress oben =
+                    (InetSocketAddress) streifen[i - 1].gibVerbindung().getRemoteAddress();
+                kanal.schreibeText(oben.getAddress().getHostAddress());
+                kanal.schreibeInt(ports[i - 1]);
+            }
+            else {
+                kanal.schreibeText("");
+                kanal.schreibeInt(0);
+            }
+            kanal.sende();
+        }
+
+        schritt = 0;
+        stats.zuruecksetzen();
+        for(Kanal kanal : streifen) {
+            kanal.empfange();
+            for(int art = 0; art < Tierart.ANZAHL; art++) {
+                for(int tiere = kanal.liesInt(); tiere > 0; tiere--) {
+                    stats.erhoeheZaehler(art);
+                }
+            }
+        }
+    }
+
+    /**
+     * Fuehre die angegebene Anzahl an Simulationsschritten durch, wie
+     * Simulator.simuliere.
+     * @param schritte die Anzahl der Schritte.
+     * @throws IOException wenn eine Verbindung gestoert ist.
+     */
+    public void simuliere(int schritte) throws IOException
+    {
+        for(int i = 1; i <= schritte && istAktiv(); i++) {
+            simuliereEinenSchritt();
+        }
+    }
+
+    /**
+     * Lasse alle Streifen einen Schritt ausfuehren und zaehle ihre
+     * Geburten und Tode zusammen.
+     * @throws IOException wenn eine Verbindung gestoert ist.
+     */
+    public void simuliereEinenSchritt() throws IOException
+    {
+        schritt++;
+        for(Kanal kanal : streifen) {
+            kanal.beginne();
+            kanal.schreibeInt(schritt);
+            kanal.sende();
+        }
+        stats.beginneSchritt();
+        for(Kanal kanal : streifen) {
+            kanal.empfange();
+            for(int art = 0; art < Tierart.ANZAHL; art++) {
+                int geburten = kanal.liesInt();
+                int tode = kanal.liesInt();
+                int gefressen = kanal.liesInt();
+                stats.meldeSchritt(art, geburten, tode, gefressen);
+            }
+        }
+    }
+
+    /**
+     * @return true wenn noch mehr als eine Spezies lebendig ist.
+     */
+    public boolean istAktiv()
+    {
+        return stats.istAktiv();
+    }
+
+    /**
+     * @return die Anzahl der bisher ausgefuehrten Schritte.
+     */
+    public int gibSchritt()
+    {
+        return schritt;
+    }
+
+    /**
+     * @param art die Nummer der Art (siehe Tierart).
+     * @return die Anzahl der lebenden Tiere der Art nach dem letzten Schritt.
+     */
+    public int gibAnzahl(int art)
+    {
+        return stats.gibAnzahl(art);
+    }
+
+    /**
+     * @return eine Beschreibung, welche Tiere das Feld bevoelkern.
+     */
+    public String gibBewohnerInfo()
+    {
+        return stats.gibBewohnerInfo();
+    }
+
+    /**
+     * Beende alle Streifenprozesse und schliesse den Port. Mit
+     * starteProzesse gestartete Prozesse werden abgewartet.
+     * @throws IOException wenn eine Verbindung nicht geschlossen werden kann.
+     * @throws InterruptedException wenn der Thread beim Warten auf
+     *         einen Prozess unterbrochen wird.
+     */
+    public void beenden() throws IOException, InterruptedException
+    {
+        if(streifen != null) {
+            for(Kanal kanal : streifen) {
+                if(kanal != null) {
+                    kanal.beginne();
+                    kanal.schreibeInt(0);
+                    kanal.sende();
+                    kanal.schliesse();
+                }
+            }
+        }
+        server.close();
+        for(Process prozess : prozesse) {
+            prozess.waitFor();
+        }
+    }
+
+    /**
+     * Pruefe, ob einer der gestarteten Prozesse schon beendet ist.
+     */
+    private void pruefeProzesse() throws IOException
+    {
+        for(Process prozess : prozesse) {
+            int ende;
+            try {
+                ende = prozess.exitValue();
+            }
+            catch(IllegalThreadStateException e) {
+                // er laeuft noch
+                continue;
+            }
+            throw new IOException("Ein Streifenprozess wurde mit " + ende + " beendet");
+        }
+    }
+}
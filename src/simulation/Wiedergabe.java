@@ -0,0 +1,246 @@
+package simulation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Gibt einen mit einem Schrittprotokoll aufgezeichneten Lauf wieder.
+ * suche laedt das letzte Schluesselbild vor dem gewuenschten Schritt
+ * und fuehrt von dort die aufgezeichneten Ereignisse aus, statt die
+ * Schritte neu zu berechnen. Der Aufwand haengt so nur vom Abstand der
+ * Schluesselbilder ab und nicht davon, wie weit der Schritt vom Anfang
+ * des Laufs entfernt ist. Der gefundene Simulator kann danach normal
+ * weiter simuliert werden und verlaeuft mit denselben Parametern genau
+ * wie das Original.
+ *
+ * Beim Oeffnen werden nur die Koepfe der Schritte gelesen, um ihre
+ * Stellen in der Datei zu kennen. Ist die Datei am Ende unvollstaendig,
+ * etwa weil der Lauf abgebrochen wurde, endet die Wiedergabe mit dem
+ * letzten vollstaendigen Schritt.
+ *
+ * @author marc
+ */
+public class Wiedergabe
+{
+    private final File verzeichnis;
+    private final Parameter parameter;
+    private final FileChannel kanal;
+    private final Topologie topologie;
+    private final int ersterSchritt;
+    // Die Stelle des Kopfes jedes Schrittes in der Datei,
+    // Index ist schritt - ersterSchritt - 1
+    private long[] stellen;
+    private int letzterSchritt;
+    // Die Schritte mit Schluesselbild, aufsteigend
+    private final int[] schluesselbilder;
+    // Der Puffer fuer die Ereignisse eines Schrittes
+    private ByteBuffer puffer;
+
+    /**
+     * Oeffne ein Protokoll zur Wiedergabe.
+     * @param verzeichnis das Verzeichnis des Protokolls.
+     * @param parameter die Eigenschaften der Tierarten, mit denen
+     *        aufgezeichnet wurde (sie werden nicht mit aufgezeichnet).
+     * @throws IOException wenn die Ereignisse nicht gelesen werden
+     *         koennen oder kein gueltiges Protokoll enthalten.
+     */
+    public Wiedergabe(File verzeichnis, Parameter parameter) throws IOException
+    {
+        this.verzeichnis = verzeichnis;
+        this.parameter = parameter;
+        File datei = new File(verzeichnis, Schrittprotokoll.EREIGNISSE);
+        kanal = FileChannel.open(datei.toPath(), StandardOpenOption.READ);
+        try {
+            ByteBuffer kopf = ByteBuffer.allocate(Schrittprotokoll.KOPFGROESSE);
+            if(!lies(kopf, 0) || kopf.getInt() != Schrittprotokoll.KENNUNG) {
+                throw new IOException("Kein Schrittprotokoll: " + datei);
+            }
+            int version = kopf.getInt();
+            if(version != Schrittprotokoll.VERSION) {
+                throw new IOException("Version " + version
+                                      + " des Schrittprotokolls wird nicht unterstuetzt");
+            }
+            // tiefe, breite und saat stehen auch in jedem Schluesselbild
+            kopf.getInt();
+            kopf.getInt();
+            kopf.getLong();
+            int nummer = kopf.getInt();
+            if(nummer < 0 || nummer >= Topologie.values().length) {
+                throw new IOException("Schrittprotokoll ist beschaedigt: " + datei);
+            }
+            topologie = Topologie.values()[nummer];
+            kopf.getInt();
+            ersterSchritt = kopf.getInt();
+            indiziere();
+        }
+        catch(IOException e) {
+            kanal.close();
+            throw e;
+        }
+        schluesselbilder = gibSchluesselbilder(verzeichnis);
+        puffer = ByteBuffer.allocateDirect(1 << 16);
+    }
+
+    /**
+     * @return den ersten Schritt, zu dem gesucht werden kann.
+     */
+    public int gibErstenSchritt()
+    {
+        return ersterSchritt;
+    }
+
+    /**
+     * @return den letzten aufgezeichneten Schritt.
+     */
+    public int gibLetztenSchritt()
+    {
+        return letzterSchritt;
+    }
+
+    /**
+     * Stelle den Zustand nach einem Schritt wieder her.
+     * @param schritt der Schritt, zwischen gibErstenSchritt und
+     *        gibLetztenSchritt.
+     * @param ansicht die Ansicht des Simulators, oder null fuer die
+     *        Standardansicht.
+     * @return einen Simulator im Zustand nach dem Schritt.
+     * @throws IllegalArgumentException wenn der Schritt nicht
+     *         aufgezeichnet wurde.
+     * @throws IOException wenn das Protokoll nicht gelesen werden kann
+     *         oder beschaedigt ist.
+     */
+    public Simulator suche(int schritt, SimulatorAnsicht ansicht) throws IOException
+    {
+        if(schritt < ersterSchritt || schritt > letzterSchritt) {
+            throw new IllegalArgumentException("Schritt " + schritt + " ist nicht zwischen "
+                                               + ersterSchritt + " und " + letzterSchritt);
+        }
+        int bild = Arrays.binarySearch(schluesselbilder, schritt);
+        if(bild < 0) {
+            // das letzte Schluesselbild davor
+            bild = -bild - 2;
+        }
+        if(bild < 0) {
+            throw new IOException("Kein Schluesselbild vor Schritt " + schritt);
+        }
+        Simulator simulator = Simulator.lade(
+            Schrittprotokoll.gibSchluesselbild(verzeichnis, schluesselbilder[bild]),
+            ansicht, parameter);
+        if(simulator.gibTopologie() != topologie) {
+            throw new IOException("Schluesselbild passt nicht zum Schrittprotokoll");
+        }
+        ByteBuffer kopf = ByteBuffer.allocate(Schrittprotokoll.SCHRITTKOPF);
+        for(int s = schluesselbilder[bild] + 1; s <= schritt; s++) {
+            long stelle = stellen[s - ersterSchritt - 1];
+            kopf.clear();
+            lies(kopf, stelle);
+            kopf.getInt();
+            int laenge = kopf.getInt();
+            if(puffer.capacity() < laenge) {
+                puffer = ByteBuffer.allocateDirect(Math.max(laenge, puffer.capacity() * 2));
+            }
+            puffer.clear();
+            puffer.limit(laenge);
+            lies(puffer, stelle + Schrittprotokoll.SCHRITTKOPF);
+            simulator.spieleAb(puffer);
+        }
+        simulator.wiederhergestellt(schritt);
+        return simulator;
+    }
+
+    /**
+     * Schliesse die Datei mit den Ereignissen.
+     * @throws IOException wenn das Schliessen fehlschlaegt.
+     */
+    public void schliesse() throws IOException
+    {
+        kanal.close();
+    }
+
+    /**
+     * @param verzeichnis das Verzeichnis eines Protokolls.
+     * @return die Schritte, fuer die es dort ein Schluesselbild gibt,
+     *         aufsteigend.
+     */
+    static int[] gibSchluesselbilder(File verzeichnis)
+    {
+        String[] namen = verzeichnis.list();
+        if(namen == null) {
+            return new int[0];
+        }
+        int[] schritte = new int[namen.length];
+        int anzahl = 0;
+        for(String name : namen) {
+            if(name.startsWith("schritt-") && name.endsWith(".sim")) {
+                try {
+                    schritte[anzahl] = Integer.parseInt(
+                        name.substring("schritt-".length(), name.length() - ".sim".length()));
+                    anzahl++;
+                }
+                catch(NumberFormatException e) {
+                    // keine Datei des Protokolls
+                }
+            }
+        }
+        schritte = Arrays.copyOf(schritte, anzahl);
+        Arrays.sort(schritte);
+        return schritte;
+    }
+
+    /**
+     * Lies die Koepfe aller vollstaendigen Schritte und merke ihre
+     * Stellen in der Datei.
+     */
+    private void indiziere() throws IOException
+    {
+        stellen = new long[1024];
+        letzterSchritt = ersterSchritt;
+        ByteBuffer kopf = ByteBuffer.allocate(Schrittprotokoll.SCHRITTKOPF);
+        long stelle = Schrittprotokoll.KOPFGROESSE;
+        long groesse = kanal.size();
+        while(true) {
+            kopf.clear();
+            if(!lies(kopf, stelle)) {
+                break;
+            }
+            int schritt = kopf.getInt();
+            int laenge = kopf.getInt();
+            if(schritt != letzterSchritt + 1 || laenge < 0) {
+                throw new IOException("Schrittprotokoll ist beschaedigt bei Schritt "
+                                      + (letzterSchritt + 1));
+            }
+            if(stelle + Schrittprotokoll.SCHRITTKOPF + laenge > groesse) {
+                // der letzte Schritt ist unvollstaendig
+                break;
+            }
+            int index = schritt - ersterSchritt - 1;
+            if(index == stellen.length) {
+                stellen = Arrays.copyOf(stellen, index * 2);
+            }
+            stellen[index] = stelle;
+            letzterSchritt = schritt;
+            stelle += Schrittprotokoll.SCHRITTKOPF + laenge;
+        }
+    }
+
+    /**
+     * Fuelle einen Puffer ab einer Stelle der Datei bis zu seiner Grenze.
+     * @return false, wenn die Datei vorher endet.
+     */
+    private boolean lies(ByteBuffer ziel, long stelle) throws IOException
+    {
+        while(ziel.hasRemaining()) {
+            int gelesen = kanal.read(ziel, stelle);
+            if(gelesen < 0) {
+                return false;
+            }
+            stelle += gelesen;
+        }
+        ziel.flip();
+        return true;
+    }
+}
@@ -51,6 +51,15 @@ public class Zaehler
         zaehler++;
     }
     
+    /**
+     * Veraendere diesen Zaehler um den gegebenen Betrag.
+     * @param betrag die Aenderung (kann negativ sein).
+     */
+    public void addieren(int betrag)
+    {
+        zaehler += betrag;
+    }
+    
     /**
      * Setze diesen Z�hler auf Null zur�ck.
      */
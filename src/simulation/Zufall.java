@@ -0,0 +1,92 @@
+package simulation;
+
+import java.util.Random;
+
+/**
+ * Ein schneller, reproduzierbarer Zufallsgenerator nach dem
+ * SplitMix64-Verfahren (dem Verfahren von java.util.SplittableRandom).
+ *
+ * Er erweitert java.util.Random und kann deshalb ueberall benutzt
+ * werden, wo ein Random erwartet wird. Anders als Random haelt er
+ * seinen Zustand in einem einfachen long statt in einem AtomicLong:
+ * Ein Zufall-Objekt darf deshalb nur von einem Thread benutzt werden,
+ * dafuer kostet jede Zufallszahl nur wenige Rechenschritte.
+ *
+ * Mit ableiten werden aus einer einzigen Saat unabhaengige Saaten fuer
+ * jeden Schritt und jeden Teil einer Simulation gebildet. Damit haengen
+ * die Zufallszahlen eines Teils nur von Saat, Schritt und Teil ab -
+ * nicht davon, welcher Thread ihn wann bearbeitet.
+ *
+ * @author marc
+ */
+public class Zufall extends Random
+{
+    private static final long serialVersionUID = 1L;
+
+    // Die Schrittweite von SplitMix64 (2^64 geteilt durch den goldenen Schnitt).
+    private static final long GOLDENER_SCHNITT = 0x9E3779B97F4A7C15L;
+
+    // Der Zustand des Generators.
+    private long zustand;
+
+    /**
+     * Erzeuge einen Generator mit der gegebenen Saat.
+     * @param saat die Saat.
+     */
+    public Zufall(long saat)
+    {
+        super(saat);
+        zustand = saat;
+    }
+
+    /**
+     * Bilde aus einer Saat die Saat fuer einen Teil eines Schrittes.
+     * @param saat die Saat der ganzen Simulation.
+     * @param schritt die Nummer des Schrittes.
+     * @param teil die Nummer des Teils (etwa einer Kachel).
+     * @return eine Saat, die von allen drei Werten abhaengt.
+     */
+    public static long ableiten(long saat, long schritt, long teil)
+    {
+        return mische(mische(saat + schritt * GOLDENER_SCHNITT) + teil * GOLDENER_SCHNITT);
+    }
+
+    /**
+     * Setze den Generator auf eine neue Saat zurueck.
+     * @param saat die neue Saat.
+     */
+    public void setSeed(long saat)
+    {
+        zustand = saat;
+    }
+
+    /**
+     * @return den aktuellen Zustand, aus dem der Generator mit
+     *         setSeed wiederhergestellt werden kann.
+     */
+    public long gibZustand()
+    {
+        return zustand;
+    }
+
+    public long nextLong()
+    {
+        zustand += GOLDENER_SCHNITT;
+        return mische(zustand);
+    }
+
+    protected int next(int bits)
+    {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    /**
+     * Die Mischfunktion von SplitMix64.
+     */
+    private static long mische(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}